@@ -5,18 +5,29 @@ import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.stage.Modality;
 import javafx.stage.FileChooser;
+import javafx.concurrent.Worker;
+import com.taskmanager.service.AsyncTaskManager;
+import com.taskmanager.service.IoExecutor;
+import com.taskmanager.service.TaskJsonReader;
+import com.taskmanager.service.TaskJsonWriter;
 import com.taskmanager.service.TaskManager;
+import com.taskmanager.service.TaskQuery;
+import com.taskmanager.service.TaskReader;
+import com.taskmanager.service.TaskSnapshotReader;
+import com.taskmanager.service.TaskSnapshotWriter;
+import com.taskmanager.service.TaskWriter;
 import com.taskmanager.model.Task;
 import com.taskmanager.view.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import java.time.format.DateTimeFormatter;
@@ -25,6 +36,7 @@ import java.util.Set;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.control.ListView;
@@ -36,10 +48,10 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.animation.ScaleTransition;
 import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.Animation;
 import javafx.scene.effect.DropShadow;
 import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
-import java.lang.reflect.Type;
 
 /**
  * Main application UI class.
@@ -50,18 +62,33 @@ import java.lang.reflect.Type;
 @SuppressWarnings({"unchecked", "rawtypes"})
 public class MainUI extends Application {
     private TaskManager taskManager;
+    // Every read and write from the UI goes through here, off the FX thread
+    private AsyncTaskManager tasks;
     private TabPane tabPane;
     private boolean isDarkTheme = false;
-    private ObservableList<Task> taskData;
+    // Only the pages around the visible rows are loaded
+    private PagedTaskList taskData;
     private ListView<Task> taskListView;
+    private MonthViewCalendarTab calendarView;
+    private DashboardView dashboardView;
+    // Filters chosen in the task list's filter menu; each menu section narrows one dimension
+    private TaskQuery taskFilter = TaskQuery.all();
+    private static final String SNAPSHOT_EXTENSION = ".tmsnap";
     private static final String SUPPRESSION_FILE = System.getProperty("user.home") + File.separator + ".suppressed_reminders.txt";
     private Set<String> suppressedReminders = new HashSet<>(); // Format: taskId:yyyy-MM-dd
+    // Latest contents for the suppression file; whichever background save runs last writes these
+    private volatile List<String> suppressedRemindersToSave;
 
     @Override
-    public void start(Stage primaryStage) {
+    public void init() {
+        // Opening the database (and loading memory mode) and reading the reminder file happen here, off the FX thread
         taskManager = new TaskManager();
+        tasks = new AsyncTaskManager(taskManager, javafx.application.Platform::runLater);
         loadSuppressedReminders();
-        
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
         // Create main layout
         BorderPane root = new BorderPane();
         
@@ -70,8 +97,10 @@ public class MainUI extends Application {
         root.setTop(topContainer);
         
         // Initialize taskData and taskTable BEFORE creating tabs
-        taskData = FXCollections.observableArrayList(taskManager.getAllTasks());
+        taskData = new PagedTaskList(tasks, taskFilter);
         taskListView = new ListView<>(taskData);
+        // Each change moves, inserts or removes just the affected row instead of reloading the list
+        taskManager.addChangeListener(taskData);
         taskListView.setCellFactory(list -> new TaskCardCell());
         taskListView.setFixedCellSize(-1); // Enable pixel-based smooth scrolling
         taskListView.setCache(true);
@@ -140,6 +169,17 @@ public class MainUI extends Application {
         checkAndShowReminders();
     }
 
+    @Override
+    public void stop() {
+        if (dashboardView != null) {
+            dashboardView.stopAutoRefresh();
+        }
+        // Let edits made just before closing reach the database
+        if (tasks != null) {
+            tasks.close(5);
+        }
+    }
+
     private Node createMenuBar() {
         // Create the main top container
         BorderPane topContainer = new BorderPane();
@@ -156,15 +196,49 @@ public class MainUI extends Application {
         MenuItem importItem = new MenuItem("Import Tasks from JSON");
         importItem.setOnAction(e -> importTasksFromJson());
         
+        MenuItem exportSnapshotItem = new MenuItem("Export Snapshot");
+        exportSnapshotItem.setOnAction(e -> exportTasksToSnapshot());
+        
+        MenuItem importSnapshotItem = new MenuItem("Import Snapshot");
+        importSnapshotItem.setOnAction(e -> importTasksFromSnapshot());
+        
         MenuItem exitItem = new MenuItem("Exit");
         exitItem.setOnAction(e -> System.exit(0));
         
-        fileMenu.getItems().addAll(exportItem, importItem, new SeparatorMenuItem(), exitItem);
+        fileMenu.getItems().addAll(exportItem, importItem, new SeparatorMenuItem(),
+            exportSnapshotItem, importSnapshotItem, new SeparatorMenuItem(), exitItem);
+        
+        // Edit Menu
+        Menu editMenu = new Menu("Edit");
+        
+        MenuItem undoItem = new MenuItem("Undo");
+        undoItem.setAccelerator(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN));
+        undoItem.setOnAction(e -> afterUndoOrRedo(tasks.undo(), "Failed to undo"));
+        
+        MenuItem redoItem = new MenuItem("Redo");
+        redoItem.setAccelerator(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN));
+        redoItem.setOnAction(e -> afterUndoOrRedo(tasks.redo(), "Failed to redo"));
+        
+        editMenu.getItems().addAll(undoItem, redoItem);
+        // The history only lives in memory, so this check is cheap enough for the UI thread
+        editMenu.setOnShowing(e -> {
+            undoItem.setDisable(!taskManager.canUndo());
+            redoItem.setDisable(!taskManager.canRedo());
+        });
+        editMenu.setOnHidden(e -> {
+            // Keep the shortcuts working while the menu is closed
+            undoItem.setDisable(false);
+            redoItem.setDisable(false);
+        });
         
-        // Empty View Menu
+        // View Menu
         Menu viewMenu = new Menu("View");
         
-        menuBar.getMenus().addAll(fileMenu, viewMenu);
+        MenuItem verifyStatsItem = new MenuItem("Verify Dashboard Statistics");
+        verifyStatsItem.setOnAction(e -> verifyStatistics());
+        viewMenu.getItems().add(verifyStatsItem);
+        
+        menuBar.getMenus().addAll(fileMenu, editMenu, viewMenu);
         
         // Set menu bar to the left side of the top container
         topContainer.setLeft(menuBar);
@@ -236,12 +310,9 @@ public class MainUI extends Application {
         filterBtn.getStyleClass().addAll("button", "filter-button");
         filterBtn.setPrefHeight(addTaskBtn.getHeight());
         
-        // Reset filter function
-        Runnable resetFilters = () -> taskData.setAll(taskManager.getAllTasks());
-        
         // Show All item
         MenuItem showAllItem = new MenuItem("Show All");
-        showAllItem.setOnAction(e -> resetFilters.run());
+        showAllItem.setOnAction(e -> applyTaskFilter(TaskQuery.all(), filterBtn));
         
         // Avoid using nested submenus - use separator and headers instead
         SeparatorMenuItem statusSeparator = new SeparatorMenuItem();
@@ -252,24 +323,17 @@ public class MainUI extends Application {
         
         MenuItem showCompletedItem = new MenuItem("✓ Completed Tasks");
         showCompletedItem.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(Task::isCompleted)
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withCompleted(true).withDueBetween(null, null), filterBtn);
         });
         
         MenuItem showPendingItem = new MenuItem("○ Uncompleted Tasks");
         showPendingItem.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> !task.isCompleted())
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withCompleted(false).withDueBetween(null, null), filterBtn);
         });
         
         MenuItem showOverdueItem = new MenuItem("⏰ Overdue Tasks");
         showOverdueItem.setOnAction(e -> {
-            LocalDateTime now = LocalDateTime.now();
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> !task.isCompleted() && task.getDueDate().isBefore(now))
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withCompleted(false).withDueBetween(null, LocalDateTime.now()), filterBtn);
         });
         
         // Priority section - with header instead of submenu
@@ -281,37 +345,27 @@ public class MainUI extends Application {
         
         MenuItem priority1Item = new MenuItem("⚪ Priority 1 (Highest)");
         priority1Item.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> task.getPriority() == 1)
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withPriorityBetween(1, 1), filterBtn);
         });
         
         MenuItem priority2Item = new MenuItem("⚪ Priority 2");
         priority2Item.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> task.getPriority() == 2)
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withPriorityBetween(2, 2), filterBtn);
         });
         
         MenuItem priority3Item = new MenuItem("⚪ Priority 3");
         priority3Item.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> task.getPriority() == 3)
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withPriorityBetween(3, 3), filterBtn);
         });
         
         MenuItem priority4Item = new MenuItem("⚪ Priority 4");
         priority4Item.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> task.getPriority() == 4)
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withPriorityBetween(4, 4), filterBtn);
         });
         
         MenuItem priority5Item = new MenuItem("⚪ Priority 5");
         priority5Item.setOnAction(e -> {
-            taskData.setAll(taskManager.getAllTasks().stream()
-                    .filter(task -> task.getPriority() == 5)
-                    .collect(java.util.stream.Collectors.<Task>toList()));
+            applyTaskFilter(taskFilter.withPriorityBetween(5, 5), filterBtn);
         });
         
         // Category section - with header instead of submenu
@@ -323,27 +377,27 @@ public class MainUI extends Application {
         
         // Initial list for categories
         List<MenuItem> categoryItems = new ArrayList<>();
+        List<String> shownCategories = new ArrayList<>();
         
         // Function to refresh category filters
-        Runnable refreshCategoryMenu = () -> {
+        Runnable refreshCategoryMenu = () -> tasks.getCategories().thenAccept(categories -> {
+            // Most changes leave the categories as they are
+            if (!categoryItems.isEmpty() && categories.equals(shownCategories)) {
+                return;
+            }
+            shownCategories.clear();
+            shownCategories.addAll(categories);
+            
             // Remove existing category items
             filterBtn.getItems().removeAll(categoryItems);
             categoryItems.clear();
             
-            // Get all unique categories
-            Set<String> categories = taskManager.getAllTasks().stream()
-                .map(Task::getCategory)
-                .collect(java.util.stream.Collectors.toSet());
-            
             // Add menu item for each category
             for (String category : categories) {
                 if (category != null && !category.isEmpty()) {
                     MenuItem categoryItem = new MenuItem("📂 " + category);
                     categoryItem.setOnAction(e -> {
-                        String selectedCategory = category; // Use captured category
-                        taskData.setAll(taskManager.getAllTasks().stream()
-                            .filter(task -> selectedCategory.equals(task.getCategory()))
-                            .collect(java.util.stream.Collectors.<Task>toList()));
+                        applyTaskFilter(taskFilter.withCategories(List.of(category)), filterBtn);
                     });
                     categoryItems.add(categoryItem);
                 }
@@ -361,7 +415,7 @@ public class MainUI extends Application {
             if (headerIndex >= 0) {
                 filterBtn.getItems().addAll(headerIndex + 1, categoryItems);
             }
-        };
+        });
         
         // Add all the items to the menu button in a flat structure (no nested menus)
         filterBtn.getItems().addAll(
@@ -385,10 +439,15 @@ public class MainUI extends Application {
         
         headerBar.getChildren().addAll(addTaskBtn, spacer, filterBtn);
         
-        // Refresh category menu whenever tasks change
-        taskData.addListener((javafx.collections.ListChangeListener<Task>) c -> {
-            refreshCategoryMenu.run();
-        });
+        // Refresh category menu whenever tasks change, including tasks outside the current filter;
+        // once per burst of changes, as each read has to wait for the queued writes before it
+        PauseTransition categoryRefreshDelay = new PauseTransition(Duration.millis(300));
+        categoryRefreshDelay.setOnFinished(e -> refreshCategoryMenu.run());
+        taskManager.addChangeListener(event -> javafx.application.Platform.runLater(() -> {
+            if (categoryRefreshDelay.getStatus() != Animation.Status.RUNNING) {
+                categoryRefreshDelay.playFromStart();
+            }
+        }));
         
         // ===== IMPROVED SCROLLING EXPERIENCE =====
         // Enable smooth pixel-based scrolling
@@ -435,14 +494,19 @@ public class MainUI extends Application {
     private Tab createCalendarTab() {
         Tab tab = new Tab("Calendar");
         tab.setClosable(false);
-        tab.setContent(new MonthViewCalendarTab(taskManager));
+        calendarView = new MonthViewCalendarTab(tasks);
+        tab.setContent(calendarView);
         return tab;
     }
 
     private Tab createDashboardTab() {
         Tab tab = new Tab("Dashboard");
         tab.setClosable(false);
-        tab.setContent(new DashboardView(taskManager));
+        dashboardView = new DashboardView(tasks);
+        // Only recompute statistics while the dashboard is actually visible
+        tab.selectedProperty().addListener((obs, wasSelected, isSelected) -> dashboardView.setActive(isSelected));
+        dashboardView.setActive(tab.isSelected());
+        tab.setContent(dashboardView);
         return tab;
     }
 
@@ -545,8 +609,7 @@ public class MainUI extends Application {
                 }
 
                 Task task = new Task(title, description, category, priority, dueDateTime);
-                taskManager.addTask(task);
-                taskData.setAll(taskManager.getAllTasks());
+                alertOnFailure(tasks.addTask(task), "Failed to add task");
                 
                 dialog.close();
             } catch (IllegalArgumentException ex) {
@@ -667,14 +730,15 @@ public class MainUI extends Application {
                         throw new IllegalArgumentException("Due date cannot be in the past");
                     }
 
-                    selected.setTitle(title);
-                    selected.setDescription(description);
-                    selected.setCategory(category);
-                    selected.setPriority(priority);
-                    selected.setDueDate(dueDateTime);
-                    taskManager.updateTask(selected);
-                    taskData.setAll(taskManager.getAllTasks());
-                    return selected;
+                    // The list row is replaced by the change event; its own object stays as it was
+                    Task edited = new Task(selected);
+                    edited.setTitle(title);
+                    edited.setDescription(description);
+                    edited.setCategory(category);
+                    edited.setPriority(priority);
+                    edited.setDueDate(dueDateTime);
+                    alertOnFailure(tasks.updateTask(edited), "Failed to edit task");
+                    return edited;
                 } catch (IllegalArgumentException e) {
                     showAlert("Validation Error", e.getMessage());
                     return null;
@@ -695,8 +759,36 @@ public class MainUI extends Application {
     private void deleteSelectedTask() {
         Task selected = taskListView.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        taskManager.deleteTask(selected.getId());
-        taskData.setAll(taskManager.getAllTasks());
+        alertOnFailure(tasks.deleteTask(selected.getId()), "Failed to delete task");
+    }
+
+    // Writes run in the background; report a failure once it comes back to the FX thread
+    private void alertOnFailure(CompletableFuture<?> write, String message) {
+        write.exceptionally(ex -> {
+            showAlert("Error", message + ": " + ex.getMessage());
+            return null;
+        });
+    }
+
+    // The task list and dashboard follow change events; the calendar has to be told
+    private void afterUndoOrRedo(CompletableFuture<Boolean> change, String message) {
+        change.whenComplete((changed, error) -> {
+            if (error != null) {
+                showAlert("Error", message + ": " + error.getMessage());
+            }
+            if (calendarView != null) {
+                calendarView.refresh();
+            }
+        });
+    }
+
+    private void applyTaskFilter(TaskQuery filter, MenuButton filterBtn) {
+        taskFilter = filter;
+        int active = (filter.getCompleted() != null ? 1 : 0)
+            + (filter.getMinPriority() != null ? 1 : 0)
+            + (filter.getCategories() != null ? 1 : 0);
+        filterBtn.setText(active == 0 ? "Filter Tasks" : "Filter Tasks (" + active + ")");
+        taskData.reload(taskFilter);
     }
 
     private void validateTaskInput(String title, String category, Integer priority, 
@@ -731,6 +823,29 @@ public class MainUI extends Application {
         }
     }
 
+    // Check the materialized dashboard counters against the tasks table and rebuild them on drift
+    private void verifyStatistics() {
+        tasks.inWriteOrder(manager -> {
+            if (manager.verifyStatistics()) {
+                return true;
+            }
+            manager.rebuildStatistics();
+            return false;
+        }).whenComplete((consistent, ex) -> {
+            if (ex != null) {
+                showAlert("Error", "Failed to verify statistics: " + ex.getMessage());
+                return;
+            }
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Dashboard Statistics");
+            alert.setHeaderText(null);
+            alert.setContentText(consistent
+                ? "Dashboard statistics are consistent with the task list."
+                : "Dashboard statistics were out of date and have been rebuilt.");
+            alert.showAndWait();
+        });
+    }
+
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -753,8 +868,13 @@ public class MainUI extends Application {
     private void checkAndShowReminders() {
         LocalDateTime now = LocalDateTime.now();
         LocalDate today = now.toLocalDate();
-        for (Task task : taskManager.getAllTasks()) {
-            if (task.isCompleted()) continue;
+        // Both reminders are for pending tasks due between now and the end of tomorrow
+        TaskQuery upcoming = TaskQuery.all().withCompleted(false).withDueBetween(now, today.plusDays(2).atStartOfDay());
+        tasks.query(upcoming).thenAccept(dueSoon -> showReminders(dueSoon, now, today));
+    }
+
+    private void showReminders(List<Task> dueSoon, LocalDateTime now, LocalDate today) {
+        for (Task task : dueSoon) {
             LocalDateTime due = task.getDueDate();
             long taskId = task.getId();
             String suppressionKey = taskId + ":" + today.toString();
@@ -817,8 +937,13 @@ public class MainUI extends Application {
     }
 
     private void saveSuppressedReminders() {
+        suppressedRemindersToSave = new ArrayList<>(suppressedReminders);
+        IoExecutor.shared().execute(this::writeSuppressedReminders);
+    }
+
+    private synchronized void writeSuppressedReminders() {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(SUPPRESSION_FILE))) {
-            for (String key : suppressedReminders) {
+            for (String key : suppressedRemindersToSave) {
                 writer.write(key);
                 writer.newLine();
             }
@@ -884,10 +1009,10 @@ public class MainUI extends Application {
             completedBox.setOnAction(e -> {
                 Task task = getItem();
                 if (task != null) {
-                    task.setCompleted(completedBox.isSelected());
-                    completedBox.setText(task.isCompleted() ? "Completed" : "Not Completed");
-                    taskManager.updateTask(task);
-                    taskData.setAll(taskManager.getAllTasks());
+                    Task toggled = new Task(task);
+                    toggled.setCompleted(completedBox.isSelected());
+                    completedBox.setText(toggled.isCompleted() ? "Completed" : "Not Completed");
+                    alertOnFailure(tasks.updateTask(toggled), "Failed to update task");
                 }
             });
 
@@ -967,8 +1092,7 @@ public class MainUI extends Application {
                         
                         confirm.showAndWait().ifPresent(result -> {
                             if (result == ButtonType.OK) {
-                                taskManager.deleteTask(selected.getId());
-                                taskData.setAll(taskManager.getAllTasks());
+                                alertOnFailure(tasks.deleteTask(selected.getId()), "Failed to delete task");
                             }
                         });
                     }
@@ -1068,8 +1192,9 @@ public class MainUI extends Application {
         
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Export Tasks to JSON");
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("JSON Files", "*.json")
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("JSON Files", "*.json"),
+            new FileChooser.ExtensionFilter("Compressed JSON Files", "*.json.gz")
         );
         fileChooser.setInitialFileName("tasks_export.json");
         
@@ -1083,53 +1208,78 @@ public class MainUI extends Application {
         }
         
         if (file != null) {
-            try (FileWriter writer = new FileWriter(file)) {
-                // Create Gson with LocalDateTime adapter
-                Gson gson = createGsonWithAdapters();
-                
-                // Convert task list to JSON and write to file
-                List<Task> tasks = taskManager.getAllTasks();
-                String json = gson.toJson(tasks);
-                writer.write(json);
-                
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Export Successful");
-                successAlert.setHeaderText(null);
-                successAlert.setContentText("Tasks have been successfully exported to " + file.getAbsolutePath());
-                
-                // Add an event handler to restore maximized state when dialog closes
-                successAlert.setOnHidden(e -> {
-                    if (wasMaximized) {
-                        // Use Platform.runLater to ensure this happens after all other events
-                        javafx.application.Platform.runLater(() -> {
-                            mainStage.setMaximized(true);
-                        });
-                    }
-                });
-                
-                successAlert.showAndWait();
-                
-            } catch (Exception ex) {
-                Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-                errorAlert.setTitle("Export Error");
-                errorAlert.setHeaderText(null);
-                errorAlert.setContentText("Failed to export tasks: " + ex.getMessage());
-                
-                // Add an event handler to restore maximized state when dialog closes
-                errorAlert.setOnHidden(e -> {
-                    if (wasMaximized) {
-                        // Use Platform.runLater to ensure this happens after all other events
-                        javafx.application.Platform.runLater(() -> {
-                            mainStage.setMaximized(true);
-                        });
-                    }
-                });
-                
-                errorAlert.showAndWait();
-            }
+            // Create Gson with LocalDateTime adapter
+            Gson gson = createGsonWithAdapters();
+            boolean gzip = file.getName().endsWith(".gz");
+            runExport(file, out -> new TaskJsonWriter(out, gson, gzip), mainStage, wasMaximized);
         }
     }
     
+    // Export tasks to a binary snapshot file
+    private void exportTasksToSnapshot() {
+        Stage mainStage = (Stage) tabPane.getScene().getWindow();
+        boolean wasMaximized = mainStage.isMaximized();
+        
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Snapshot");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Task Snapshots", "*" + SNAPSHOT_EXTENSION)
+        );
+        fileChooser.setInitialFileName("tasks_backup" + SNAPSHOT_EXTENSION);
+        
+        File file = fileChooser.showSaveDialog(mainStage);
+        
+        if (wasMaximized) {
+            javafx.application.Platform.runLater(() -> {
+                mainStage.setMaximized(true);
+            });
+        }
+        
+        if (file != null) {
+            runExport(file, TaskSnapshotWriter::new, mainStage, wasMaximized);
+        }
+    }
+    
+    // Stream rows from a database cursor straight into the file as a database job after the edits
+    // made before it, so neither the window nor the heap depends on how many tasks there are; the
+    // scan reads in chunks, so edits made meanwhile are not held up
+    private void runExport(File file, StreamOpener<OutputStream, TaskWriter> format,
+                           Stage mainStage, boolean wasMaximized) {
+        javafx.concurrent.Task<Long> exportJob = new javafx.concurrent.Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                TaskManager manager = tasks.getTaskManager();
+                long total = manager.getTaskStatistics().getTotal();
+                long exported;
+                try (TaskWriter writer = format.open(new FileOutputStream(file))) {
+                    exported = manager.forEachTask(task -> {
+                        writer.write(task);
+                        long written = writer.getCount();
+                        if (written % 1000 == 0) {
+                            updateProgress(written, total);
+                            updateMessage(written + " of " + total + " tasks exported...");
+                        }
+                    });
+                } catch (Exception ex) {
+                    // Cancelled or failed: don't leave a truncated export behind
+                    file.delete();
+                    throw ex;
+                }
+                return exported;
+            }
+        };
+        
+        exportJob.setOnSucceeded(e -> showResultAlert(Alert.AlertType.INFORMATION, "Export Successful",
+            "Tasks have been successfully exported to " + file.getAbsolutePath(), mainStage, wasMaximized));
+        exportJob.setOnCancelled(e -> showResultAlert(Alert.AlertType.INFORMATION, "Export Cancelled",
+            "The export was cancelled and the partial file was removed.", mainStage, wasMaximized));
+        exportJob.setOnFailed(e -> showResultAlert(Alert.AlertType.ERROR, "Export Error",
+            "Failed to export tasks: " + exportJob.getException().getMessage(), mainStage, wasMaximized));
+        
+        showProgressDialog("Exporting Tasks", exportJob);
+        tasks.read(exportJob);
+    }
+    
     // Import tasks from JSON file
     private void importTasksFromJson() {
         // Store reference to the current stage and its state
@@ -1139,7 +1289,7 @@ public class MainUI extends Application {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Import Tasks from JSON");
         fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("JSON Files", "*.json")
+            new FileChooser.ExtensionFilter("JSON Files", "*.json", "*.json.gz")
         );
         
         File file = fileChooser.showOpenDialog(mainStage);
@@ -1152,99 +1302,154 @@ public class MainUI extends Application {
         }
         
         if (file != null) {
-            try (FileReader reader = new FileReader(file)) {
-                // Create confirmation dialog
-                Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-                confirmAlert.setTitle("Import Tasks");
-                confirmAlert.setHeaderText("Import Mode");
-                confirmAlert.setContentText("Do you want to replace all existing tasks or add to them?");
-                
-                ButtonType replaceButton = new ButtonType("Replace All");
-                ButtonType addButton = new ButtonType("Add to Existing");
-                ButtonType cancelButton = ButtonType.CANCEL;
-                
-                confirmAlert.getButtonTypes().setAll(replaceButton, addButton, cancelButton);
-                
-                if (wasMaximized) {
-                    // Add an event handler to restore maximized state when dialog closes
-                    confirmAlert.setOnCloseRequest(e -> {
-                        javafx.application.Platform.runLater(() -> {
-                            mainStage.setMaximized(true);
-                        });
+            // Create Gson with LocalDateTime adapter
+            Gson gson = createGsonWithAdapters();
+            runImport(file, in -> new TaskJsonReader(in, gson), mainStage, wasMaximized);
+        }
+    }
+    
+    // Restore tasks from a binary snapshot file
+    private void importTasksFromSnapshot() {
+        Stage mainStage = (Stage) tabPane.getScene().getWindow();
+        boolean wasMaximized = mainStage.isMaximized();
+        
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Snapshot");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Task Snapshots", "*" + SNAPSHOT_EXTENSION)
+        );
+        
+        File file = fileChooser.showOpenDialog(mainStage);
+        
+        if (wasMaximized) {
+            javafx.application.Platform.runLater(() -> {
+                mainStage.setMaximized(true);
+            });
+        }
+        
+        if (file != null) {
+            runImport(file, TaskSnapshotReader::new, mainStage, wasMaximized);
+        }
+    }
+    
+    // Ask for the import mode, then decode and insert one batch at a time on the writer thread,
+    // so the file never has to fit in memory and the window stays responsive. Replace and add both
+    // run in one transaction, so a bad file or a cancel leaves existing tasks untouched.
+    private void runImport(File file, StreamOpener<InputStream, TaskReader> format,
+                           Stage mainStage, boolean wasMaximized) {
+        // Create confirmation dialog
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Import Tasks");
+        confirmAlert.setHeaderText("Import Mode");
+        confirmAlert.setContentText("Do you want to replace all existing tasks or add to them?");
+        
+        ButtonType replaceButton = new ButtonType("Replace All");
+        ButtonType addButton = new ButtonType("Add to Existing");
+        ButtonType cancelButton = ButtonType.CANCEL;
+        
+        confirmAlert.getButtonTypes().setAll(replaceButton, addButton, cancelButton);
+        
+        if (wasMaximized) {
+            // Add an event handler to restore maximized state when dialog closes
+            confirmAlert.setOnCloseRequest(e -> {
+                javafx.application.Platform.runLater(() -> {
+                    mainStage.setMaximized(true);
+                });
+            });
+        }
+        
+        ButtonType result = confirmAlert.showAndWait().orElse(cancelButton);
+        
+        if (result == cancelButton) {
+            return;
+        }
+        
+        boolean replace = result == replaceButton;
+        long fileSize = file.length();
+        
+        javafx.concurrent.Task<Long> importJob = new javafx.concurrent.Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                try (TaskReader reader = format.open(new FileInputStream(file))) {
+                    return tasks.getTaskManager().importTasks(reader, replace, imported -> {
+                        updateProgress(reader.getBytesRead(), fileSize);
+                        updateMessage(imported + " tasks imported...");
                     });
                 }
-                
-                ButtonType result = confirmAlert.showAndWait().orElse(cancelButton);
-                
-                if (result == cancelButton) {
-                    return;
-                }
-                
-                if (result == replaceButton) {
-                    // Delete all existing tasks
-                    for (Task task : new ArrayList<>(taskManager.getAllTasks())) {
-                        taskManager.deleteTask(task.getId());
-                    }
-                }
-                
-                // Create Gson with LocalDateTime adapter
-                Gson gson = createGsonWithAdapters();
-                
-                // Define the type for list of tasks
-                Type taskListType = new TypeToken<ArrayList<Task>>(){}.getType();
-                
-                // Parse JSON
-                List<Task> importedTasks = gson.fromJson(reader, taskListType);
-                int importCount = 0;
-                
-                // Add imported tasks
-                if (importedTasks != null) {
-                    for (Task task : importedTasks) {
-                        taskManager.addTask(task);
-                        importCount++;
-                    }
-                }
-                
-                // Refresh the task data
-                taskData.setAll(taskManager.getAllTasks());
-                
-                // Show success message
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Import Successful");
-                successAlert.setHeaderText(null);
-                successAlert.setContentText(importCount + " tasks have been successfully imported.");
-                
-                // Add an event handler to restore maximized state when dialog closes
-                successAlert.setOnHidden(e -> {
-                    if (wasMaximized) {
-                        // Use Platform.runLater to ensure this happens after all other events
-                        javafx.application.Platform.runLater(() -> {
-                            mainStage.setMaximized(true);
-                        });
-                    }
-                });
-                
-                successAlert.showAndWait();
-                
-            } catch (Exception ex) {
-                Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-                errorAlert.setTitle("Import Error");
-                errorAlert.setHeaderText(null);
-                errorAlert.setContentText("Failed to import tasks: " + ex.getMessage());
-                
-                // Add an event handler to restore maximized state when dialog closes
-                errorAlert.setOnHidden(e -> {
-                    if (wasMaximized) {
-                        // Use Platform.runLater to ensure this happens after all other events
-                        javafx.application.Platform.runLater(() -> {
-                            mainStage.setMaximized(true);
-                        });
-                    }
+            }
+        };
+        
+        importJob.setOnSucceeded(e -> {
+            // The task list already reloaded itself on the import's RELOADED event
+            showResultAlert(Alert.AlertType.INFORMATION, "Import Successful",
+                importJob.getValue() + " tasks have been successfully imported.", mainStage, wasMaximized);
+        });
+        importJob.setOnCancelled(e -> showResultAlert(Alert.AlertType.INFORMATION, "Import Cancelled",
+            "The import was cancelled. Existing tasks were left unchanged.", mainStage, wasMaximized));
+        importJob.setOnFailed(e -> showResultAlert(Alert.AlertType.ERROR, "Import Error",
+            "Failed to import tasks: " + importJob.getException().getMessage(), mainStage, wasMaximized));
+        
+        showProgressDialog("Importing Tasks", importJob);
+        tasks.inWriteOrder(importJob);
+    }
+    
+    // Opens an import/export format over a file stream
+    @FunctionalInterface
+    private interface StreamOpener<S, T> {
+        T open(S stream) throws IOException;
+    }
+    
+    // Modal window tracking a background job; closes itself when the job ends
+    private void showProgressDialog(String title, javafx.concurrent.Task<?> job) {
+        Stage mainStage = (Stage) tabPane.getScene().getWindow();
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.WINDOW_MODAL);
+        dialog.initOwner(mainStage);
+        dialog.setTitle(title);
+        
+        Label message = new Label();
+        message.textProperty().bind(job.messageProperty());
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(320);
+        progressBar.progressProperty().bind(job.progressProperty());
+        Button cancelBtn = new Button("Cancel");
+        cancelBtn.setOnAction(e -> job.cancel());
+        dialog.setOnCloseRequest(e -> job.cancel());
+        
+        VBox content = new VBox(12, message, progressBar, cancelBtn);
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(20));
+        Scene scene = new Scene(content);
+        applyTheme(scene);
+        dialog.setScene(scene);
+        
+        // Not runningProperty: a job cancelled while still queued goes from READY to CANCELLED
+        // without ever running
+        job.stateProperty().addListener((obs, oldState, state) -> {
+            if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                dialog.close();
+            }
+        });
+        dialog.show();
+    }
+    
+    private void showResultAlert(Alert.AlertType type, String title, String content, Stage mainStage, boolean wasMaximized) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        
+        // Add an event handler to restore maximized state when dialog closes
+        alert.setOnHidden(e -> {
+            if (wasMaximized) {
+                // Use Platform.runLater to ensure this happens after all other events
+                javafx.application.Platform.runLater(() -> {
+                    mainStage.setMaximized(true);
                 });
-                
-                errorAlert.showAndWait();
             }
-        }
+        });
+        
+        alert.showAndWait();
     }
     
     // Create Gson with custom adapters for LocalDateTime
@@ -0,0 +1,21 @@
+package com.taskmanager.model;
+
+/**
+ * Number of tasks per category, held in parallel arrays ordered by category name.
+ */
+public class CategoryCounts {
+    private final String[] categories;
+    private final long[] counts;
+
+    public CategoryCounts(String[] categories, long[] counts) {
+        if (categories.length != counts.length) {
+            throw new IllegalArgumentException("Categories and counts must have the same length");
+        }
+        this.categories = categories;
+        this.counts = counts;
+    }
+
+    public int size() { return categories.length; }
+    public String getCategory(int index) { return categories[index]; }
+    public long getCount(int index) { return counts[index]; }
+}
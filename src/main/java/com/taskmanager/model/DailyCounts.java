@@ -0,0 +1,26 @@
+package com.taskmanager.model;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day histogram over a contiguous date range, one count per day starting at {@code firstDay}.
+ */
+public class DailyCounts {
+    private final LocalDate firstDay;
+    private final long[] counts;
+
+    public DailyCounts(LocalDate firstDay, long[] counts) {
+        this.firstDay = firstDay;
+        this.counts = counts;
+    }
+
+    public LocalDate getFirstDay() { return firstDay; }
+    public int size() { return counts.length; }
+    public LocalDate getDay(int index) { return firstDay.plusDays(index); }
+    public long getCount(int index) { return counts[index]; }
+
+    public long getCount(LocalDate day) {
+        long index = day.toEpochDay() - firstDay.toEpochDay();
+        return index >= 0 && index < counts.length ? counts[(int) index] : 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.taskmanager.model;
+
+/**
+ * Number of tasks per priority level, indexed directly by priority.
+ */
+public class PriorityCounts {
+    private final long[] counts;
+
+    /**
+     * @param counts counts indexed by priority; slot 0 is unused by the standard 1-5 scale
+     */
+    public PriorityCounts(long[] counts) {
+        this.counts = counts;
+    }
+
+    public int getMaxPriority() { return counts.length - 1; }
+
+    public long getCount(int priority) {
+        return priority >= 0 && priority < counts.length ? counts[priority] : 0;
+    }
+}
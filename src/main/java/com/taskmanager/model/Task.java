@@ -34,6 +34,19 @@ public class Task implements Comparable<Task> {
         this.reminderEnabled = false;
     }
 
+    public Task(Task other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.category = other.category;
+        this.priority = other.priority;
+        this.dueDate = other.dueDate;
+        this.completed = other.completed;
+        // Gson leaves tags null when a file has "tags": null
+        this.tags = other.tags == null ? new HashSet<>() : new HashSet<>(other.tags);
+        this.reminderEnabled = other.reminderEnabled;
+    }
+
     // Getters and Setters
     public long getId() { return id; }
     public void setId(long id) { this.id = id; }
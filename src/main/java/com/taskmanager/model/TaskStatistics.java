@@ -0,0 +1,40 @@
+package com.taskmanager.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task counts by status, computed in SQL rather than from loaded tasks.
+ */
+public class TaskStatistics {
+    private final long total;
+    private final long completed;
+    private final long overdue;
+    private final LocalDateTime nextOverdueAt;
+
+    public TaskStatistics(long total, long completed, long overdue, LocalDateTime nextOverdueAt) {
+        this.total = total;
+        this.completed = completed;
+        this.overdue = overdue;
+        this.nextOverdueAt = nextOverdueAt;
+    }
+
+    public long getTotal() { return total; }
+    public long getCompleted() { return completed; }
+    public long getPending() { return total - completed; }
+
+    /**
+     * Pending tasks whose due date has passed; these are also counted as pending.
+     */
+    public long getOverdue() { return overdue; }
+
+    /**
+     * Earliest due date of a pending task that was not overdue yet, i.e. when the overdue count
+     * next grows without any edit; null if no such task exists.
+     */
+    public LocalDateTime getNextOverdueAt() { return nextOverdueAt; }
+
+    @Override
+    public String toString() {
+        return "Total: " + total + ", Completed: " + completed + ", Pending: " + getPending() + ", Overdue: " + overdue;
+    }
+}
@@ -0,0 +1,239 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.CategoryCounts;
+import com.taskmanager.model.DailyCounts;
+import com.taskmanager.model.PriorityCounts;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatistics;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Non-blocking facade over {@link TaskManager} for UI code.
+ *
+ * Writes run one at a time, in submission order, on a single writer thread. Reads run as database
+ * jobs of the {@link IoExecutor} but never start before the writes submitted ahead of them have
+ * finished, so a view always reads its own writes. Every returned
+ * future completes on the callback executor given to the constructor (the JavaFX UI passes
+ * {@code Platform::runLater}), so stages chained onto it may touch the scene graph.
+ *
+ * {@link #inWriteOrder(Function)} runs any action on the writer thread instead, e.g. a read that must not
+ * interleave with writes or a write that returns a value. Its result, and the change events of
+ * the writes around it, then reach the callback executor in the order the database saw them,
+ * which is what a view needs to patch itself from events plus follow-up queries.
+ */
+public class AsyncTaskManager {
+    private final TaskManager taskManager;
+    private final Executor callbackExecutor;
+    private final ExecutorService writer;
+    private final Executor readers;
+    // Completes when every write submitted so far has run; guarded by this
+    private CompletableFuture<?> lastWrite = CompletableFuture.completedFuture(null);
+
+    public AsyncTaskManager(TaskManager taskManager, Executor callbackExecutor) {
+        this(taskManager, IoExecutor.shared(), callbackExecutor);
+    }
+
+    public AsyncTaskManager(TaskManager taskManager, IoExecutor io, Executor callbackExecutor) {
+        this.taskManager = taskManager;
+        this.callbackExecutor = callbackExecutor;
+        // A platform thread: writes are ordered and would pin a virtual thread's carrier anyway
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readers = io.database();
+    }
+
+    /**
+     * The wrapped manager, for change listeners and for jobs handed to
+     * {@link #read(RunnableFuture)} or {@link #inWriteOrder(RunnableFuture)}, which already run
+     * off the UI thread.
+     */
+    public TaskManager getTaskManager() {
+        return taskManager;
+    }
+
+    /**
+     * Where results are delivered; listeners of the wrapped manager can hand events to it to
+     * keep them in order with results.
+     */
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Runs {@code action} on the read pool once earlier writes are done.
+     */
+    public <T> CompletableFuture<T> read(Function<TaskManager, T> action) {
+        CompletableFuture<?> precedingWrites;
+        synchronized (this) {
+            precedingWrites = lastWrite;
+        }
+        CompletableFuture<T> work = precedingWrites
+            .handle((ignored, error) -> null)
+            .thenApplyAsync(ignored -> action.apply(taskManager), readers);
+        return deliver(work);
+    }
+
+    /**
+     * Runs a long read-only job, such as an export, as a database job once earlier writes are
+     * done, like {@link #read(Function)}; writes and reads submitted meanwhile do not wait for
+     * it. The job reports its own progress and result, e.g. a JavaFX {@code Task}; cancelling it
+     * with interruption interrupts its thread, which {@link TaskManager#forEachTask} checks
+     * between batches, and a job cancelled before it starts never runs.
+     */
+    public void read(RunnableFuture<?> job) {
+        CompletableFuture<?> precedingWrites;
+        synchronized (this) {
+            precedingWrites = lastWrite;
+        }
+        precedingWrites
+            .handle((ignored, error) -> null)
+            .thenRunAsync(job, readers);
+    }
+
+    /**
+     * Runs {@code action} on the writer thread in submission order: after every write submitted
+     * before it and before every write submitted after it.
+     */
+    public <T> CompletableFuture<T> inWriteOrder(Function<TaskManager, T> action) {
+        CompletableFuture<T> work;
+        synchronized (this) {
+            work = CompletableFuture.supplyAsync(() -> action.apply(taskManager), writer);
+            lastWrite = work;
+        }
+        return deliver(work);
+    }
+
+    /**
+     * Runs a long writing job, such as an import, on the writer thread in submission order like
+     * {@link #inWriteOrder(Function)}; writes submitted meanwhile wait for it. The job reports its
+     * own progress and result, e.g. a JavaFX {@code Task}. Cancelling it with interruption
+     * interrupts the writer thread while the job runs, which {@link TaskManager#importTasks}
+     * checks between batches; a job cancelled before it starts never runs. Jobs that only read
+     * belong in {@link #read(RunnableFuture)}.
+     */
+    public void inWriteOrder(RunnableFuture<?> job) {
+        synchronized (this) {
+            lastWrite = CompletableFuture.runAsync(() -> {
+                try {
+                    job.run();
+                } finally {
+                    // A cancel's interrupt has landed by the time run() returns; keep it from
+                    // the stages completed here and from the next write
+                    Thread.interrupted();
+                }
+            }, writer);
+        }
+    }
+
+    public CompletableFuture<Void> write(Consumer<TaskManager> action) {
+        return inWriteOrder(manager -> {
+            action.accept(manager);
+            return null;
+        });
+    }
+
+    // Re-completes the result on the callback executor so dependent stages run there
+    private <T> CompletableFuture<T> deliver(CompletableFuture<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        work.whenComplete((value, error) -> callbackExecutor.execute(() -> {
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(value);
+            }
+        }));
+        return result;
+    }
+
+    public CompletableFuture<Void> addTask(Task task) {
+        return write(manager -> manager.addTask(task));
+    }
+
+    public CompletableFuture<Void> updateTask(Task task) {
+        return write(manager -> manager.updateTask(task));
+    }
+
+    public CompletableFuture<Void> deleteTask(long taskId) {
+        return write(manager -> manager.deleteTask(taskId));
+    }
+
+    /**
+     * Undoes the latest change; completes with false if there was none. See {@link TaskManager#undo()}.
+     */
+    public CompletableFuture<Boolean> undo() {
+        return inWriteOrder(TaskManager::undo);
+    }
+
+    public CompletableFuture<Boolean> redo() {
+        return inWriteOrder(TaskManager::redo);
+    }
+
+    public CompletableFuture<Task> getTask(long taskId) {
+        return read(manager -> manager.getTask(taskId));
+    }
+
+    public CompletableFuture<List<Task>> query(TaskQuery query) {
+        return read(manager -> manager.query(query));
+    }
+
+    public CompletableFuture<Integer> count(TaskQuery query) {
+        return read(manager -> manager.count(query));
+    }
+
+    public CompletableFuture<TaskChanges> changesSince(long seq) {
+        return read(manager -> manager.changesSince(seq));
+    }
+
+    public CompletableFuture<List<String>> getCategories() {
+        return read(TaskManager::getCategories);
+    }
+
+    public CompletableFuture<Map<LocalDate, List<Task>>> getTasksByMonth(YearMonth month) {
+        return read(manager -> manager.getTasksByMonth(month));
+    }
+
+    public CompletableFuture<TaskStatistics> getTaskStatistics() {
+        return read(TaskManager::getTaskStatistics);
+    }
+
+    public CompletableFuture<CategoryCounts> getCategoryCounts() {
+        return read(TaskManager::getCategoryCounts);
+    }
+
+    public CompletableFuture<PriorityCounts> getPriorityCounts() {
+        return read(TaskManager::getPriorityCounts);
+    }
+
+    public CompletableFuture<DailyCounts> getCompletedTasksPerDay(LocalDate firstDay, LocalDate lastDay) {
+        return read(manager -> manager.getCompletedTasksPerDay(firstDay, lastDay));
+    }
+
+    /**
+     * Lets queued writes finish (for up to {@code timeoutSeconds}), stops the writer and closes
+     * the wrapped manager.
+     */
+    public void close(long timeoutSeconds) {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        taskManager.close();
+    }
+}
@@ -1,18 +1,120 @@
 package com.taskmanager.service;
 
+import com.taskmanager.model.CategoryCounts;
+import com.taskmanager.model.DailyCounts;
+import com.taskmanager.model.PriorityCounts;
 import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatistics;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
+/**
+ * SQLite access for tasks.
+ *
+ * Writes go through a single connection guarded by a lock. In the default profile reads share
+ * that connection too. With {@code -Dtaskmanager.db.profile=performance} the database runs in WAL
+ * mode with tuned pragmas, and reads are served by a small pool of read-only connections so
+ * background readers such as the calendar prefetch and the dashboard never wait on a write.
+ *
+ * With {@code -Dtaskmanager.db.durability=group} or {@code =async}, adding, updating and deleting
+ * single tasks goes through a {@link TaskWriteQueue} that commits many of them per transaction.
+ * Any other read or write waits for the queue first, so results are the same as with the default
+ * {@code sync}, where every such write is its own transaction. The exception is
+ * {@link #getTaskById}, which looks in the queue before the table instead of waiting for it, so
+ * reading a task's old state before editing it does not force a commit per edit.
+ */
 public class DatabaseService {
     private static final String DB_URL = "jdbc:sqlite:tasks.db";
+
+    // Opt-in tuning, read once at startup
+    private static final boolean PERFORMANCE_PROFILE = "performance".equalsIgnoreCase(System.getProperty("taskmanager.db.profile"));
+    private static final int READER_CONNECTIONS = Integer.getInteger("taskmanager.db.readers", 2);
+    private static final int CACHE_SIZE_KB = Integer.getInteger("taskmanager.db.cacheKb", 32 * 1024);
+    private static final long MMAP_SIZE_BYTES = Long.getLong("taskmanager.db.mmapBytes", 256L * 1024 * 1024);
+    // When single-task writes are committed: "sync" (default), "group" or "async", see TaskWriteQueue
+    private static final TaskWriteQueue.Durability DURABILITY = TaskWriteQueue.Durability.valueOf(
+        System.getProperty("taskmanager.db.durability", "sync").toUpperCase(Locale.ROOT));
+    private static final long GROUP_COMMIT_MILLIS = Long.getLong("taskmanager.db.groupCommitMs", 5);
+    // Newest task_changes rows kept; readers further behind have to reload
+    private static final long CHANGE_LOG_ROWS = Long.getLong("taskmanager.db.changeLogRows", 10_000);
+
+    // Debug check for database access from the UI thread: "log" reports it, "fail" rejects it
+    private static final String UI_THREAD_CHECK = System.getProperty("taskmanager.debug.fxThreadJdbc", "off");
+    private static final String UI_THREAD_NAME = "JavaFX Application Thread";
+    private static final System.Logger LOG = System.getLogger(DatabaseService.class.getName());
+
+    // Columns read by mapResultSetToTask, in the order it reads them by index
+    private static final String TASK_COLUMNS = "id, title, description, category, priority, due_date, completed";
+    private static final String INSERT_WITH_ID_SQL = """
+        INSERT INTO tasks (id, title, description, category, priority, due_date, completed, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+    // Rows per executeBatch round trip in replaceTasks
+    private static final int REPLACE_BATCH_SIZE = 1000;
+    // Rows read per write-lock hold by forEachTask in the default profile
+    private static final int SCAN_CHUNK_SIZE = 1000;
+
+    // ISO day of a due_date column, as stored in schema versions 1-2 (TEXT) and 3+ (epoch millis)
+    private static final String TEXT_DUE_DAY = "substr(%s.due_date, 1, 10)";
+    private static final String EPOCH_DUE_DAY = "date(%s.due_date / 1000.0, 'unixepoch')";
+
+    // Statistics recomputed from scratch; the task_stats triggers keep the same figures incrementally
+    private static final String TASK_STATS_SOURCE_SQL = taskStatsSourceSql(EPOCH_DUE_DAY);
     private static DatabaseService instance;
-    private Connection connection;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Connection writeConnection;
+    private StatementCache writeStatements;
+    // Idle read-only connections; null in the default profile, where reads use writeConnection
+    private volatile BlockingQueue<StatementCache> readConnections;
+    // One statement cache per connection, kept for the hit/miss counters
+    private final List<StatementCache> statementCaches = new CopyOnWriteArrayList<>();
+    // Null with sync durability, where each write commits on its own
+    private final TaskWriteQueue writeQueue;
+    private final List<Consumer<RuntimeException>> lostWriteListeners = new CopyOnWriteArrayList<>();
+    private final long changeLogRows;
+    // Changes logged since task_changes was last pruned; guarded by writeLock
+    private long changesSincePrune;
 
     private DatabaseService() {
-        initializeDatabase();
+        this(DB_URL, DURABILITY);
+    }
+
+    // For tests, which open their own database files
+    DatabaseService(String url, TaskWriteQueue.Durability durability) {
+        this(url, durability, PERFORMANCE_PROFILE);
+    }
+
+    // For tests of either profile, whatever -Dtaskmanager.db.profile says
+    DatabaseService(String url, TaskWriteQueue.Durability durability, boolean performanceProfile) {
+        this(url, durability, performanceProfile, CHANGE_LOG_ROWS);
+    }
+
+    // For tests that fill the change log without writing thousands of changes
+    DatabaseService(String url, TaskWriteQueue.Durability durability, boolean performanceProfile, long changeLogRows) {
+        this.changeLogRows = changeLogRows;
+        initializeDatabase(url, performanceProfile);
+        writeQueue = durability == TaskWriteQueue.Durability.SYNC
+            ? null
+            : new TaskWriteQueue(durability, GROUP_COMMIT_MILLIS, this::commitQueuedWrites, this::writesLost);
     }
 
     public static synchronized DatabaseService getInstance() {
@@ -22,16 +124,68 @@ public class DatabaseService {
         return instance;
     }
 
-    private void initializeDatabase() {
+    private void initializeDatabase(String url, boolean performanceProfile) {
         try {
-            connection = DriverManager.getConnection(DB_URL);
-            createTables();
+            writeConnection = DriverManager.getConnection(url);
+            try (Statement stmt = writeConnection.createStatement()) {
+                if (performanceProfile) {
+                    // WAL lets readers run alongside the writer; with WAL, synchronous=NORMAL stays
+                    // corruption-free and only risks the last commits on power loss
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                    stmt.execute("PRAGMA synchronous = NORMAL");
+                    applyConnectionPragmas(stmt);
+                } else {
+                    // journal_mode is stored in the file, so undo an earlier performance run
+                    stmt.execute("PRAGMA journal_mode = DELETE");
+                }
+            }
+            new SchemaMigrator(migrations()).migrate(writeConnection);
+            try (Statement stmt = writeConnection.createStatement()) {
+                stmt.execute("DELETE FROM task_changes WHERE seq <= (SELECT MAX(seq) FROM task_changes) - " + changeLogRows);
+            }
+            writeStatements = new StatementCache(writeConnection);
+            statementCaches.add(writeStatements);
+
+            if (performanceProfile && READER_CONNECTIONS > 0) {
+                readConnections = new ArrayBlockingQueue<>(READER_CONNECTIONS);
+                for (int i = 0; i < READER_CONNECTIONS; i++) {
+                    Connection reader = DriverManager.getConnection(url);
+                    try (Statement stmt = reader.createStatement()) {
+                        applyConnectionPragmas(stmt);
+                        stmt.execute("PRAGMA query_only = ON");
+                    }
+                    StatementCache readerStatements = new StatementCache(reader);
+                    statementCaches.add(readerStatements);
+                    readConnections.add(readerStatements);
+                }
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
 
-    private void createTables() {
+    private static void applyConnectionPragmas(Statement stmt) throws SQLException {
+        stmt.execute("PRAGMA cache_size = -" + CACHE_SIZE_KB);
+        stmt.execute("PRAGMA mmap_size = " + MMAP_SIZE_BYTES);
+        stmt.execute("PRAGMA temp_store = MEMORY");
+        stmt.execute("PRAGMA busy_timeout = 5000");
+    }
+
+    /**
+     * Schema history, oldest first. Append new steps; never edit one that has shipped. Package-private
+     * so tests can build databases at older versions.
+     */
+    static List<SchemaMigrator.Migration> migrations() {
+        return List.of(
+            new SchemaMigrator.Migration(1, "tasks table and query indexes", DatabaseService::createTasksTable),
+            new SchemaMigrator.Migration(2, "trigger-maintained task_stats table", DatabaseService::createStatsTable),
+            new SchemaMigrator.Migration(3, "epoch-millis due_date and created_at", DatabaseService::convertDatesToEpochMillis),
+            new SchemaMigrator.Migration(4, "trigger-fed task_changes log", DatabaseService::createChangesTable)
+        );
+    }
+
+    private static void createTasksTable(Connection connection) throws SQLException {
+        // IF NOT EXISTS: databases created before versioning already have the table at version 0
         String sql = """
             CREATE TABLE IF NOT EXISTS tasks (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -47,70 +201,714 @@ public class DatabaseService {
 
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            // One index per filter/sort combination used by the queries below;
+            // (completed, due_date) also covers the overdue count
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_category_due_date ON tasks (category, due_date)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_completed_due_date ON tasks (completed, due_date)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_tasks_priority_due_date ON tasks (priority, due_date)");
+        }
+    }
+
+    /**
+     * Creates the task_stats table, a per-dimension counter table (totals, categories, priorities,
+     * completions per due day) kept current by triggers on tasks, so dashboard reads cost
+     * O(categories) rows regardless of how many tasks there are. Existing rows are back-filled.
+     */
+    private static void createStatsTable(Connection connection) throws SQLException {
+        String table = """
+            CREATE TABLE IF NOT EXISTS task_stats (
+                dimension TEXT NOT NULL,
+                key TEXT NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (dimension, key)
+            ) WITHOUT ROWID
+        """;
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(table);
+            createStatsTriggers(stmt, TEXT_DUE_DAY);
+            stmt.execute("DELETE FROM task_stats");
+            stmt.execute("INSERT INTO task_stats (dimension, key, count) " + taskStatsSourceSql(TEXT_DUE_DAY));
+        }
+    }
+
+    /**
+     * Rebuilds the tasks table with due_date and created_at as INTEGER epoch milliseconds instead
+     * of ISO-8601 text. Text ordering broke whenever two rows were written with different second or
+     * nanosecond precision, and parsing the text dominated row mapping.
+     *
+     * A LocalDateTime is stored as its milliseconds since 1970-01-01T00:00 read as UTC, so the
+     * value does not depend on the machine's time zone; sub-millisecond precision is dropped.
+     */
+    private static void convertDatesToEpochMillis(Connection connection) throws SQLException {
+        String table = """
+            CREATE TABLE tasks_epoch (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                title TEXT NOT NULL,
+                description TEXT,
+                category TEXT NOT NULL,
+                priority INTEGER NOT NULL,
+                due_date INTEGER NOT NULL,
+                completed BOOLEAN NOT NULL DEFAULT 0,
+                created_at INTEGER NOT NULL
+            )
+        """;
+        // unixepoch() rounds fractions to the nearest millisecond, while toEpochMillis truncates
+        // like Instant does; cut the text to milliseconds first so both store the same value
+        String toMillis = "CAST(ROUND(unixepoch(substr(%s, 1, 23), 'subsec') * 1000) AS INTEGER)";
+        String copy = """
+            INSERT INTO tasks_epoch (id, title, description, category, priority, due_date, completed, created_at)
+            SELECT id, title, description, category, priority, %s, completed, COALESCE(%s, %s)
+            FROM tasks
+        """.formatted(toMillis.formatted("due_date"), toMillis.formatted("created_at"), toMillis.formatted("due_date"));
+
+        try (Statement stmt = connection.createStatement()) {
+            // Dropping the old table also drops its sequence row; keep it so deleted ids are never reused
+            long sequence = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT seq FROM sqlite_sequence WHERE name = 'tasks'")) {
+                if (rs.next()) {
+                    sequence = rs.getLong(1);
+                }
+            }
+
+            // unixepoch() is NULL for text it cannot parse; a due date has no stand-in, so name the
+            // row instead of failing on the NOT NULL column. A bad created_at falls back to the due date.
+            try (ResultSet rs = stmt.executeQuery("SELECT id, due_date FROM tasks WHERE unixepoch(due_date, 'subsec') IS NULL LIMIT 1")) {
+                if (rs.next()) {
+                    throw new SQLException("Task " + rs.getLong(1) + " has an unreadable due_date: '" + rs.getString(2) + "'");
+                }
+            }
+
+            stmt.execute(table);
+            stmt.execute(copy);
+            stmt.execute("DROP TABLE tasks");
+            stmt.execute("ALTER TABLE tasks_epoch RENAME TO tasks");
+            stmt.execute("DELETE FROM sqlite_sequence WHERE name = 'tasks'");
+            stmt.execute("INSERT INTO sqlite_sequence (name, seq) SELECT 'tasks', MAX(" + sequence + ", COALESCE(MAX(id), 0)) FROM tasks");
+
+            stmt.execute("CREATE INDEX idx_tasks_due_date ON tasks (due_date)");
+            stmt.execute("CREATE INDEX idx_tasks_category_due_date ON tasks (category, due_date)");
+            stmt.execute("CREATE INDEX idx_tasks_completed_due_date ON tasks (completed, due_date)");
+            stmt.execute("CREATE INDEX idx_tasks_priority_due_date ON tasks (priority, due_date)");
+
+            // completed_day keys stay ISO dates, only the expression deriving them changes
+            createStatsTriggers(stmt, EPOCH_DUE_DAY);
+            stmt.execute("DELETE FROM task_stats");
+            stmt.execute("INSERT INTO task_stats (dimension, key, count) " + TASK_STATS_SOURCE_SQL);
+        }
+    }
+
+    /**
+     * Creates the task_changes table, a log of which task every write touched, numbered by an
+     * increasing seq and filled by triggers in the same transaction as the write, so its order
+     * is the commit order whichever path the write took. change is A(dded), U(pdated), D(eleted),
+     * or R for a bulk change with no task_id after which readers reload everything.
+     */
+    private static void createChangesTable(Connection connection) throws SQLException {
+        String table = """
+            CREATE TABLE IF NOT EXISTS task_changes (
+                seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                task_id INTEGER,
+                change TEXT NOT NULL
+            )
+        """;
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(table);
+            createChangeTriggers(stmt);
+        }
+    }
+
+    private static void createChangeTriggers(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS task_changes_insert AFTER INSERT ON tasks BEGIN\n"
+            + "    INSERT INTO task_changes (task_id, change) VALUES (NEW.id, 'A');\nEND");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS task_changes_update AFTER UPDATE ON tasks BEGIN\n"
+            + "    INSERT INTO task_changes (task_id, change) VALUES (NEW.id, 'U');\nEND");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS task_changes_delete AFTER DELETE ON tasks BEGIN\n"
+            + "    INSERT INTO task_changes (task_id, change) VALUES (OLD.id, 'D');\nEND");
+    }
+
+    private static String taskStatsSourceSql(String dueDay) {
+        return """
+            SELECT 'total', '', COUNT(*) FROM tasks
+            UNION ALL SELECT 'completed', '', COUNT(*) FROM tasks WHERE completed
+            UNION ALL SELECT 'category', category, COUNT(*) FROM tasks GROUP BY category
+            UNION ALL SELECT 'priority', priority, COUNT(*) FROM tasks GROUP BY priority
+            UNION ALL SELECT 'completed_day', %s, COUNT(*) FROM tasks WHERE completed GROUP BY 2
+        """.formatted(dueDay.formatted("tasks"));
+    }
+
+    private static void createStatsTriggers(Statement stmt, String dueDay) throws SQLException {
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS task_stats_insert AFTER INSERT ON tasks BEGIN\n"
+            + taskStatsDelta("'total', ''", "1", 1)
+            + taskStatsDeltas("NEW", dueDay, 1)
+            + "END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS task_stats_delete AFTER DELETE ON tasks BEGIN\n"
+            + taskStatsDelta("'total', ''", "1", -1)
+            + taskStatsDeltas("OLD", dueDay, -1)
+            + "END");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS task_stats_update AFTER UPDATE OF category, priority, completed, due_date ON tasks BEGIN\n"
+            + taskStatsDeltas("OLD", dueDay, -1)
+            + taskStatsDeltas("NEW", dueDay, 1)
+            + "END");
+    }
+
+    // Counter changes for every dimension derived from a tasks row (OLD or NEW) inside a trigger
+    private static String taskStatsDeltas(String row, String dueDay, int delta) {
+        return taskStatsDelta("'category', " + row + ".category", "1", delta)
+            + taskStatsDelta("'priority', " + row + ".priority", "1", delta)
+            + taskStatsDelta("'completed', ''", row + ".completed", delta)
+            + taskStatsDelta("'completed_day', " + dueDay.formatted(row), row + ".completed", delta);
+    }
+
+    private static String taskStatsDelta(String dimensionAndKey, String condition, int delta) {
+        return "    INSERT INTO task_stats (dimension, key, count) SELECT " + dimensionAndKey + ", " + delta
+            + " WHERE " + condition
+            + " ON CONFLICT (dimension, key) DO UPDATE SET count = count + excluded.count;\n";
+    }
+
+    /**
+     * Recomputes task_stats from the tasks table in a single transaction.
+     */
+    public void rebuildTaskStats() {
+        try (Lease lease = writer();
+             Statement stmt = lease.connection().createStatement()) {
+            lease.connection().setAutoCommit(false);
+            try {
+                stmt.execute("DELETE FROM task_stats");
+                stmt.execute("INSERT INTO task_stats (dimension, key, count) " + TASK_STATS_SOURCE_SQL);
+                lease.connection().commit();
+            } catch (SQLException e) {
+                lease.connection().rollback();
+                throw e;
+            } finally {
+                lease.connection().setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to create tables", e);
+            throw new RuntimeException("Failed to rebuild task statistics", e);
         }
     }
 
+    /**
+     * Checks that task_stats matches a fresh aggregation of the tasks table.
+     *
+     * @return true if every non-zero counter agrees
+     */
+    public boolean verifyTaskStats() {
+        Map<String, Long> expected = new HashMap<>();
+        Map<String, Long> actual = new HashMap<>();
+
+        // Runs on the write connection so no write can land between the two queries
+        try (Lease lease = writer();
+             Statement stmt = lease.connection().createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(TASK_STATS_SOURCE_SQL)) {
+                while (rs.next()) {
+                    if (rs.getLong(3) != 0) {
+                        expected.put(rs.getString(1) + "/" + rs.getString(2), rs.getLong(3));
+                    }
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT dimension, key, count FROM task_stats WHERE count <> 0")) {
+                while (rs.next()) {
+                    actual.put(rs.getString(1) + "/" + rs.getString(2), rs.getLong(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to verify task statistics", e);
+        }
+        return expected.equals(actual);
+    }
+
     public void addTask(Task task) {
+        if (writeQueue != null) {
+            checkNotUiThread();
+            writeQueue.insert(task);
+            return;
+        }
+        try (Lease lease = writer()) {
+            insertTask(lease, task);
+            changesLogged(lease, 1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to add task", e);
+        }
+    }
+
+    private static void insertTask(Lease lease, Task task) throws SQLException {
         String sql = """
             INSERT INTO tasks (title, description, category, priority, due_date, completed, created_at)
             VALUES (?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, task.getTitle());
-            pstmt.setString(2, task.getDescription());
-            pstmt.setString(3, task.getCategory());
-            pstmt.setInt(4, task.getPriority());
-            pstmt.setString(5, task.getDueDate().toString());
-            pstmt.setBoolean(6, task.isCompleted());
-            pstmt.setString(7, LocalDateTime.now().toString());
-            pstmt.executeUpdate();
+        PreparedStatement pstmt = lease.prepareReturningKeys(sql);
+        pstmt.setString(1, task.getTitle());
+        pstmt.setString(2, task.getDescription());
+        pstmt.setString(3, task.getCategory());
+        pstmt.setInt(4, task.getPriority());
+        pstmt.setLong(5, toEpochMillis(task.getDueDate()));
+        pstmt.setBoolean(6, task.isCompleted());
+        pstmt.setLong(7, toEpochMillis(LocalDateTime.now()));
+        pstmt.executeUpdate();
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            if (keys.next()) {
+                task.setId(keys.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * Inserts {@code tasks} in a single transaction, sending them to SQLite in batches of
+     * {@code batchSize} rows. With {@code replace} every existing task is deleted first, inside the
+     * same transaction, so a failed or cancelled import leaves the table as it was. Each task's id
+     * is set to the id it was stored under; ids already on the tasks are ignored, as in
+     * {@link #addTask}.
+     *
+     * Only the current batch is held, so {@code tasks} may stream from a source larger than the
+     * heap. After every batch {@code progress} receives the number of tasks inserted so far, and
+     * the import is rolled back with a {@link CancellationException} if the thread was interrupted.
+     *
+     * @return the number of tasks inserted
+     */
+    public long importTasks(Iterator<Task> tasks, boolean replace, int batchSize, LongConsumer progress) {
+        return importTasks(tasks, replace, batchSize, progress, null, null);
+    }
+
+    /**
+     * Variant of {@link #importTasks(Iterator, boolean, int, LongConsumer)} that also reports the
+     * rows it changes, from inside the transaction: with {@code replace}, every task about to be
+     * deleted goes to {@code replaced}, and every task stored goes to {@code inserted} once it has
+     * its id. Either may be null. If the import fails they have seen rows that were rolled back.
+     */
+    public long importTasks(Iterator<Task> tasks, boolean replace, int batchSize, LongConsumer progress,
+                            Consumer<Task> replaced, Consumer<Task> inserted) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        String sql = """
+            INSERT INTO tasks (title, description, category, priority, due_date, completed, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+        long createdAt = toEpochMillis(LocalDateTime.now());
+        List<Task> batch = new ArrayList<>(Math.min(batchSize, 4096));
+        long imported = 0;
+
+        try (Lease lease = writer()) {
+            Connection connection = lease.connection();
+            PreparedStatement pstmt = lease.prepare(sql);
+            PreparedStatement lastId = lease.prepare("SELECT last_insert_rowid()");
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                dropRowTriggers(stmt);
+                if (replace) {
+                    if (replaced != null) {
+                        try (ResultSet rs = stmt.executeQuery("SELECT " + TASK_COLUMNS + " FROM tasks ORDER BY id")) {
+                            while (rs.next()) {
+                                replaced.accept(mapResultSetToTask(rs));
+                            }
+                        }
+                    }
+                    stmt.execute("DELETE FROM tasks");
+                }
+                while (tasks.hasNext()) {
+                    Task task = tasks.next();
+                    pstmt.setString(1, task.getTitle());
+                    pstmt.setString(2, task.getDescription());
+                    pstmt.setString(3, task.getCategory());
+                    pstmt.setInt(4, task.getPriority());
+                    pstmt.setLong(5, toEpochMillis(task.getDueDate()));
+                    pstmt.setBoolean(6, task.isCompleted());
+                    pstmt.setLong(7, createdAt);
+                    pstmt.addBatch();
+                    batch.add(task);
+
+                    if (batch.size() == batchSize || !tasks.hasNext()) {
+                        pstmt.executeBatch();
+                        // The write lock rules out other inserts, so AUTOINCREMENT handed out consecutive ids
+                        try (ResultSet rs = lastId.executeQuery()) {
+                            rs.next();
+                            long firstId = rs.getLong(1) - batch.size() + 1;
+                            for (int k = 0; k < batch.size(); k++) {
+                                batch.get(k).setId(firstId + k);
+                                if (inserted != null) {
+                                    inserted.accept(batch.get(k));
+                                }
+                            }
+                        }
+                        imported += batch.size();
+                        batch.clear();
+                        progress.accept(imported);
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new CancellationException("Import cancelled after " + imported + " tasks");
+                        }
+                    }
+                }
+                recreateRowTriggers(stmt);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Import cancelled after " + imported + " tasks");
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                // A batch may still be queued if decoding the next task failed
+                pstmt.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            changesLogged(lease, 1);
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to add task", e);
+            throw new RuntimeException("Failed to import tasks", e);
+        }
+        return imported;
+    }
+
+    // Per-row counter and change-log triggers would cost more than a bulk write itself; bulk
+    // writes drop them, then recount task_stats and log a single R change at the end, inside the
+    // same transaction
+    private static void dropRowTriggers(Statement stmt) throws SQLException {
+        stmt.execute("DROP TRIGGER IF EXISTS task_stats_insert");
+        stmt.execute("DROP TRIGGER IF EXISTS task_stats_delete");
+        stmt.execute("DROP TRIGGER IF EXISTS task_changes_insert");
+        stmt.execute("DROP TRIGGER IF EXISTS task_changes_delete");
+    }
+
+    private static void recreateRowTriggers(Statement stmt) throws SQLException {
+        createStatsTriggers(stmt, EPOCH_DUE_DAY);
+        createChangeTriggers(stmt);
+        stmt.execute("DELETE FROM task_stats");
+        stmt.execute("INSERT INTO task_stats (dimension, key, count) " + TASK_STATS_SOURCE_SQL);
+        stmt.execute("INSERT INTO task_changes (task_id, change) VALUES (NULL, 'R')");
+    }
+
+    /**
+     * Stores {@code task} under its own id, which must not be in use; used to bring back a
+     * deleted task.
+     */
+    public void restoreTask(Task task) {
+        try (Lease lease = writer()) {
+            insertTaskWithId(lease, task, toEpochMillis(LocalDateTime.now()));
+            changesLogged(lease, 1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to restore task", e);
         }
     }
 
+    /**
+     * In a single transaction deletes the tasks with {@code removeIds}, then stores
+     * {@code restore} under their own ids; used to undo and redo imports. Ids in
+     * {@code removeIds} that no longer exist are skipped.
+     *
+     * @return the number of tasks stored
+     */
+    public long replaceTasks(long[] removeIds, Iterator<Task> restore) {
+        long createdAt = toEpochMillis(LocalDateTime.now());
+        long restored = 0;
+        try (Lease lease = writer()) {
+            Connection connection = lease.connection();
+            PreparedStatement delete = lease.prepare("DELETE FROM tasks WHERE id = ?");
+            PreparedStatement insert = lease.prepare(INSERT_WITH_ID_SQL);
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                dropRowTriggers(stmt);
+                for (int i = 0; i < removeIds.length; i++) {
+                    delete.setLong(1, removeIds[i]);
+                    delete.addBatch();
+                    if ((i + 1) % REPLACE_BATCH_SIZE == 0 || i == removeIds.length - 1) {
+                        delete.executeBatch();
+                    }
+                }
+                while (restore.hasNext()) {
+                    bindTaskWithId(insert, restore.next(), createdAt);
+                    insert.addBatch();
+                    if (++restored % REPLACE_BATCH_SIZE == 0 || !restore.hasNext()) {
+                        insert.executeBatch();
+                    }
+                }
+                recreateRowTriggers(stmt);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                delete.clearBatch();
+                insert.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            changesLogged(lease, 1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to replace tasks", e);
+        }
+        return restored;
+    }
+
+    private static void insertTaskWithId(Lease lease, Task task, long createdAt) throws SQLException {
+        PreparedStatement pstmt = lease.prepare(INSERT_WITH_ID_SQL);
+        bindTaskWithId(pstmt, task, createdAt);
+        pstmt.executeUpdate();
+    }
+
+    private static void bindTaskWithId(PreparedStatement pstmt, Task task, long createdAt) throws SQLException {
+        pstmt.setLong(1, task.getId());
+        pstmt.setString(2, task.getTitle());
+        pstmt.setString(3, task.getDescription());
+        pstmt.setString(4, task.getCategory());
+        pstmt.setInt(5, task.getPriority());
+        pstmt.setLong(6, toEpochMillis(task.getDueDate()));
+        pstmt.setBoolean(7, task.isCompleted());
+        pstmt.setLong(8, createdAt);
+    }
+
     public void updateTask(Task task) {
+        if (writeQueue != null) {
+            checkNotUiThread();
+            writeQueue.update(task);
+            return;
+        }
+        try (Lease lease = writer()) {
+            updateTask(lease, task);
+            changesLogged(lease, 1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update task", e);
+        }
+    }
+
+    private static void updateTask(Lease lease, Task task) throws SQLException {
         String sql = """
-            UPDATE tasks 
-            SET title = ?, description = ?, category = ?, priority = ?, 
+            UPDATE tasks
+            SET title = ?, description = ?, category = ?, priority = ?,
                 due_date = ?, completed = ?
             WHERE id = ?
         """;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, task.getTitle());
-            pstmt.setString(2, task.getDescription());
-            pstmt.setString(3, task.getCategory());
-            pstmt.setInt(4, task.getPriority());
-            pstmt.setString(5, task.getDueDate().toString());
-            pstmt.setBoolean(6, task.isCompleted());
-            pstmt.setLong(7, task.getId());
+        PreparedStatement pstmt = lease.prepare(sql);
+        pstmt.setString(1, task.getTitle());
+        pstmt.setString(2, task.getDescription());
+        pstmt.setString(3, task.getCategory());
+        pstmt.setInt(4, task.getPriority());
+        pstmt.setLong(5, toEpochMillis(task.getDueDate()));
+        pstmt.setBoolean(6, task.isCompleted());
+        pstmt.setLong(7, task.getId());
+        pstmt.executeUpdate();
+    }
+
+    public void deleteTask(long taskId) {
+        if (writeQueue != null) {
+            checkNotUiThread();
+            writeQueue.delete(taskId);
+            return;
+        }
+        try (Lease lease = writer()) {
+            deleteTask(lease, taskId);
+            changesLogged(lease, 1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete task", e);
+        }
+    }
+
+    private static void deleteTask(Lease lease, long taskId) throws SQLException {
+        PreparedStatement pstmt = lease.prepare("DELETE FROM tasks WHERE id = ?");
+        pstmt.setLong(1, taskId);
+        pstmt.executeUpdate();
+    }
+
+    /**
+     * Writes a batch taken off the write queue in one transaction, on the queue's commit thread.
+     * Inserts, updates and deletes of the same task were already coalesced, so their order within
+     * the batch does not matter.
+     */
+    private void commitQueuedWrites(TaskWriteQueue.Batch batch) {
+        try (Lease lease = lockWriter()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            try {
+                for (Task task : batch.inserts()) {
+                    insertTask(lease, task);
+                }
+                for (Task task : batch.updates()) {
+                    updateTask(lease, task);
+                }
+                for (long taskId : batch.deletes()) {
+                    deleteTask(lease, taskId);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            changesLogged(lease, batch.size());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to commit " + batch.size() + " task change(s)", e);
+        }
+    }
+
+    // After a committed write that logged about this many changes, with the write lock held:
+    // trims task_changes back to changeLogRows once it has grown by a tenth, so a long session
+    // keeps the log bounded instead of pruning only at the next start
+    private void changesLogged(Lease lease, long changes) {
+        changesSincePrune += changes;
+        if (changesSincePrune < Math.max(1, changeLogRows / 10)) {
+            return;
+        }
+        changesSincePrune = 0;
+        try {
+            PreparedStatement pstmt = lease.prepare("DELETE FROM task_changes WHERE seq <= (SELECT MAX(seq) FROM task_changes) - ?");
+            pstmt.setLong(1, changeLogRows);
             pstmt.executeUpdate();
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to update task", e);
+            // The write itself is committed; the next prune tries again
+            LOG.log(System.Logger.Level.WARNING, "Failed to prune the change log", e);
         }
     }
 
-    public void deleteTask(long taskId) {
-        String sql = "DELETE FROM tasks WHERE id = ?";
+    /**
+     * Registers a callback for writes that were accepted but never committed: with async
+     * durability an update or delete returns before its commit, so a failed commit has no caller
+     * left to throw to. Called on the commit thread, which the callback must not block on reads
+     * or writes of its own, as they would wait for that thread.
+     */
+    public void addLostWriteListener(Consumer<RuntimeException> listener) {
+        lostWriteListeners.add(listener);
+    }
+
+    public void removeLostWriteListener(Consumer<RuntimeException> listener) {
+        lostWriteListeners.remove(listener);
+    }
+
+    private void writesLost(RuntimeException error) {
+        for (Consumer<RuntimeException> listener : lostWriteListeners) {
+            listener.accept(error);
+        }
+    }
+
+    /**
+     * Sequence number of the newest entry in the change log, or 0 if nothing was logged yet. A
+     * reader takes it before loading what it shows, then asks {@link #changesSince} for the rest.
+     */
+    public long getLatestChangeSeq() {
+        try (Lease lease = reader()) {
+            return latestChangeSeq(lease);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read change log", e);
+        }
+    }
+
+    // The AUTOINCREMENT counter, which also covers entries that were pruned
+    private static long latestChangeSeq(Lease lease) throws SQLException {
+        try (ResultSet rs = lease.prepare("SELECT seq FROM sqlite_sequence WHERE name = 'task_changes'").executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    /**
+     * What changed after change {@code seq}: one entry per task touched, in the order of its
+     * latest change, carrying the task as it is now (null once deleted), so applying the entries
+     * as upserts and removals brings a copy up to date. If the log no longer reaches back to
+     * {@code seq} the result is {@link TaskChanges#isHistoryTruncated() history truncated}, and if
+     * a bulk change happened in between it lists no entries either; in both cases
+     * {@link TaskChanges#isReloadRequired()} tells the caller to reload everything instead.
+     *
+     * All of it is read in one transaction, so the log's bounds, its entries and the task rows
+     * come from the same snapshot even when a write or a prune commits meanwhile.
+     */
+    public TaskChanges changesSince(long seq) {
+        try (Lease lease = reader()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            try {
+                return changesSince(lease, seq);
+            } finally {
+                connection.commit();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read change log", e);
+        }
+    }
+
+    private static TaskChanges changesSince(Lease lease, long seq) throws SQLException {
+        String changesSql = """
+            SELECT c.seq, c.task_id, c.change, %s
+            FROM task_changes c
+            JOIN (SELECT task_id, MAX(seq) AS seq FROM task_changes
+                  WHERE seq > ? AND seq <= ? AND task_id IS NOT NULL GROUP BY task_id) latest ON latest.seq = c.seq
+            LEFT JOIN tasks t ON t.id = c.task_id
+            ORDER BY c.seq
+        """.formatted(prefixed("t", TASK_COLUMNS));
+
+        long latest = latestChangeSeq(lease);
+        if (latest <= seq) {
+            return TaskChanges.of(seq, List.of());
+        }
+        long oldest;
+        try (ResultSet rs = lease.prepare("SELECT COALESCE(MIN(seq), 0) FROM task_changes").executeQuery()) {
+            oldest = rs.getLong(1);
+        }
+        // Entries are numbered without gaps, so anything missing after seq was pruned
+        if (oldest == 0 || oldest > seq + 1) {
+            return TaskChanges.historyTruncated(latest);
+        }
+        PreparedStatement bulk = lease.prepare("SELECT EXISTS (SELECT 1 FROM task_changes WHERE change = 'R' AND seq > ? AND seq <= ?)");
+        bulk.setLong(1, seq);
+        bulk.setLong(2, latest);
+        try (ResultSet rs = bulk.executeQuery()) {
+            if (rs.getBoolean(1)) {
+                return TaskChanges.bulkChange(latest);
+            }
+        }
+
+        PreparedStatement pstmt = lease.prepare(changesSql);
+        pstmt.setLong(1, seq);
+        pstmt.setLong(2, latest);
+        List<TaskChangeEvent> changes = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                long taskId = rs.getLong(2);
+                rs.getLong(4);
+                if (rs.wasNull() || rs.getString(3).equals("D")) {
+                    changes.add(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, taskId, null));
+                } else {
+                    TaskChangeEvent.Type type = rs.getString(3).equals("A") ? TaskChangeEvent.Type.ADDED : TaskChangeEvent.Type.UPDATED;
+                    changes.add(new TaskChangeEvent(type, taskId, mapResultSetToTask(rs, 3)));
+                }
+            }
+        }
+        return TaskChanges.of(latest, changes);
+    }
+
+    private static String prefixed(String alias, String columns) {
+        return alias + "." + columns.replace(", ", ", " + alias + ".");
+    }
+
+    public Task getTaskById(long taskId) {
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE id = ?";
+
+        if (writeQueue != null) {
+            checkNotUiThread();
+            TaskWriteQueue.Queued queued = writeQueue.queued(taskId);
+            if (queued != null) {
+                return queued.task();
+            }
+        }
+        // With nothing queued for the task its row is current, whatever else is queued
+        try (Lease lease = writeQueue != null ? takeReader() : reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setLong(1, taskId);
-            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToTask(rs) : null;
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to delete task", e);
+            throw new RuntimeException("Failed to get task", e);
         }
     }
 
     public List<Task> getAllTasks() {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks ORDER BY due_date";
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks ORDER BY due_date";
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
             while (rs.next()) {
                 tasks.add(mapResultSetToTask(rs));
             }
@@ -120,16 +918,92 @@ public class DatabaseService {
         return tasks;
     }
 
+    /**
+     * Passes every task, ordered by due date, to {@code action} without materializing the table
+     * as a list. The thread's interrupt flag is checked every 1024 rows and ends the scan with a
+     * {@link CancellationException}.
+     *
+     * With the performance profile this is one forward-only cursor on a read connection, which
+     * sees a single snapshot and never blocks writers. In the default profile reads share the
+     * write connection, and holding its lock for a whole export would stall every edit, so the
+     * scan reads keyset chunks of {@value #SCAN_CHUNK_SIZE} rows and lets writes in between them;
+     * {@code action} runs outside the lock. A task edited during such a scan is visited with its
+     * values at the time its chunk was read, and one whose due date moves across the scan
+     * position meanwhile is visited twice or not at all.
+     *
+     * @return the number of tasks visited
+     */
+    public long forEachTask(Consumer<Task> action) {
+        if (readConnections == null) {
+            return forEachTaskInChunks(action);
+        }
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks ORDER BY due_date, id";
+        long visited = 0;
+
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                action.accept(mapResultSetToTask(rs));
+                if ((++visited & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Scan cancelled after " + visited + " tasks");
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read tasks", e);
+        }
+        return visited;
+    }
+
+    private long forEachTaskInChunks(Consumer<Task> action) {
+        String firstSql = "SELECT " + TASK_COLUMNS + " FROM tasks ORDER BY due_date, id LIMIT ?";
+        String nextSql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE (due_date, id) > (?, ?) ORDER BY due_date, id LIMIT ?";
+        long visited = 0;
+        Task last = null;
+
+        while (true) {
+            List<Task> chunk = new ArrayList<>(SCAN_CHUNK_SIZE);
+            try (Lease lease = reader()) {
+                PreparedStatement pstmt = lease.prepare(last == null ? firstSql : nextSql);
+                int index = 1;
+                if (last != null) {
+                    pstmt.setLong(index++, toEpochMillis(last.getDueDate()));
+                    pstmt.setLong(index++, last.getId());
+                }
+                pstmt.setInt(index, SCAN_CHUNK_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        chunk.add(mapResultSetToTask(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to read tasks", e);
+            }
+
+            for (Task task : chunk) {
+                action.accept(task);
+                if ((++visited & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Scan cancelled after " + visited + " tasks");
+                }
+            }
+            if (chunk.size() < SCAN_CHUNK_SIZE) {
+                return visited;
+            }
+            last = chunk.get(chunk.size() - 1);
+        }
+    }
+
     public List<Task> getTasksByDateRange(LocalDateTime start, LocalDateTime end) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE due_date BETWEEN ? AND ? ORDER BY due_date";
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE due_date BETWEEN ? AND ? ORDER BY due_date";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, start.toString());
-            pstmt.setString(2, end.toString());
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                tasks.add(mapResultSetToTask(rs));
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            pstmt.setLong(1, toEpochMillis(start));
+            pstmt.setLong(2, toEpochMillis(end));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(mapResultSetToTask(rs));
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to get tasks by date range", e);
@@ -139,13 +1013,15 @@ public class DatabaseService {
 
     public List<Task> getTasksByCategory(String category) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE category = ? ORDER BY due_date";
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE category = ? ORDER BY due_date";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setString(1, category);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                tasks.add(mapResultSetToTask(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(mapResultSetToTask(rs));
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to get tasks by category", e);
@@ -155,13 +1031,15 @@ public class DatabaseService {
 
     public List<Task> getTasksByPriority(int priority) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE priority = ? ORDER BY due_date";
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE priority = ? ORDER BY due_date";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
             pstmt.setInt(1, priority);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                tasks.add(mapResultSetToTask(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(mapResultSetToTask(rs));
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to get tasks by priority", e);
@@ -171,10 +1049,10 @@ public class DatabaseService {
 
     public List<Task> getCompletedTasks() {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE completed = 1 ORDER BY due_date";
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE completed = 1 ORDER BY due_date";
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
             while (rs.next()) {
                 tasks.add(mapResultSetToTask(rs));
             }
@@ -184,25 +1062,477 @@ public class DatabaseService {
         return tasks;
     }
 
+    public List<Task> getPendingTasks() {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE completed = 0 ORDER BY due_date";
+
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                tasks.add(mapResultSetToTask(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get pending tasks", e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Pending tasks due strictly before {@code now}, served by the (completed, due_date) index.
+     */
+    public List<Task> getOverdueTasks(LocalDateTime now) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE completed = 0 AND due_date < ? ORDER BY due_date";
+
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            pstmt.setLong(1, toEpochMillis(now));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(mapResultSetToTask(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get overdue tasks", e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Compiles {@code query} into a single parameterized SELECT and runs it. The SQL text only
+     * depends on which filters are set (and how many categories), so repeated queries of the same
+     * shape reuse a cached statement.
+     */
+    public List<Task> queryTasks(TaskQuery query) {
+        List<Task> tasks = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        String sql = compileQuery(query, params);
+
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(mapResultSetToTask(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to query tasks", e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Counts the tasks matching {@code query}'s filters, ignoring its sort and window.
+     */
+    public int countTasks(TaskQuery query) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM tasks" + compileConditions(query, params);
+
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count tasks", e);
+        }
+    }
+
+    private static String compileQuery(TaskQuery query, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(TASK_COLUMNS).append(" FROM tasks")
+            .append(compileConditions(query, params));
+        sql.append(" ORDER BY ");
+        for (TaskQuery.Sort sort : query.getSorts()) {
+            sql.append(switch (sort.getKey()) {
+                case DUE_DATE -> "due_date";
+                case PRIORITY -> "priority";
+                case TITLE -> "title";
+                case CATEGORY -> "category";
+            }).append(sort.isDescending() ? " DESC, " : ", ");
+        }
+        sql.append("due_date, id");
+        if (query.getLimit() >= 0 || query.getOffset() > 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(query.getLimit());
+            params.add(query.getOffset());
+        }
+        return sql.toString();
+    }
+
+    // The WHERE clause for the query's filters, or "" when it has none
+    private static String compileConditions(TaskQuery query, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getCompleted() != null) {
+            conditions.add("completed = ?");
+            params.add(query.getCompleted() ? 1 : 0);
+        }
+        if (query.getMinPriority() != null) {
+            conditions.add("priority >= ?");
+            params.add(query.getMinPriority());
+        }
+        if (query.getMaxPriority() != null) {
+            conditions.add("priority <= ?");
+            params.add(query.getMaxPriority());
+        }
+        if (query.getCategories() != null) {
+            if (query.getCategories().isEmpty()) {
+                conditions.add("0");
+            } else {
+                conditions.add("category IN (" + String.join(", ", Collections.nCopies(query.getCategories().size(), "?")) + ")");
+                params.addAll(query.getCategories());
+            }
+        }
+        if (query.getDueFrom() != null) {
+            conditions.add("due_date >= ?");
+            params.add(toEpochMillis(query.getDueFrom()));
+        }
+        if (query.getDueBefore() != null) {
+            conditions.add("due_date < ?");
+            params.add(toEpochMillis(query.getDueBefore()));
+        }
+        if (query.getAfterDueDate() != null) {
+            // Row-value comparison, so the due_date index (which ends in the rowid) seeks to the cursor
+            conditions.add("(due_date, id) > (?, ?)");
+            params.add(toEpochMillis(query.getAfterDueDate()));
+            params.add(query.getAfterId());
+        }
+        if (query.getText() != null) {
+            // instr rather than LIKE, so % and _ in the search text need no escaping
+            conditions.add("(instr(lower(title), ?) > 0 OR instr(lower(description), ?) > 0)");
+            params.add(query.getText());
+            params.add(query.getText());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * The distinct categories in use, sorted; read from the (category, due_date) index alone.
+     */
+    public List<String> getCategories() {
+        List<String> categories = new ArrayList<>();
+        String sql = "SELECT DISTINCT category FROM tasks ORDER BY category";
+
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                categories.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get categories", e);
+        }
+        return categories;
+    }
+
+    public TaskStatistics getTaskStatistics(LocalDateTime now) {
+        // Overdue depends on the clock, so it can't be materialized; it is a range count instead,
+        // plus the next due date at which it changes, both from the (completed, due_date) index
+        String sql = """
+            SELECT (SELECT COALESCE(SUM(count), 0) FROM task_stats WHERE dimension = 'total'),
+                   (SELECT COALESCE(SUM(count), 0) FROM task_stats WHERE dimension = 'completed'),
+                   (SELECT COUNT(*) FROM tasks WHERE completed = 0 AND due_date < ?),
+                   (SELECT MIN(due_date) FROM tasks WHERE completed = 0 AND due_date >= ?)
+        """;
+
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            pstmt.setLong(1, toEpochMillis(now));
+            pstmt.setLong(2, toEpochMillis(now));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                long nextDue = rs.getLong(4);
+                return new TaskStatistics(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.wasNull() ? null : fromEpochMillis(nextDue));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get task statistics", e);
+        }
+    }
+
+    public CategoryCounts getCategoryCounts() {
+        String sql = "SELECT key, count FROM task_stats WHERE dimension = 'category' AND count > 0 ORDER BY key";
+        List<String> categories = new ArrayList<>();
+        long[] counts = new long[8];
+
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                if (categories.size() == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+                counts[categories.size()] = rs.getLong(2);
+                categories.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get category counts", e);
+        }
+        return new CategoryCounts(categories.toArray(new String[0]), Arrays.copyOf(counts, categories.size()));
+    }
+
+    public PriorityCounts getPriorityCounts() {
+        String sql = "SELECT CAST(key AS INTEGER), count FROM task_stats WHERE dimension = 'priority' AND count > 0";
+        // Always cover the standard 1-5 scale so empty levels still report zero
+        long[] counts = new long[6];
+
+        try (Lease lease = reader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                int priority = rs.getInt(1);
+                if (priority < 0) continue;
+                if (priority >= counts.length) {
+                    counts = Arrays.copyOf(counts, priority + 1);
+                }
+                counts[priority] = rs.getLong(2);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get priority counts", e);
+        }
+        return new PriorityCounts(counts);
+    }
+
+    /**
+     * Counts completed tasks per due day from {@code firstDay} to {@code lastDay}, inclusive.
+     */
+    public DailyCounts getCompletedTasksPerDay(LocalDate firstDay, LocalDate lastDay) {
+        String sql = "SELECT key, count FROM task_stats WHERE dimension = 'completed_day' AND key BETWEEN ? AND ?";
+        long[] counts = new long[(int) (lastDay.toEpochDay() - firstDay.toEpochDay() + 1)];
+
+        try (Lease lease = reader()) {
+            PreparedStatement pstmt = lease.prepare(sql);
+            pstmt.setString(1, firstDay.toString());
+            pstmt.setString(2, lastDay.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long index = LocalDate.parse(rs.getString(1)).toEpochDay() - firstDay.toEpochDay();
+                    counts[(int) index] = rs.getLong(2);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get completed tasks per day", e);
+        }
+        return new DailyCounts(firstDay, counts);
+    }
+
+    // Reads a row selected with TASK_COLUMNS
     private Task mapResultSetToTask(ResultSet rs) throws SQLException {
+        return mapResultSetToTask(rs, 0);
+    }
+
+    // Reads TASK_COLUMNS starting after the first offset columns of the row
+    private static Task mapResultSetToTask(ResultSet rs, int offset) throws SQLException {
         Task task = new Task();
-        task.setId(rs.getLong("id"));
-        task.setTitle(rs.getString("title"));
-        task.setDescription(rs.getString("description"));
-        task.setCategory(rs.getString("category"));
-        task.setPriority(rs.getInt("priority"));
-        task.setDueDate(LocalDateTime.parse(rs.getString("due_date")));
-        task.setCompleted(rs.getBoolean("completed"));
+        task.setId(rs.getLong(offset + 1));
+        task.setTitle(rs.getString(offset + 2));
+        task.setDescription(rs.getString(offset + 3));
+        task.setCategory(rs.getString(offset + 4));
+        task.setPriority(rs.getInt(offset + 5));
+        task.setDueDate(fromEpochMillis(rs.getLong(offset + 6)));
+        task.setCompleted(rs.getBoolean(offset + 7));
         return task;
     }
 
+    // The stored form of a LocalDateTime, shared by the table, the snapshot format and the undo journal
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * The SQL of every statement currently cached, for tests that check how queries are planned.
+     */
+    Set<String> getPreparedSql() {
+        Set<String> sql = new HashSet<>();
+        for (StatementCache cache : statementCaches) {
+            sql.addAll(cache.getCachedSql());
+        }
+        return sql;
+    }
+
+    /**
+     * The detail column of {@code EXPLAIN QUERY PLAN} for a statement, parameters left unbound.
+     */
+    List<String> explainQueryPlan(String sql) {
+        List<String> plan = new ArrayList<>();
+        try (Lease lease = writer();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to explain query", e);
+        }
+        return plan;
+    }
+
+    /**
+     * Runs one statement on the write connection, or on a pooled read connection if
+     * {@code onReader}, and returns the first column of its first row, or null if it returns no
+     * rows; for tests of connection settings.
+     */
+    String execute(String sql, boolean onReader) throws SQLException {
+        try (Lease lease = onReader ? reader() : writer();
+             Statement stmt = lease.connection().createStatement()) {
+            if (!stmt.execute(sql)) {
+                return null;
+            }
+            try (ResultSet rs = stmt.getResultSet()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    public long getStatementCacheHits() {
+        return statementCaches.stream().mapToLong(StatementCache::getHits).sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCaches.stream().mapToLong(StatementCache::getMisses).sum();
+    }
+
+    /**
+     * Single-task writes queued so far and the transactions they were committed in; both are
+     * zero with sync durability.
+     */
+    public long getQueuedWriteCount() {
+        return writeQueue != null ? writeQueue.getMutationCount() : 0;
+    }
+
+    public long getGroupCommitCount() {
+        return writeQueue != null ? writeQueue.getCommitCount() : 0;
+    }
+
+    /**
+     * Commits any queued writes, then closes every connection.
+     */
     public void close() {
+        if (writeQueue != null) {
+            writeQueue.close();
+        }
+        writeLock.lock();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            if (readConnections != null) {
+                // Connections still leased out are closed when their lease ends
+                List<StatementCache> idle = new ArrayList<>();
+                readConnections.drainTo(idle);
+                readConnections = null;
+                for (StatementCache reader : idle) {
+                    reader.close();
+                }
+            }
+            if (writeStatements != null && !writeConnection.isClosed()) {
+                writeStatements.close();
+            } else if (writeConnection != null && !writeConnection.isClosed()) {
+                writeConnection.close();
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to close database connection", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Every other use of the database first waits for queued writes, so it reads its own writes
+    // and bulk operations stay ordered after them
+    private Lease writer() {
+        checkNotUiThread();
+        flushQueuedWrites();
+        return lockWriter();
+    }
+
+    private Lease lockWriter() {
+        writeLock.lock();
+        return new Lease(writeStatements, null);
+    }
+
+    private Lease reader() {
+        checkNotUiThread();
+        flushQueuedWrites();
+        return takeReader();
+    }
+
+    // A read connection without waiting for the write queue, for reads that check it themselves
+    private Lease takeReader() {
+        BlockingQueue<StatementCache> pool = readConnections;
+        if (pool == null) {
+            return lockWriter();
+        }
+        try {
+            return new Lease(pool.take(), pool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private void flushQueuedWrites() {
+        if (writeQueue != null) {
+            writeQueue.flush();
+        }
+    }
+
+    /**
+     * With {@code -Dtaskmanager.debug.fxThreadJdbc=log} every query started on the JavaFX
+     * Application Thread is logged with its stack trace; with {@code =fail} it throws instead.
+     * The thread is recognised by name so this class stays independent of JavaFX.
+     */
+    private static void checkNotUiThread() {
+        if (UI_THREAD_CHECK.equals("off") || !UI_THREAD_NAME.equals(Thread.currentThread().getName())) {
+            return;
+        }
+        IllegalStateException violation = new IllegalStateException("Database access on the JavaFX Application Thread");
+        if (UI_THREAD_CHECK.equalsIgnoreCase("fail")) {
+            throw violation;
+        }
+        LOG.log(System.Logger.Level.WARNING, violation.getMessage(), violation);
+    }
+
+    /**
+     * Exclusive use of one connection and its statement cache for the duration of a
+     * try-with-resources block: either the write connection under its lock, or a read-only
+     * connection taken from the pool.
+     */
+    private final class Lease implements AutoCloseable {
+        private final StatementCache statements;
+        private final BlockingQueue<StatementCache> pool;
+
+        private Lease(StatementCache statements, BlockingQueue<StatementCache> pool) {
+            this.statements = statements;
+            this.pool = pool;
+        }
+
+        Connection connection() {
+            return statements.getConnection();
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            return statements.prepare(sql);
+        }
+
+        PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+            return statements.prepareReturningKeys(sql);
+        }
+
+        @Override
+        public void close() {
+            if (pool == null) {
+                writeLock.unlock();
+            } else if (pool == readConnections) {
+                pool.add(statements);
+            } else {
+                try {
+                    statements.close();
+                } catch (SQLException e) {
+                    // The service is already shut down; nothing left to report to
+                }
+            }
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,501 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * The whole task set held in memory, for {@link TaskManager}'s write-through mode.
+ *
+ * Keeps an id-keyed map, a view sorted by due date, and secondary indexes by category, priority
+ * and completion status. Every index holds its tasks sorted by due date, so a filter on one of
+ * those fields is a lookup that already comes back in the order the database would return it,
+ * and all of them are updated incrementally on put and remove.
+ *
+ * It stores and hands out copies holding only the persisted fields, so callers mutating a task
+ * they were given cannot corrupt the sorted views, and reads return exactly what the database
+ * would.
+ */
+class InMemoryTaskRepository {
+    // Same order as the database's ORDER BY due_date, with the id as a tie-breaker
+    private static final Comparator<Task> BY_DUE_DATE =
+        Comparator.comparing(Task::getDueDate).thenComparingLong(Task::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Task> byId = new HashMap<>();
+    private final NavigableSet<Task> byDueDate = new TreeSet<>(BY_DUE_DATE);
+    // Secondary indexes; a key is dropped once its last task is removed
+    private final NavigableMap<String, NavigableSet<Task>> byCategory = new TreeMap<>();
+    private final NavigableMap<Integer, NavigableSet<Task>> byPriority = new TreeMap<>();
+    private final NavigableSet<Task> completed = new TreeSet<>(BY_DUE_DATE);
+    private final NavigableSet<Task> pending = new TreeSet<>(BY_DUE_DATE);
+
+    InMemoryTaskRepository(Collection<Task> tasks) {
+        replaceAll(tasks);
+    }
+
+    /**
+     * Adds the task, or replaces the stored task with the same id.
+     */
+    void put(Task task) {
+        Task stored = copy(task);
+        lock.writeLock().lock();
+        try {
+            removeLocked(stored.getId());
+            addLocked(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void replaceAll(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            byDueDate.clear();
+            byCategory.clear();
+            byPriority.clear();
+            completed.clear();
+            pending.clear();
+            for (Task task : tasks) {
+                addLocked(copy(task));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Task get(long taskId) {
+        lock.readLock().lock();
+        try {
+            Task stored = byId.get(taskId);
+            return stored == null ? null : copy(stored);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All tasks ordered by due date.
+     */
+    List<Task> getAll() {
+        return filter(byDueDate, task -> true);
+    }
+
+    /**
+     * All tasks ordered by priority, then due date.
+     */
+    List<Task> getAllByPriority() {
+        lock.readLock().lock();
+        try {
+            List<Task> result = new ArrayList<>(byId.size());
+            for (NavigableSet<Task> tasks : byPriority.values()) {
+                result.addAll(copyAll(tasks, task -> true));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tasks due between {@code start} and {@code end}, both inclusive like SQL BETWEEN.
+     */
+    List<Task> getByDueDateRange(LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            if (start.isAfter(end)) {
+                return new ArrayList<>();
+            }
+            return copyAll(byDueDate.subSet(bound(start, Long.MIN_VALUE), true, bound(end, Long.MAX_VALUE), true), task -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Task> getByCategory(String category) {
+        lock.readLock().lock();
+        try {
+            return copyAll(byCategory.getOrDefault(category, Collections.emptyNavigableSet()), task -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Task> getByPriority(int priority) {
+        lock.readLock().lock();
+        try {
+            return copyAll(byPriority.getOrDefault(priority, Collections.emptyNavigableSet()), task -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completed or pending tasks, ordered by due date.
+     */
+    List<Task> getByCompleted(boolean isCompleted) {
+        return filter(isCompleted ? completed : pending, task -> true);
+    }
+
+    /**
+     * Pending tasks due strictly before {@code now}.
+     */
+    List<Task> getOverdue(LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            return copyAll(pending.headSet(bound(now, Long.MIN_VALUE), false), task -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The distinct categories in use, sorted.
+     */
+    List<String> getCategories() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byCategory.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Answers {@code query} from the indexes. The planner picks the most selective index the query
+     * can use (status, the categories, the priority range, or the due-date view), narrows each of
+     * its sets to the due-date range and keyset cursor, and checks the remaining filters on each candidate. In
+     * due-date order the scan stops as soon as the window is full; other orders keep the best matching
+     * references (in a bounded heap when there is a limit), sort them and copy only the window.
+     */
+    List<Task> query(TaskQuery query) {
+        lock.readLock().lock();
+        try {
+            Iterator<Task> candidates = candidates(query);
+            int skip = query.getOffset();
+            int limit = query.getLimit();
+            List<Task> result = new ArrayList<>();
+            if (query.isDueDateOrder()) {
+                while (candidates.hasNext() && (limit < 0 || result.size() < limit)) {
+                    Task task = candidates.next();
+                    if (query.matches(task) && skip-- <= 0) {
+                        result.add(copy(task));
+                    }
+                }
+                return result;
+            }
+
+            Comparator<Task> order = query.comparator();
+            List<Task> matches;
+            if (limit >= 0 && (long) skip + limit <= Integer.MAX_VALUE) {
+                // Bounded window: keep the best offset+limit matches in a heap whose head is the worst
+                int keep = skip + limit;
+                PriorityQueue<Task> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)), order.reversed());
+                while (candidates.hasNext() && keep > 0) {
+                    Task task = candidates.next();
+                    if (!query.matches(task)) continue;
+                    if (top.size() < keep) {
+                        top.add(task);
+                    } else if (order.compare(task, top.peek()) < 0) {
+                        top.poll();
+                        top.add(task);
+                    }
+                }
+                matches = new ArrayList<>(top);
+            } else {
+                matches = new ArrayList<>();
+                while (candidates.hasNext()) {
+                    Task task = candidates.next();
+                    if (query.matches(task)) {
+                        matches.add(task);
+                    }
+                }
+            }
+            matches.sort(order);
+            int from = Math.min(skip, matches.size());
+            int to = limit < 0 ? matches.size() : (int) Math.min(matches.size(), (long) from + limit);
+            for (Task task : matches.subList(from, to)) {
+                result.add(copy(task));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the tasks matching {@code query}'s filters, ignoring its sort and window.
+     */
+    int count(TaskQuery query) {
+        lock.readLock().lock();
+        try {
+            if (!query.hasFilters()) {
+                return byId.size();
+            }
+            Iterator<Task> candidates = candidates(query);
+            int count = 0;
+            while (candidates.hasNext()) {
+                if (query.matches(candidates.next())) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The candidate tasks for a query in due-date order: a superset of its matches
+    private Iterator<Task> candidates(TaskQuery query) {
+        List<NavigableSet<Task>> best = List.of(byDueDate);
+        long bestSize = byId.size();
+
+        if (query.getCompleted() != null) {
+            NavigableSet<Task> status = query.getCompleted() ? completed : pending;
+            if (status.size() < bestSize) {
+                best = List.of(status);
+                bestSize = status.size();
+            }
+        }
+        if (query.getCategories() != null) {
+            List<NavigableSet<Task>> sets = new ArrayList<>();
+            long size = 0;
+            for (String category : query.getCategories()) {
+                NavigableSet<Task> tasks = byCategory.get(category);
+                if (tasks != null) {
+                    sets.add(tasks);
+                    size += tasks.size();
+                }
+            }
+            if (size < bestSize) {
+                best = sets;
+                bestSize = size;
+            }
+        }
+        if (query.getMinPriority() != null || query.getMaxPriority() != null) {
+            int min = query.getMinPriority() != null ? query.getMinPriority() : Integer.MIN_VALUE;
+            int max = query.getMaxPriority() != null ? query.getMaxPriority() : Integer.MAX_VALUE;
+            List<NavigableSet<Task>> sets = new ArrayList<>();
+            long size = 0;
+            if (min <= max) {
+                for (NavigableSet<Task> tasks : byPriority.subMap(min, true, max, true).values()) {
+                    sets.add(tasks);
+                    size += tasks.size();
+                }
+            }
+            if (size < bestSize) {
+                best = sets;
+                bestSize = size;
+            }
+        }
+        if (best.size() != 1 || best.get(0) != byDueDate) {
+            // A narrow due-date range can beat every index; counting it costs at most bestSize steps
+            NavigableSet<Task> range = dueRange(byDueDate, query);
+            if (range != byDueDate && countUpTo(range, bestSize) < bestSize) {
+                best = List.of(byDueDate);
+            }
+        }
+
+        List<Iterator<Task>> iterators = new ArrayList<>(best.size());
+        for (NavigableSet<Task> tasks : best) {
+            NavigableSet<Task> range = dueRange(tasks, query);
+            if (!range.isEmpty()) {
+                iterators.add(range.iterator());
+            }
+        }
+        if (iterators.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return iterators.size() == 1 ? iterators.get(0) : new MergingIterator(iterators);
+    }
+
+    private static long countUpTo(Collection<Task> tasks, long max) {
+        long count = 0;
+        Iterator<Task> iterator = tasks.iterator();
+        while (count < max && iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    // The part of a due-date-sorted set within the query's due-date range and after its keyset cursor
+    private static NavigableSet<Task> dueRange(NavigableSet<Task> tasks, TaskQuery query) {
+        Task lower = query.getDueFrom() != null ? bound(query.getDueFrom(), Long.MIN_VALUE) : null;
+        boolean lowerInclusive = true;
+        if (query.getAfterDueDate() != null) {
+            Task after = bound(query.getAfterDueDate(), query.getAfterId());
+            if (lower == null || BY_DUE_DATE.compare(after, lower) >= 0) {
+                lower = after;
+                lowerInclusive = false;
+            }
+        }
+        Task upper = query.getDueBefore() != null ? bound(query.getDueBefore(), Long.MIN_VALUE) : null;
+
+        if (lower != null && upper != null) {
+            return BY_DUE_DATE.compare(lower, upper) < 0
+                ? tasks.subSet(lower, lowerInclusive, upper, false)
+                : Collections.emptyNavigableSet();
+        }
+        if (lower != null) {
+            return tasks.tailSet(lower, lowerInclusive);
+        }
+        if (upper != null) {
+            return tasks.headSet(upper, false);
+        }
+        return tasks;
+    }
+
+    /**
+     * Tasks matching {@code predicate}, ordered by due date.
+     */
+    List<Task> filter(Predicate<Task> predicate) {
+        return filter(byDueDate, predicate);
+    }
+
+    private List<Task> filter(NavigableSet<Task> view, Predicate<Task> predicate) {
+        lock.readLock().lock();
+        try {
+            return copyAll(view, predicate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Task> copyAll(Collection<Task> tasks, Predicate<Task> predicate) {
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (predicate.test(task)) {
+                result.add(copy(task));
+            }
+        }
+        return result;
+    }
+
+    private void addLocked(Task stored) {
+        byId.put(stored.getId(), stored);
+        byDueDate.add(stored);
+        byCategory.computeIfAbsent(stored.getCategory(), key -> new TreeSet<>(BY_DUE_DATE)).add(stored);
+        byPriority.computeIfAbsent(stored.getPriority(), key -> new TreeSet<>(BY_DUE_DATE)).add(stored);
+        (stored.isCompleted() ? completed : pending).add(stored);
+    }
+
+    private void removeLocked(long taskId) {
+        Task old = byId.remove(taskId);
+        if (old != null) {
+            byDueDate.remove(old);
+            removeFromIndex(byCategory, old.getCategory(), old);
+            removeFromIndex(byPriority, old.getPriority(), old);
+            (old.isCompleted() ? completed : pending).remove(old);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, NavigableSet<Task>> index, K key, Task task) {
+        NavigableSet<Task> tasks = index.get(key);
+        if (tasks != null && tasks.remove(task) && tasks.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Merges iterators over disjoint due-date-sorted sets into one due-date-ordered iteration.
+     */
+    private static final class MergingIterator implements Iterator<Task> {
+        private final PriorityQueue<PeekingIterator> heads =
+            new PriorityQueue<>((a, b) -> BY_DUE_DATE.compare(a.head, b.head));
+
+        MergingIterator(List<Iterator<Task>> iterators) {
+            for (Iterator<Task> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    heads.add(new PeekingIterator(iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Task next() {
+            PeekingIterator first = heads.poll();
+            if (first == null) {
+                throw new NoSuchElementException();
+            }
+            Task task = first.head;
+            if (first.iterator.hasNext()) {
+                first.head = first.iterator.next();
+                heads.add(first);
+            }
+            return task;
+        }
+
+        private static final class PeekingIterator {
+            final Iterator<Task> iterator;
+            Task head;
+
+            PeekingIterator(Iterator<Task> iterator) {
+                this.iterator = iterator;
+                this.head = iterator.next();
+            }
+        }
+    }
+
+    // Probe task for range lookups on the due-date views
+    private static Task bound(LocalDateTime dueDate, long id) {
+        Task probe = new Task();
+        probe.setDueDate(dueDate);
+        probe.setId(id);
+        return probe;
+    }
+
+    // Copies only what the tasks table stores, at the precision it stores it
+    private static Task copy(Task task) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setTitle(task.getTitle());
+        copy.setDescription(task.getDescription());
+        copy.setCategory(task.getCategory());
+        copy.setPriority(task.getPriority());
+        copy.setDueDate(task.getDueDate().truncatedTo(ChronoUnit.MILLIS));
+        copy.setCompleted(task.isCompleted());
+        return copy;
+    }
+}
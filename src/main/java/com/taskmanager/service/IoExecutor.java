@@ -0,0 +1,108 @@
+package com.taskmanager.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking I/O (database queries, file reads and writes) off the caller's thread.
+ *
+ * By default every job gets its own virtual thread, so background work such as month prefetches,
+ * dashboard figures, reminder checks and exports can be issued freely without sizing a pool.
+ * {@code -Dtaskmanager.io.executor=platform} switches to a fixed pool of platform threads
+ * ({@code -Dtaskmanager.io.threads}, default 4) instead.
+ *
+ * Jobs that use the database go through {@link #database()}, which runs at most
+ * {@code -Dtaskmanager.io.maxDbJobs} (default half the processors) of them at a time; on virtual
+ * threads the rest wait their turn at no cost. SQLite runs in native code, and a virtual thread
+ * inside native code keeps its carrier thread busy, so without the gate a burst of queries could
+ * take every carrier and stall all other virtual threads. File jobs use {@link #execute} directly.
+ */
+public final class IoExecutor implements Executor {
+    private static final String KIND = System.getProperty("taskmanager.io.executor", "virtual");
+    private static final int PLATFORM_THREADS = Integer.getInteger("taskmanager.io.threads", 4);
+    private static final int MAX_DATABASE_JOBS = Integer.getInteger("taskmanager.io.maxDbJobs",
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static IoExecutor shared;
+
+    private final ExecutorService threads;
+    private final Semaphore databasePermits;
+    private final Executor database = this::executeDatabaseJob;
+
+    public IoExecutor(ExecutorService threads, int maxDatabaseJobs) {
+        this.threads = threads;
+        this.databasePermits = new Semaphore(Math.max(1, maxDatabaseJobs), true);
+    }
+
+    /**
+     * One new virtual thread per job.
+     */
+    public static IoExecutor virtualThreads(int maxDatabaseJobs) {
+        return new IoExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 1).factory()), maxDatabaseJobs);
+    }
+
+    /**
+     * A fixed pool of daemon platform threads.
+     */
+    public static IoExecutor platformThreads(int threadCount, int maxDatabaseJobs) {
+        AtomicInteger count = new AtomicInteger();
+        return new IoExecutor(Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), maxDatabaseJobs);
+    }
+
+    /**
+     * The executor shared by the whole application, configured from system properties.
+     */
+    public static synchronized IoExecutor shared() {
+        if (shared == null) {
+            shared = "platform".equalsIgnoreCase(KIND)
+                ? platformThreads(PLATFORM_THREADS, MAX_DATABASE_JOBS)
+                : virtualThreads(MAX_DATABASE_JOBS);
+        }
+        return shared;
+    }
+
+    /**
+     * Runs a job that does no database work.
+     */
+    @Override
+    public void execute(Runnable job) {
+        threads.execute(job);
+    }
+
+    /**
+     * Executor for jobs that use the database, admitting a bounded number at a time.
+     */
+    public Executor database() {
+        return database;
+    }
+
+    private void executeDatabaseJob(Runnable job) {
+        threads.execute(() -> {
+            // Not interruptible: a cancelled job still has to run to notice its interrupt and finish
+            databasePermits.acquireUninterruptibly();
+            try {
+                // Stopped while waiting at the gate: drop the job, as the pool drops queued ones
+                if (!threads.isShutdown()) {
+                    job.run();
+                }
+            } finally {
+                databasePermits.release();
+            }
+        });
+    }
+
+    /**
+     * Stops accepting jobs, interrupts the running ones and drops those not started yet,
+     * including database jobs still waiting at the gate.
+     */
+    public void shutdownNow() {
+        threads.shutdownNow();
+    }
+}
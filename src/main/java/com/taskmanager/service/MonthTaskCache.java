@@ -0,0 +1,200 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of calendar months, keyed by {@link YearMonth}.
+ *
+ * Each entry holds the month's tasks bucketed by due date. Callers get their own copies of the
+ * tasks, so editing one cannot change what the cache hands out next. Entries are evicted least recently
+ * used first once either the month count or the estimated heap footprint exceeds its limit.
+ * Adjacent months can be loaded ahead of time as background database jobs with {@link #prefetch}.
+ */
+public class MonthTaskCache {
+    private static final int DEFAULT_MAX_MONTHS = 12;
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    // Rough per-task overhead: Task object, LocalDateTime, tag set and list/map slots
+    private static final int TASK_OVERHEAD_BYTES = 200;
+
+    private final Function<YearMonth, Map<LocalDate, List<Task>>> loader;
+    private final int maxMonths;
+    private final long maxBytes;
+    private final LinkedHashMap<YearMonth, Entry> months = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<YearMonth> pendingPrefetches = new HashSet<>();
+    private final Executor prefetchExecutor;
+    private volatile boolean shutdown;
+    private long totalBytes;
+    // Bumped on every invalidation so loads that raced with a write are not stored
+    private long generation;
+
+    public MonthTaskCache(Function<YearMonth, Map<LocalDate, List<Task>>> loader) {
+        this(loader, DEFAULT_MAX_MONTHS, DEFAULT_MAX_BYTES);
+    }
+
+    public MonthTaskCache(Function<YearMonth, Map<LocalDate, List<Task>>> loader, int maxMonths, long maxBytes) {
+        this(loader, maxMonths, maxBytes, IoExecutor.shared().database());
+    }
+
+    // For tests, which decide when a prefetch runs
+    MonthTaskCache(Function<YearMonth, Map<LocalDate, List<Task>>> loader, int maxMonths, long maxBytes, Executor prefetchExecutor) {
+        this.loader = loader;
+        this.maxMonths = maxMonths;
+        this.maxBytes = maxBytes;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    /**
+     * Returns the tasks of the given month bucketed by day, loading it synchronously on a miss.
+     */
+    public Map<LocalDate, List<Task>> get(YearMonth month) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = months.get(month);
+            if (entry != null) {
+                return copyOf(entry.tasksByDay);
+            }
+            loadGeneration = generation;
+        }
+        Map<LocalDate, List<Task>> tasksByDay = load(month);
+        store(month, tasksByDay, loadGeneration);
+        return copyOf(tasksByDay);
+    }
+
+    /**
+     * Loads the given month on the background executor unless it is already cached or queued.
+     */
+    public void prefetch(YearMonth month) {
+        long loadGeneration;
+        synchronized (this) {
+            if (shutdown || months.containsKey(month) || !pendingPrefetches.add(month)) {
+                return;
+            }
+            loadGeneration = generation;
+        }
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    store(month, load(month), loadGeneration);
+                } catch (RuntimeException e) {
+                    // A failed prefetch just means the month is loaded on demand later
+                } finally {
+                    synchronized (this) {
+                        pendingPrefetches.remove(month);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                pendingPrefetches.remove(month);
+            }
+        }
+    }
+
+    /**
+     * Drops the given month, if cached.
+     */
+    public synchronized void invalidate(YearMonth month) {
+        generation++;
+        Entry entry = months.remove(month);
+        if (entry != null) {
+            totalBytes -= entry.estimatedBytes;
+        }
+    }
+
+    /**
+     * Drops every cached month that currently lists the given task, whatever its due date is now.
+     */
+    public synchronized void invalidateTask(long taskId) {
+        generation++;
+        Iterator<Entry> it = months.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.taskIds.contains(taskId)) {
+                totalBytes -= entry.estimatedBytes;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        months.clear();
+        totalBytes = 0;
+    }
+
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    private Map<LocalDate, List<Task>> load(YearMonth month) {
+        return Collections.unmodifiableMap(loader.apply(month));
+    }
+
+    private synchronized void store(YearMonth month, Map<LocalDate, List<Task>> tasksByDay, long loadGeneration) {
+        if (loadGeneration != generation || months.containsKey(month)) {
+            return;
+        }
+        Entry entry = new Entry(tasksByDay);
+        months.put(month, entry);
+        totalBytes += entry.estimatedBytes;
+
+        // Evict least recently used months, but always keep the one just stored
+        Iterator<Map.Entry<YearMonth, Entry>> it = months.entrySet().iterator();
+        while ((months.size() > maxMonths || totalBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<YearMonth, Entry> eldest = it.next();
+            if (eldest.getKey().equals(month)) {
+                break;
+            }
+            totalBytes -= eldest.getValue().estimatedBytes;
+            it.remove();
+        }
+    }
+
+    private static Map<LocalDate, List<Task>> copyOf(Map<LocalDate, List<Task>> tasksByDay) {
+        Map<LocalDate, List<Task>> copy = new LinkedHashMap<>();
+        tasksByDay.forEach((day, tasks) -> {
+            List<Task> dayCopy = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                dayCopy.add(new Task(task));
+            }
+            copy.put(day, dayCopy);
+        });
+        return copy;
+    }
+
+    private static final class Entry {
+        private final Map<LocalDate, List<Task>> tasksByDay;
+        private final Set<Long> taskIds = new HashSet<>();
+        private final long estimatedBytes;
+
+        private Entry(Map<LocalDate, List<Task>> tasksByDay) {
+            this.tasksByDay = tasksByDay;
+            long bytes = 0;
+            for (List<Task> tasks : tasksByDay.values()) {
+                for (Task task : tasks) {
+                    taskIds.add(task.getId());
+                    bytes += TASK_OVERHEAD_BYTES + 2L * (length(task.getTitle()) + length(task.getDescription()) + length(task.getCategory()));
+                }
+            }
+            this.estimatedBytes = bytes;
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+}
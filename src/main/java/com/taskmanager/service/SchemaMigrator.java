@@ -0,0 +1,111 @@
+package com.taskmanager.service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Brings a SQLite database up to date with an ordered list of migrations.
+ *
+ * The applied version is stored in {@code PRAGMA user_version}. Each pending migration runs in
+ * its own transaction together with its version bump, so a failed step leaves the database at the
+ * last good version and is retried on the next start.
+ */
+public class SchemaMigrator {
+    private static final System.Logger LOG = System.getLogger(SchemaMigrator.class.getName());
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() != i + 1) {
+                throw new IllegalArgumentException("Migration versions must be contiguous from 1, found " + sorted.get(i).getVersion());
+            }
+        }
+        this.migrations = sorted;
+    }
+
+    public int getLatestVersion() {
+        return migrations.size();
+    }
+
+    /**
+     * Applies every migration newer than the database's current version.
+     *
+     * @return the schema version after migrating
+     */
+    public int migrate(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        int version = readVersion(connection);
+        if (version > getLatestVersion()) {
+            throw new SQLException("Database schema version " + version + " is newer than the supported version " + getLatestVersion());
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= version) {
+                continue;
+            }
+            long stepStarted = System.nanoTime();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                migration.getStep().apply(connection);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + migration.getVersion());
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw new SQLException("Schema migration " + migration.getVersion() + " (" + migration.getDescription() + ") failed", e);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            version = migration.getVersion();
+            applied++;
+            LOG.log(System.Logger.Level.INFO, "Applied schema migration {0} ({1}) in {2} ms",
+                    version, migration.getDescription(), (System.nanoTime() - stepStarted) / 1_000_000);
+        }
+
+        LOG.log(System.Logger.Level.INFO, "Database schema at version {0}, {1} migration(s) applied, startup check took {2} ms",
+                version, applied, (System.nanoTime() - started) / 1_000_000);
+        return version;
+    }
+
+    public static int readVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * A single schema change; runs inside the migrator's transaction and must not commit.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        public Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+        public Step getStep() { return step; }
+    }
+}
@@ -0,0 +1,107 @@
+package com.taskmanager.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statements of one connection, keyed by SQL and evicted least recently used first.
+ *
+ * Not thread-safe: only the thread currently holding the connection may use it. Statements handed
+ * out stay owned by the cache, so callers close their result sets but never the statement.
+ */
+class StatementCache {
+    private static final int DEFAULT_MAX_STATEMENTS = 32;
+
+    private final Connection connection;
+    private final int maxStatements;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    // Read by other threads for monitoring, hence thread-safe counters
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    StatementCache(Connection connection) {
+        this(connection, DEFAULT_MAX_STATEMENTS);
+    }
+
+    StatementCache(Connection connection, int maxStatements) {
+        this.connection = connection;
+        this.maxStatements = maxStatements;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Returns a compiled statement for the SQL with its parameters cleared, preparing it on a miss.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, false);
+    }
+
+    /**
+     * Like {@link #prepare(String)}, for an INSERT whose generated key the caller reads with
+     * {@link PreparedStatement#getGeneratedKeys()}. A given SQL string must always be prepared
+     * the same way, since both share one cache entry.
+     */
+    PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+        return prepare(sql, true);
+    }
+
+    private PreparedStatement prepare(String sql, boolean returnKeys) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null) {
+            hits.increment();
+            statement.clearParameters();
+            return statement;
+        }
+
+        misses.increment();
+        statement = returnKeys
+            ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+            : connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        if (statements.size() > maxStatements) {
+            Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+            PreparedStatement evicted = eldest.next().getValue();
+            eldest.remove();
+            evicted.close();
+        }
+        return statement;
+    }
+
+    // For tests, between queries; like prepare() it must not race with the connection's holder
+    Set<String> getCachedSql() {
+        return new HashSet<>(statements.keySet());
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Closes every cached statement and then the connection itself.
+     */
+    void close() throws SQLException {
+        try {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+            statements.clear();
+        } finally {
+            connection.close();
+        }
+    }
+}
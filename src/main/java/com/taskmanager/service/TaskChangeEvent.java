@@ -0,0 +1,37 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+
+/**
+ * Describes a mutation made through {@link TaskManager}: a single task, or for {@code RELOADED} a
+ * bulk change after which listeners should reload whatever they show.
+ */
+public class TaskChangeEvent {
+    public enum Type { ADDED, UPDATED, DELETED, RELOADED }
+
+    private final Type type;
+    private final long taskId;
+    private final Task task;
+
+    public TaskChangeEvent(Type type, long taskId, Task task) {
+        this.type = type;
+        this.taskId = taskId;
+        this.task = task;
+    }
+
+    public Type getType() { return type; }
+    /**
+     * The changed task's id, or -1 for {@code RELOADED}.
+     */
+    public long getTaskId() { return taskId; }
+
+    /**
+     * The task as written, or null for deletions and bulk changes.
+     */
+    public Task getTask() { return task; }
+
+    @Override
+    public String toString() {
+        return type + " task " + taskId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.taskmanager.service;
+
+/**
+ * Notified after every task mutation made through {@link TaskManager}.
+ *
+ * Listeners are called on the thread that performed the write, so UI listeners must hand off
+ * to the FX thread themselves.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+    void onTaskChanged(TaskChangeEvent event);
+}
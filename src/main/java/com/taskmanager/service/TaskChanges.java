@@ -0,0 +1,67 @@
+package com.taskmanager.service;
+
+import java.util.List;
+
+/**
+ * The task changes logged after a sequence number, as returned by
+ * {@link DatabaseService#changesSince}: at most one entry per task, in the order of each task's
+ * latest change, plus the sequence number to ask from next time.
+ */
+public class TaskChanges {
+    private final long lastSeq;
+    private final boolean historyTruncated;
+    private final boolean reloadRequired;
+    private final List<TaskChangeEvent> changes;
+
+    private TaskChanges(long lastSeq, boolean historyTruncated, boolean reloadRequired, List<TaskChangeEvent> changes) {
+        this.lastSeq = lastSeq;
+        this.historyTruncated = historyTruncated;
+        this.reloadRequired = reloadRequired;
+        this.changes = changes;
+    }
+
+    public static TaskChanges of(long lastSeq, List<TaskChangeEvent> changes) {
+        return new TaskChanges(lastSeq, false, false, changes);
+    }
+
+    /**
+     * The log was pruned past the requested sequence number, so what happened since is unknown.
+     */
+    public static TaskChanges historyTruncated(long lastSeq) {
+        return new TaskChanges(lastSeq, true, true, List.of());
+    }
+
+    /**
+     * An import or undo of one replaced tasks in bulk since the requested sequence number.
+     */
+    public static TaskChanges bulkChange(long lastSeq) {
+        return new TaskChanges(lastSeq, false, true, List.of());
+    }
+
+    /**
+     * The newest change covered; pass it to the next {@code changesSince} call.
+     */
+    public long getLastSeq() { return lastSeq; }
+
+    /**
+     * True if the log no longer reaches back to the requested sequence number. Implies
+     * {@link #isReloadRequired()}.
+     */
+    public boolean isHistoryTruncated() { return historyTruncated; }
+
+    /**
+     * True if a bulk change happened, or the history was truncated, since the requested sequence
+     * number; there are no entries then and everything should be reloaded instead.
+     */
+    public boolean isReloadRequired() { return reloadRequired; }
+
+    /**
+     * ADDED and UPDATED entries carry the task as it is now, to be applied as an upsert;
+     * DELETED entries carry only the id.
+     */
+    public List<TaskChangeEvent> getChanges() { return changes; }
+
+    public boolean isEmpty() {
+        return !reloadRequired && changes.isEmpty();
+    }
+}
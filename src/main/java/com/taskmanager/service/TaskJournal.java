@@ -0,0 +1,568 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Undo and redo history of task changes, stored as binary deltas instead of {@link Task} copies.
+ *
+ * Every step is encoded into one byte ring buffer, oldest first; when the buffer or the step
+ * limit is full the oldest steps are forgotten. An added or deleted task costs one encoded row,
+ * an update only the fields it changed (old and new value of each). A bulk step, such as an
+ * import, is one step holding the rows it removed and the rows it added; a side larger than
+ * {@code spillBytes} is written to a temporary file that lives as long as the step.
+ *
+ * <pre>
+ * ADDED   := 1, row
+ * DELETED := 2, row
+ * UPDATED := 3, id, field mask byte, (old value, new value) per field in the mask
+ * BULK    := 4, rows removed, rows added; each as row count, then 0 + length + rows inline
+ *            or 1 + temp file path
+ * row     := id, title, description, category, priority, due date, completed
+ * </pre>
+ *
+ * Strings are an int UTF-8 length (-1 for null) and the bytes; due dates are epoch millis read
+ * as UTC, as in the database. Not thread-safe: {@link TaskManager} calls it while holding the
+ * lock it writes under, so the history's order is the database's order. Only {@link #canUndo}
+ * and {@link #canRedo} may be called from other threads.
+ */
+final class TaskJournal implements Closeable {
+    private static final byte ADDED = 1;
+    private static final byte DELETED = 2;
+    private static final byte UPDATED = 3;
+    private static final byte BULK = 4;
+
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 1 << 1;
+    private static final int CATEGORY = 1 << 2;
+    private static final int PRIORITY = 1 << 3;
+    private static final int DUE_DATE = 1 << 4;
+    private static final int COMPLETED = 1 << 5;
+
+    private static final byte INLINE = 0;
+    private static final byte SPILLED = 1;
+
+    /**
+     * Writes a step's changes back to the store, without journaling them again.
+     */
+    interface Replay {
+        Task get(long taskId);
+
+        /** Stores a task under its own id. */
+        void insert(Task task);
+
+        void update(Task task);
+
+        void delete(long taskId);
+
+        /** Deletes {@code removeIds} and stores {@code restore} under their own ids, as one change. */
+        void replace(long[] removeIds, Iterator<Task> restore);
+    }
+
+    private final int maxSteps;
+    private final int spillBytes;
+    private final byte[] ring;
+    // Logical start offset of every step held, circular from index first; the ring index of an
+    // offset is offset % ring.length
+    private final long[] stepStarts;
+    private int first;
+    // Steps held, and how many of them (counting from the oldest) are done; the rest can be redone
+    private volatile int count;
+    private volatile int undoable;
+    // Logical offsets of the oldest step's first byte and the newest step's last byte + 1
+    private long start;
+    private long end;
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+
+    TaskJournal(int maxSteps, int bufferBytes, int spillBytes) {
+        this.maxSteps = maxSteps;
+        this.ring = new byte[bufferBytes];
+        // Both inline sides of a bulk step have to fit in the ring with room to spare
+        this.spillBytes = Math.min(spillBytes, bufferBytes / 4);
+        this.stepStarts = new long[maxSteps];
+    }
+
+    boolean canUndo() {
+        return undoable > 0;
+    }
+
+    boolean canRedo() {
+        return undoable < count;
+    }
+
+    void recordAdded(Task task) {
+        DataOutputStream out = beginStep(ADDED);
+        try {
+            writeRow(out, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(scratch.toByteArray());
+    }
+
+    void recordDeleted(Task task) {
+        DataOutputStream out = beginStep(DELETED);
+        try {
+            writeRow(out, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(scratch.toByteArray());
+    }
+
+    /**
+     * Records the fields that differ between {@code before} and {@code after}; nothing if none do.
+     */
+    void recordUpdated(Task before, Task after) {
+        int mask = (Objects.equals(before.getTitle(), after.getTitle()) ? 0 : TITLE)
+            | (Objects.equals(before.getDescription(), after.getDescription()) ? 0 : DESCRIPTION)
+            | (Objects.equals(before.getCategory(), after.getCategory()) ? 0 : CATEGORY)
+            | (before.getPriority() == after.getPriority() ? 0 : PRIORITY)
+            | (Objects.equals(before.getDueDate(), after.getDueDate()) ? 0 : DUE_DATE)
+            | (before.isCompleted() == after.isCompleted() ? 0 : COMPLETED);
+        if (mask == 0) {
+            return;
+        }
+        DataOutputStream out = beginStep(UPDATED);
+        try {
+            out.writeLong(after.getId());
+            out.writeByte(mask);
+            if ((mask & TITLE) != 0) {
+                writeString(out, before.getTitle());
+                writeString(out, after.getTitle());
+            }
+            if ((mask & DESCRIPTION) != 0) {
+                writeString(out, before.getDescription());
+                writeString(out, after.getDescription());
+            }
+            if ((mask & CATEGORY) != 0) {
+                writeString(out, before.getCategory());
+                writeString(out, after.getCategory());
+            }
+            if ((mask & PRIORITY) != 0) {
+                out.writeInt(before.getPriority());
+                out.writeInt(after.getPriority());
+            }
+            if ((mask & DUE_DATE) != 0) {
+                out.writeLong(DatabaseService.toEpochMillis(before.getDueDate()));
+                out.writeLong(DatabaseService.toEpochMillis(after.getDueDate()));
+            }
+            if ((mask & COMPLETED) != 0) {
+                out.writeBoolean(before.isCompleted());
+                out.writeBoolean(after.isCompleted());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(scratch.toByteArray());
+    }
+
+    /**
+     * Starts recording a bulk step. It may be fed from any one thread; pass it to
+     * {@link #record(Bulk)} once the change is committed, and close it either way.
+     */
+    Bulk beginBulk() {
+        return new Bulk();
+    }
+
+    void record(Bulk bulk) {
+        if (bulk.removed.rows == 0 && bulk.added.rows == 0) {
+            return;
+        }
+        DataOutputStream out = beginStep(BULK);
+        try {
+            bulk.removed.finish(out);
+            bulk.added.finish(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record bulk change", e);
+        }
+        bulk.recorded = true;
+        append(scratch.toByteArray());
+    }
+
+    /**
+     * Reverts the newest done step through {@code replay}. If that fails the step stays done.
+     *
+     * @return false if there was nothing to undo
+     */
+    boolean undo(Replay replay) {
+        if (undoable == 0) {
+            return false;
+        }
+        replay(read(undoable - 1), replay, true);
+        undoable--;
+        return true;
+    }
+
+    /**
+     * Re-applies the oldest undone step through {@code replay}.
+     *
+     * @return false if there was nothing to redo
+     */
+    boolean redo(Replay replay) {
+        if (undoable == count) {
+            return false;
+        }
+        replay(read(undoable), replay, false);
+        undoable++;
+        return true;
+    }
+
+    /**
+     * Bytes the ring currently holds, for monitoring.
+     */
+    long getHeldBytes() {
+        return end - start;
+    }
+
+    /**
+     * Forgets every step and deletes their temporary files.
+     */
+    @Override
+    public void close() {
+        while (count > 0) {
+            dropOldest();
+        }
+        undoable = 0;
+    }
+
+    private DataOutputStream beginStep(byte kind) {
+        scratch.reset();
+        scratch.write(kind);
+        return new DataOutputStream(scratch);
+    }
+
+    private void append(byte[] step) {
+        // A new change makes the undone steps unreachable
+        while (count > undoable) {
+            release(read(count - 1));
+            count--;
+            end = count == 0 ? start : stepStarts[(first + count) % maxSteps];
+        }
+        if (step.length > ring.length) {
+            // Too big to keep (a huge description); the older steps could no longer be undone
+            // correctly without it, so the history starts over
+            close();
+            release(step);
+            return;
+        }
+        while (count == maxSteps || ring.length - (end - start) < step.length) {
+            dropOldest();
+        }
+
+        int at = (int) (end % ring.length);
+        int firstPart = Math.min(step.length, ring.length - at);
+        System.arraycopy(step, 0, ring, at, firstPart);
+        System.arraycopy(step, firstPart, ring, 0, step.length - firstPart);
+        stepStarts[(first + count) % maxSteps] = end;
+        end += step.length;
+        count++;
+        undoable = count;
+    }
+
+    private void dropOldest() {
+        release(read(0));
+        first = (first + 1) % maxSteps;
+        count--;
+        undoable = Math.max(0, undoable - 1);
+        start = count == 0 ? end : stepStarts[first];
+    }
+
+    // The encoded step at position index, oldest first
+    private byte[] read(int index) {
+        long from = stepStarts[(first + index) % maxSteps];
+        long to = index + 1 < count ? stepStarts[(first + index + 1) % maxSteps] : end;
+        byte[] step = new byte[(int) (to - from)];
+        int at = (int) (from % ring.length);
+        int firstPart = Math.min(step.length, ring.length - at);
+        System.arraycopy(ring, at, step, 0, firstPart);
+        System.arraycopy(ring, 0, step, firstPart, step.length - firstPart);
+        return step;
+    }
+
+    // Deletes the temporary files of a step that is being forgotten
+    private static void release(byte[] step) {
+        if (step[0] != BULK) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(step, 1, step.length - 1));
+            readSide(in).delete();
+            readSide(in).delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void replay(byte[] step, Replay replay, boolean undo) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(step, 1, step.length - 1));
+        try {
+            switch (step[0]) {
+                case ADDED, DELETED -> {
+                    Task task = readRow(in);
+                    if ((step[0] == ADDED) == undo) {
+                        replay.delete(task.getId());
+                    } else {
+                        replay.insert(task);
+                    }
+                }
+                case UPDATED -> replay.update(patch(in, replay, undo));
+                case BULK -> {
+                    Side removed = readSide(in);
+                    Side added = readSide(in);
+                    Side remove = undo ? added : removed;
+                    Side restore = undo ? removed : added;
+                    long[] removeIds = new long[(int) remove.rows];
+                    try (Rows rows = remove.open()) {
+                        for (int i = 0; i < removeIds.length; i++) {
+                            removeIds[i] = rows.next().getId();
+                        }
+                    }
+                    try (Rows rows = restore.open()) {
+                        replay.replace(removeIds, rows);
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown undo step kind " + step[0]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read undo step", e);
+        }
+    }
+
+    // The stored task with the step's old (undo) or new (redo) field values applied
+    private static Task patch(DataInput in, Replay replay, boolean undo) throws IOException {
+        long taskId = in.readLong();
+        int mask = in.readByte();
+        Task task = replay.get(taskId);
+        if (task == null) {
+            throw new IllegalStateException("Task " + taskId + " no longer exists");
+        }
+        if ((mask & TITLE) != 0) {
+            task.setTitle(pick(readString(in), readString(in), undo));
+        }
+        if ((mask & DESCRIPTION) != 0) {
+            task.setDescription(pick(readString(in), readString(in), undo));
+        }
+        if ((mask & CATEGORY) != 0) {
+            task.setCategory(pick(readString(in), readString(in), undo));
+        }
+        if ((mask & PRIORITY) != 0) {
+            task.setPriority(pick(in.readInt(), in.readInt(), undo));
+        }
+        if ((mask & DUE_DATE) != 0) {
+            task.setDueDate(DatabaseService.fromEpochMillis(pick(in.readLong(), in.readLong(), undo)));
+        }
+        if ((mask & COMPLETED) != 0) {
+            task.setCompleted(pick(in.readBoolean(), in.readBoolean(), undo));
+        }
+        return task;
+    }
+
+    private static <T> T pick(T before, T after, boolean undo) {
+        return undo ? before : after;
+    }
+
+    private static void writeRow(DataOutput out, Task task) throws IOException {
+        out.writeLong(task.getId());
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        writeString(out, task.getCategory());
+        out.writeInt(task.getPriority());
+        out.writeLong(DatabaseService.toEpochMillis(task.getDueDate()));
+        out.writeBoolean(task.isCompleted());
+    }
+
+    private static Task readRow(DataInput in) throws IOException {
+        Task task = new Task();
+        task.setId(in.readLong());
+        task.setTitle(readString(in));
+        task.setDescription(readString(in));
+        task.setCategory(readString(in));
+        task.setPriority(in.readInt());
+        task.setDueDate(DatabaseService.fromEpochMillis(in.readLong()));
+        task.setCompleted(in.readBoolean());
+        return task;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static Side readSide(DataInput in) throws IOException {
+        long rows = in.readLong();
+        if (in.readByte() == SPILLED) {
+            return new Side(rows, null, Path.of(in.readUTF()));
+        }
+        byte[] inline = new byte[in.readInt()];
+        in.readFully(inline);
+        return new Side(rows, inline, null);
+    }
+
+    /**
+     * One side of a decoded bulk step: its rows inline or in a temporary file.
+     */
+    private record Side(long rows, byte[] inline, Path file) {
+        Rows open() throws IOException {
+            // A plain FileInputStream for the same reason as PendingSide: interrupts leave it open
+            InputStream stream = file == null
+                ? new ByteArrayInputStream(inline)
+                : new BufferedInputStream(new FileInputStream(file.toFile()), 64 * 1024);
+            return new Rows(new DataInputStream(stream), rows);
+        }
+
+        void delete() throws IOException {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Streams the rows of one side of a bulk step.
+     */
+    private static final class Rows implements Iterator<Task>, Closeable {
+        private final DataInputStream in;
+        private long remaining;
+
+        Rows(DataInputStream in, long rows) {
+            this.in = in;
+            this.remaining = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Task next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return readRow(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read undo step", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * A bulk step being recorded: the rows a change removes and the rows it adds.
+     */
+    final class Bulk implements Closeable {
+        private final PendingSide removed = new PendingSide();
+        private final PendingSide added = new PendingSide();
+        private boolean recorded;
+
+        void removed(Task task) {
+            removed.write(task);
+        }
+
+        void added(Task task) {
+            added.write(task);
+        }
+
+        /**
+         * Deletes the temporary files unless the step was recorded.
+         */
+        @Override
+        public void close() {
+            if (!recorded) {
+                removed.discard();
+                added.discard();
+            }
+        }
+    }
+
+    // Rows of one side, kept in memory up to spillBytes and in a temporary file beyond
+    private final class PendingSide {
+        private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private DataOutputStream out = new DataOutputStream(memory);
+        private Path file;
+        private long rows;
+
+        void write(Task task) {
+            try {
+                writeRow(out, task);
+                rows++;
+                if (file == null && memory.size() > spillBytes) {
+                    file = Files.createTempFile("task-undo-", ".bin");
+                    // Not Files.newOutputStream: its channel is closed by an interrupt, and
+                    // cancelling an import interrupts the thread feeding this. The import has to
+                    // reach its own interrupt check and roll back, not fail on a closed spill file
+                    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 64 * 1024));
+                    memory.writeTo(out);
+                    memory.reset();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to record bulk change", e);
+            }
+        }
+
+        void finish(DataOutputStream step) throws IOException {
+            out.close();
+            step.writeLong(rows);
+            if (file == null) {
+                step.writeByte(INLINE);
+                step.writeInt(memory.size());
+                memory.writeTo(step);
+            } else {
+                step.writeByte(SPILLED);
+                step.writeUTF(file.toString());
+            }
+        }
+
+        void discard() {
+            try {
+                out.close();
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                // Only a leftover temporary file
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.taskmanager.service;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.taskmanager.model.Task;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a JSON array of tasks, as written by the export, one task at a time.
+ *
+ * Only the task being decoded is held in memory, so the file size is not limited by the heap.
+ * GZIP-compressed input is recognised by its header and decompressed on the fly.
+ * {@link #getBytesRead()} reports how far into the underlying (compressed) stream the reader has
+ * got, for progress display.
+ */
+public class TaskJsonReader implements TaskReader {
+    private final CountingInputStream input;
+    private final JsonReader reader;
+    private final Gson gson;
+    private boolean started;
+
+    /**
+     * @param gson decodes each task; must be configured with the same adapters as the export
+     */
+    public TaskJsonReader(InputStream input, Gson gson) throws IOException {
+        this.input = new CountingInputStream(input);
+        this.reader = new JsonReader(new BufferedReader(new InputStreamReader(decompressIfGzipped(this.input), StandardCharsets.UTF_8)));
+        this.gson = gson;
+    }
+
+    private static InputStream decompressIfGzipped(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 64 * 1024);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(buffered, 64 * 1024) : buffered;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            if (!started) {
+                reader.beginArray();
+                started = true;
+            }
+            return reader.hasNext();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read tasks", e);
+        }
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return gson.fromJson(reader, Task.class);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return input.getCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
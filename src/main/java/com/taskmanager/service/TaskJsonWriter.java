@@ -0,0 +1,61 @@
+package com.taskmanager.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+import com.taskmanager.model.Task;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes tasks as a JSON array, one task at a time, in the format {@link TaskJsonReader} reads.
+ *
+ * Nothing but the current task is buffered beyond the writer's fixed-size buffers, so an export
+ * can stream straight from a database cursor. The array is closed by {@link #close()}.
+ */
+public class TaskJsonWriter implements TaskWriter {
+    private final JsonWriter writer;
+    private final Gson gson;
+    private long count;
+
+    /**
+     * @param gson encodes each task and decides the formatting, e.g. pretty printing
+     * @param gzip whether to GZIP-compress the output
+     */
+    public TaskJsonWriter(OutputStream output, Gson gson, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(output, 64 * 1024) : output;
+        this.writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024));
+        this.gson = gson;
+        writer.beginArray();
+    }
+
+    @Override
+    public void write(Task task) {
+        try {
+            gson.toJson(task, Task.class, writer);
+            count++;
+        } catch (JsonIOException e) {
+            throw new UncheckedIOException("Failed to write task " + task.getId(),
+                e.getCause() instanceof IOException io ? io : new IOException(e));
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.endArray();
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -1,56 +1,452 @@
 package com.taskmanager.service;
 
+import com.taskmanager.model.CategoryCounts;
+import com.taskmanager.model.DailyCounts;
+import com.taskmanager.model.PriorityCounts;
 import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskStatistics;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
-public class TaskManager {
+/**
+ * Entry point for task reads and writes.
+ *
+ * By default every read goes to SQLite. With {@code -Dtaskmanager.repository=memory} all tasks
+ * are loaded once at startup into an {@link InMemoryTaskRepository}; writes still go to the
+ * database first and are then applied in memory, and task reads are served from memory.
+ * Statistics keep coming from the database's counter table either way.
+ *
+ * Adding, updating and deleting tasks and imports are recorded in a {@link TaskJournal} and can
+ * be undone and redone, an import as a single step. {@code -Dtaskmanager.undo.levels} (default
+ * 100) bounds the number of steps kept, 0 turns undo off; {@code -Dtaskmanager.undo.bufferKb}
+ * (default 256) bounds their memory, and the rows of bulk steps beyond
+ * {@code -Dtaskmanager.undo.spillKb} (default 64) go to temporary files instead.
+ */
+public final class TaskManager {
+    // Rows per executeBatch round trip during imports; -Dtaskmanager.import.batchSize overrides it
+    private static final int IMPORT_BATCH_SIZE = Integer.getInteger("taskmanager.import.batchSize", 1000);
+    private static final boolean IN_MEMORY = "memory".equalsIgnoreCase(System.getProperty("taskmanager.repository"));
+    private static final int UNDO_LEVELS = Integer.getInteger("taskmanager.undo.levels", 100);
+    private static final int UNDO_BUFFER_KB = Integer.getInteger("taskmanager.undo.bufferKb", 256);
+    private static final int UNDO_SPILL_KB = Integer.getInteger("taskmanager.undo.spillKb", 64);
+
     private final DatabaseService dbService;
+    private final MonthTaskCache monthCache;
+    // Null unless running in in-memory mode
+    private final InMemoryTaskRepository repository;
+    private final List<TaskChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // Events fired so far; only bumped under writeOrder
+    private final AtomicLong changeCount = new AtomicLong();
+    // Null when undo is turned off
+    private final TaskJournal journal;
+    // Held from each write until it is journaled, so the journal sees writes in database order
+    private final Object writeOrder = new Object();
+    // Runs off the commit thread that reports the failure, since recovering reads the database
+    private final Consumer<RuntimeException> lostWriteListener =
+        error -> IoExecutor.shared().database().execute(this::writesLost);
+    private final TaskJournal.Replay replay = new TaskJournal.Replay() {
+        @Override
+        public Task get(long taskId) {
+            return getTask(taskId);
+        }
+
+        @Override
+        public void insert(Task task) {
+            dbService.restoreTask(task);
+            storeAdded(task);
+        }
+
+        @Override
+        public void update(Task task) {
+            storeUpdate(task);
+        }
+
+        @Override
+        public void delete(long taskId) {
+            storeDelete(taskId);
+        }
+
+        @Override
+        public void replace(long[] removeIds, Iterator<Task> restore) {
+            dbService.replaceTasks(removeIds, restore);
+            reloaded();
+        }
+    };
 
     public TaskManager() {
-        this.dbService = DatabaseService.getInstance();
+        this(DatabaseService.getInstance(), IN_MEMORY);
+    }
+
+    // Package-private for tests, which run against their own database
+    TaskManager(DatabaseService dbService, boolean inMemory) {
+        this(dbService, inMemory, UNDO_LEVELS > 0 ? new TaskJournal(UNDO_LEVELS, UNDO_BUFFER_KB * 1024, UNDO_SPILL_KB * 1024) : null);
+    }
+
+    // For tests that size the undo history themselves; a null journal turns undo off
+    TaskManager(DatabaseService dbService, boolean inMemory, TaskJournal journal) {
+        this.dbService = dbService;
+        this.monthCache = new MonthTaskCache(month -> getTasksByDay(month.atDay(1), month.atEndOfMonth()));
+        this.repository = inMemory ? new InMemoryTaskRepository(dbService.getAllTasks()) : null;
+        this.journal = journal;
+        dbService.addLostWriteListener(lostWriteListener);
     }
 
     public void addTask(Task task) {
-        dbService.addTask(task);
+        synchronized (writeOrder) {
+            dbService.addTask(task);
+            storeAdded(task);
+            if (journal != null) {
+                journal.recordAdded(task);
+            }
+        }
+    }
+
+    private void storeAdded(Task task) {
+        if (repository != null) {
+            repository.put(task);
+        }
+        monthCache.invalidate(YearMonth.from(task.getDueDate()));
+        fireTaskChanged(new TaskChangeEvent(TaskChangeEvent.Type.ADDED, task.getId(), task));
+    }
+
+    /**
+     * Stores many tasks at once in a single transaction; see {@link DatabaseService#importTasks}.
+     * With {@code replace} the existing tasks are deleted first. Listeners get one
+     * {@code RELOADED} event instead of one event per task.
+     *
+     * @return the number of tasks imported
+     */
+    public int importTasks(List<Task> tasks, boolean replace) {
+        return (int) importTasks(tasks.iterator(), replace, imported -> { });
+    }
+
+    /**
+     * Streaming variant of {@link #importTasks(List, boolean)}: tasks are consumed as they are
+     * inserted and {@code progress} is told the running count after every batch. Interrupting
+     * the calling thread cancels the import and rolls it back.
+     */
+    public long importTasks(Iterator<Task> tasks, boolean replace, LongConsumer progress) {
+        synchronized (writeOrder) {
+            if (journal == null) {
+                long imported = dbService.importTasks(tasks, replace, IMPORT_BATCH_SIZE, progress);
+                reloaded();
+                return imported;
+            }
+            // The rows replaced and inserted are recorded as the import streams, so it stays one
+            // pass and one undo step however large it is
+            try (TaskJournal.Bulk bulk = journal.beginBulk()) {
+                long imported = dbService.importTasks(tasks, replace, IMPORT_BATCH_SIZE, progress, bulk::removed, bulk::added);
+                reloaded();
+                journal.record(bulk);
+                return imported;
+            }
+        }
+    }
+
+    private void reloaded() {
+        if (repository != null) {
+            // The streamed tasks are gone by now, so reload rather than replay them
+            repository.replaceAll(dbService.getAllTasks());
+        }
+        monthCache.clear();
+        fireTaskChanged(new TaskChangeEvent(TaskChangeEvent.Type.RELOADED, -1, null));
+    }
+
+    /**
+     * An async commit failed after its changes had already reached memory, the month cache, the
+     * listeners and the journal. Re-reads everything, like after an import, and forgets the undo
+     * history, whose steps may describe changes the table never saw.
+     */
+    private void writesLost() {
+        synchronized (writeOrder) {
+            if (journal != null) {
+                journal.close();
+            }
+            reloaded();
+        }
     }
 
     public void updateTask(Task task) {
+        synchronized (writeOrder) {
+            // Read from memory or the write queue before the table, so this never forces a commit
+            Task before = journal != null ? getTask(task.getId()) : null;
+            storeUpdate(task);
+            if (before != null) {
+                journal.recordUpdated(before, task);
+            }
+        }
+    }
+
+    private void storeUpdate(Task task) {
         dbService.updateTask(task);
+        if (repository != null) {
+            repository.put(task);
+        }
+        // The old due date may sit in another cached month, so drop every month listing the task
+        monthCache.invalidateTask(task.getId());
+        monthCache.invalidate(YearMonth.from(task.getDueDate()));
+        fireTaskChanged(new TaskChangeEvent(TaskChangeEvent.Type.UPDATED, task.getId(), task));
     }
 
     public void deleteTask(long taskId) {
+        synchronized (writeOrder) {
+            Task before = journal != null ? getTask(taskId) : null;
+            storeDelete(taskId);
+            if (before != null) {
+                journal.recordDeleted(before);
+            }
+        }
+    }
+
+    private void storeDelete(long taskId) {
         dbService.deleteTask(taskId);
+        if (repository != null) {
+            repository.remove(taskId);
+        }
+        monthCache.invalidateTask(taskId);
+        fireTaskChanged(new TaskChangeEvent(TaskChangeEvent.Type.DELETED, taskId, null));
+    }
+
+    /**
+     * Reverts the most recent change that has not been undone yet: brings back a deleted task
+     * under its old id, restores the fields an edit changed, or rolls back a whole import.
+     * Listeners get the same events as for the equivalent write.
+     *
+     * @return false if there was nothing to undo
+     */
+    public boolean undo() {
+        synchronized (writeOrder) {
+            return journal != null && journal.undo(replay);
+        }
+    }
+
+    /**
+     * Re-applies the most recently undone change. Any new change clears what can be redone.
+     *
+     * @return false if there was nothing to redo
+     */
+    public boolean redo() {
+        synchronized (writeOrder) {
+            return journal != null && journal.redo(replay);
+        }
+    }
+
+    /**
+     * Whether {@link #undo()} has anything to revert; cheap enough for the UI thread.
+     */
+    public boolean canUndo() {
+        return journal != null && journal.canUndo();
+    }
+
+    public boolean canRedo() {
+        return journal != null && journal.canRedo();
+    }
+
+    /**
+     * Position of the newest logged change; see {@link DatabaseService#getLatestChangeSeq()}.
+     */
+    public long getLatestChangeSeq() {
+        if (repository == null) {
+            return dbService.getLatestChangeSeq();
+        }
+        // A change is logged before it reaches memory; wait until it has, so that reading
+        // tasks after this never misses a change the returned position claims to cover
+        synchronized (writeOrder) {
+            return dbService.getLatestChangeSeq();
+        }
+    }
+
+    /**
+     * Changes committed after {@code seq}, for views that were not listening (e.g. while hidden)
+     * to catch up without reloading everything; see {@link DatabaseService#changesSince(long)}.
+     */
+    public TaskChanges changesSince(long seq) {
+        if (repository == null) {
+            return dbService.changesSince(seq);
+        }
+        synchronized (writeOrder) {
+            return dbService.changesSince(seq);
+        }
+    }
+
+    public void addChangeListener(TaskChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(TaskChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Number of change events fired so far. A listener that defers work triggered by an event can
+     * compare it with the value seen during the event to tell whether other changes came since.
+     */
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    private void fireTaskChanged(TaskChangeEvent event) {
+        changeCount.incrementAndGet();
+        for (TaskChangeListener listener : changeListeners) {
+            listener.onTaskChanged(event);
+        }
+    }
+
+    /**
+     * The task with {@code taskId}, or null if there is none.
+     */
+    public Task getTask(long taskId) {
+        return repository != null ? repository.get(taskId) : dbService.getTaskById(taskId);
     }
 
     public List<Task> getAllTasks() {
-        return dbService.getAllTasks();
+        return repository != null ? repository.getAll() : dbService.getAllTasks();
+    }
+
+    /**
+     * Streams every task, ordered by due date, to {@code action} without loading them all;
+     * interrupting the calling thread stops the scan. Used by exports; see
+     * {@link DatabaseService#forEachTask} for how it behaves alongside edits.
+     *
+     * @return the number of tasks visited
+     */
+    public long forEachTask(Consumer<Task> action) {
+        return dbService.forEachTask(action);
     }
 
     public List<Task> getTasksByDateRange(LocalDateTime start, LocalDateTime end) {
-        return dbService.getTasksByDateRange(start, end);
+        return repository != null ? repository.getByDueDateRange(start, end) : dbService.getTasksByDateRange(start, end);
+    }
+
+    /**
+     * Loads every task due between {@code firstDay} and {@code lastDay} (inclusive) with a single
+     * range query and buckets them by due date, so a calendar view can render a whole month
+     * without issuing one query per day. Days without tasks have no entry in the map.
+     */
+    public Map<LocalDate, List<Task>> getTasksByDay(LocalDate firstDay, LocalDate lastDay) {
+        Map<LocalDate, List<Task>> tasksByDay = new HashMap<>();
+        List<Task> tasks = getTasksByDateRange(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+        for (Task task : tasks) {
+            LocalDate day = task.getDueDate().toLocalDate();
+            // BETWEEN is inclusive, so a task due exactly at midnight after lastDay comes back too
+            if (day.isAfter(lastDay)) continue;
+            tasksByDay.computeIfAbsent(day, d -> new ArrayList<>()).add(task);
+        }
+        return tasksByDay;
+    }
+
+    /**
+     * Returns the month's tasks bucketed by day, served from the month cache when possible.
+     */
+    public Map<LocalDate, List<Task>> getTasksByMonth(YearMonth month) {
+        return monthCache.get(month);
+    }
+
+    /**
+     * Warms the month cache with the months either side of {@code month} in the background.
+     */
+    public void prefetchAdjacentMonths(YearMonth month) {
+        monthCache.prefetch(month.minusMonths(1));
+        monthCache.prefetch(month.plusMonths(1));
     }
 
     public List<Task> getTasksByCategory(String category) {
-        return dbService.getTasksByCategory(category);
+        return repository != null ? repository.getByCategory(category) : dbService.getTasksByCategory(category);
     }
 
     public List<Task> getTasksByPriority(int priority) {
-        return dbService.getTasksByPriority(priority);
+        return repository != null ? repository.getByPriority(priority) : dbService.getTasksByPriority(priority);
     }
 
     public List<Task> getCompletedTasks() {
-        return dbService.getCompletedTasks();
+        return repository != null ? repository.getByCompleted(true) : dbService.getCompletedTasks();
+    }
+
+    public List<Task> getPendingTasks() {
+        return repository != null ? repository.getByCompleted(false) : dbService.getPendingTasks();
+    }
+
+    /**
+     * Tasks not yet completed whose due date is before {@code now}.
+     */
+    public List<Task> getOverdueTasks(LocalDateTime now) {
+        return repository != null ? repository.getOverdue(now) : dbService.getOverdueTasks(now);
+    }
+
+    /**
+     * Runs a combined filter: one parameterized statement against the database, or an index
+     * lookup plus residual checks in memory mode. See {@link TaskQuery} for the semantics.
+     */
+    public List<Task> query(TaskQuery query) {
+        return repository != null ? repository.query(query) : dbService.queryTasks(query);
+    }
+
+    /**
+     * Number of tasks matching {@code query}'s filters; its sort and window are ignored.
+     */
+    public int count(TaskQuery query) {
+        return repository != null ? repository.count(query) : dbService.countTasks(query);
+    }
+
+    /**
+     * The distinct categories of all tasks, sorted.
+     */
+    public List<String> getCategories() {
+        return repository != null ? repository.getCategories() : dbService.getCategories();
+    }
+
+    public TaskStatistics getTaskStatistics() {
+        return dbService.getTaskStatistics(LocalDateTime.now());
+    }
+
+    public CategoryCounts getCategoryCounts() {
+        return dbService.getCategoryCounts();
+    }
+
+    public PriorityCounts getPriorityCounts() {
+        return dbService.getPriorityCounts();
+    }
+
+    public DailyCounts getCompletedTasksPerDay(LocalDate firstDay, LocalDate lastDay) {
+        return dbService.getCompletedTasksPerDay(firstDay, lastDay);
+    }
+
+    public void rebuildStatistics() {
+        dbService.rebuildTaskStats();
+    }
+
+    public boolean verifyStatistics() {
+        return dbService.verifyTaskStats();
     }
 
     public List<Task> getTasksByPriority() {
+        if (repository != null) {
+            return repository.getAllByPriority();
+        }
         return getAllTasks().stream()
             .sorted((t1, t2) -> Integer.compare(t1.getPriority(), t2.getPriority()))
             .collect(Collectors.toList());
         }
 
     public void close() {
+        dbService.removeLostWriteListener(lostWriteListener);
+        monthCache.shutdown();
+        if (journal != null) {
+            synchronized (writeOrder) {
+                journal.close();
+            }
+        }
         dbService.close();
     }
 } 
\ No newline at end of file
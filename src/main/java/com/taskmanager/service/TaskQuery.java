@@ -0,0 +1,289 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A combination of task filters, a sort order and a result window, run by
+ * {@link TaskManager#query(TaskQuery)}.
+ *
+ * Queries are immutable: start from {@link #all()} and narrow it with the {@code with...}
+ * methods, each of which returns a new query. Unset filters match every task. Results are ordered
+ * by the sort keys in turn, then by due date and id, which is also the order when no key is given.
+ *
+ * The database compiles a query into one parameterized statement; the in-memory repository
+ * answers it from its indexes. {@link #matches(Task)} and {@link #comparator()} define the
+ * semantics both must agree on.
+ */
+public final class TaskQuery {
+    public enum SortKey { DUE_DATE, PRIORITY, TITLE, CATEGORY }
+
+    /**
+     * One sort key and its direction.
+     */
+    public static final class Sort {
+        private final SortKey key;
+        private final boolean descending;
+
+        private Sort(SortKey key, boolean descending) {
+            this.key = key;
+            this.descending = descending;
+        }
+
+        public static Sort ascending(SortKey key) { return new Sort(key, false); }
+        public static Sort descending(SortKey key) { return new Sort(key, true); }
+
+        public SortKey getKey() { return key; }
+        public boolean isDescending() { return descending; }
+    }
+
+    private static final TaskQuery ALL = new TaskQuery();
+
+    private Boolean completed;
+    private Integer minPriority;
+    private Integer maxPriority;
+    private Set<String> categories;
+    private LocalDateTime dueFrom;
+    private LocalDateTime dueBefore;
+    // Keyset cursor: only tasks strictly after (afterDueDate, afterId) in due-date order
+    private LocalDateTime afterDueDate;
+    private long afterId;
+    private String text;
+    private List<Sort> sorts = Collections.emptyList();
+    private int offset;
+    private int limit = -1;
+
+    private TaskQuery() {
+    }
+
+    private TaskQuery(TaskQuery other) {
+        this.completed = other.completed;
+        this.minPriority = other.minPriority;
+        this.maxPriority = other.maxPriority;
+        this.categories = other.categories;
+        this.dueFrom = other.dueFrom;
+        this.dueBefore = other.dueBefore;
+        this.afterDueDate = other.afterDueDate;
+        this.afterId = other.afterId;
+        this.text = other.text;
+        this.sorts = other.sorts;
+        this.offset = other.offset;
+        this.limit = other.limit;
+    }
+
+    /**
+     * The query matching every task, ordered by due date.
+     */
+    public static TaskQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Only completed tasks for {@code true}, only pending ones for {@code false}, or either for null.
+     */
+    public TaskQuery withCompleted(Boolean completed) {
+        TaskQuery query = new TaskQuery(this);
+        query.completed = completed;
+        return query;
+    }
+
+    /**
+     * Priorities from {@code min} to {@code max}, both inclusive; null leaves that end open.
+     */
+    public TaskQuery withPriorityBetween(Integer min, Integer max) {
+        TaskQuery query = new TaskQuery(this);
+        query.minPriority = min;
+        query.maxPriority = max;
+        return query;
+    }
+
+    /**
+     * Tasks in any of {@code categories}; null matches every category and an empty set none.
+     */
+    public TaskQuery withCategories(Collection<String> categories) {
+        TaskQuery query = new TaskQuery(this);
+        query.categories = categories == null ? null : Collections.unmodifiableSet(new TreeSet<>(categories));
+        return query;
+    }
+
+    /**
+     * Due dates from {@code from} inclusive up to {@code before} exclusive; null leaves that end open.
+     */
+    public TaskQuery withDueBetween(LocalDateTime from, LocalDateTime before) {
+        TaskQuery query = new TaskQuery(this);
+        query.dueFrom = from;
+        query.dueBefore = before;
+        return query;
+    }
+
+    /**
+     * Keyset pagination: only tasks that come after {@code task} in due-date order, i.e. due later,
+     * or due at the same time with a larger id. Pass the last task of the previous page, together
+     * with a limit, to fetch the next page without the cost of skipping an offset. Null clears it.
+     */
+    public TaskQuery withAfter(Task task) {
+        TaskQuery query = new TaskQuery(this);
+        // At the precision the database stores, so both back ends compare the same cursor
+        query.afterDueDate = task == null ? null : task.getDueDate().truncatedTo(ChronoUnit.MILLIS);
+        query.afterId = task == null ? 0 : task.getId();
+        return query;
+    }
+
+    /**
+     * Tasks whose title or description contains {@code text}, ignoring ASCII case (SQLite's
+     * {@code lower()} only folds ASCII, and memory mode matches it). Null or blank matches all.
+     */
+    public TaskQuery withText(String text) {
+        TaskQuery query = new TaskQuery(this);
+        query.text = text == null || text.isBlank() ? null : foldCase(text);
+        return query;
+    }
+
+    public TaskQuery withSort(Sort... sorts) {
+        TaskQuery query = new TaskQuery(this);
+        query.sorts = List.of(sorts);
+        return query;
+    }
+
+    /**
+     * Skips the first {@code offset} matches and returns at most {@code limit}; a negative limit
+     * means no limit.
+     */
+    public TaskQuery withWindow(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + offset);
+        }
+        TaskQuery query = new TaskQuery(this);
+        query.offset = offset;
+        query.limit = limit;
+        return query;
+    }
+
+    public Boolean getCompleted() { return completed; }
+    public Integer getMinPriority() { return minPriority; }
+    public Integer getMaxPriority() { return maxPriority; }
+    public Set<String> getCategories() { return categories; }
+    public LocalDateTime getDueFrom() { return dueFrom; }
+    public LocalDateTime getDueBefore() { return dueBefore; }
+    /**
+     * Due date of the keyset cursor set by {@link #withAfter(Task)}, or null without one.
+     */
+    public LocalDateTime getAfterDueDate() { return afterDueDate; }
+    public long getAfterId() { return afterId; }
+    /**
+     * The search text, already case-folded.
+     */
+    public String getText() { return text; }
+    public List<Sort> getSorts() { return sorts; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+
+    /**
+     * Whether results come back in plain due-date order, so a scan in that order can stop early.
+     */
+    boolean isDueDateOrder() {
+        return sorts.isEmpty() || (sorts.size() == 1 && sorts.get(0).key == SortKey.DUE_DATE && !sorts.get(0).descending);
+    }
+
+    /**
+     * Whether any filter is set; without one every task matches.
+     */
+    boolean hasFilters() {
+        return completed != null || minPriority != null || maxPriority != null || categories != null
+            || dueFrom != null || dueBefore != null || afterDueDate != null || text != null;
+    }
+
+    /**
+     * Whether {@code task} passes every filter of this query.
+     */
+    public boolean matches(Task task) {
+        if (completed != null && task.isCompleted() != completed) return false;
+        if (minPriority != null && task.getPriority() < minPriority) return false;
+        if (maxPriority != null && task.getPriority() > maxPriority) return false;
+        if (categories != null && !categories.contains(task.getCategory())) return false;
+        if (dueFrom != null && task.getDueDate().isBefore(dueFrom)) return false;
+        if (dueBefore != null && !task.getDueDate().isBefore(dueBefore)) return false;
+        if (afterDueDate != null) {
+            int byDueDate = task.getDueDate().compareTo(afterDueDate);
+            if (byDueDate < 0 || (byDueDate == 0 && task.getId() <= afterId)) return false;
+        }
+        if (text != null) {
+            return contains(task.getTitle(), text) || contains(task.getDescription(), text);
+        }
+        return true;
+    }
+
+    /**
+     * The result order: the sort keys in turn, then due date and id.
+     */
+    public Comparator<Task> comparator() {
+        List<Comparator<Task>> parts = new ArrayList<>();
+        for (Sort sort : sorts) {
+            Comparator<Task> part = switch (sort.key) {
+                case DUE_DATE -> Comparator.comparing(Task::getDueDate);
+                case PRIORITY -> Comparator.comparingInt(Task::getPriority);
+                case TITLE -> Comparator.comparing(Task::getTitle);
+                case CATEGORY -> Comparator.comparing(Task::getCategory);
+            };
+            parts.add(sort.descending ? part.reversed() : part);
+        }
+        Comparator<Task> result = Comparator.comparing(Task::getDueDate);
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            result = parts.get(i).thenComparing(result);
+        }
+        return result.thenComparingLong(Task::getId);
+    }
+
+    // Substring search folding ASCII case on the fly, so no lower-cased copy is allocated per task
+    private static boolean contains(String value, String foldedText) {
+        if (value == null) {
+            return false;
+        }
+        int last = value.length() - foldedText.length();
+        for (int start = 0; start <= last; start++) {
+            int i = 0;
+            while (i < foldedText.length() && foldChar(value.charAt(start + i)) == foldedText.charAt(i)) {
+                i++;
+            }
+            if (i == foldedText.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char foldChar(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    // Lower-cases ASCII letters only, like SQLite's built-in lower()
+    static String foldCase(String value) {
+        char[] chars = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (foldChar(c) != c) {
+                if (chars == null) {
+                    chars = value.toCharArray();
+                }
+                chars[i] = foldChar(c);
+            }
+        }
+        return chars == null ? value : new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskQuery[completed=" + completed + ", priority=" + minPriority + ".." + maxPriority
+            + ", categories=" + categories + ", due=" + dueFrom + ".." + dueBefore
+            + (afterDueDate != null ? ", after=" + afterDueDate + "#" + afterId : "") + ", text=" + text
+            + ", sorts=" + sorts.size() + ", offset=" + offset + ", limit=" + limit + "]";
+    }
+}
@@ -0,0 +1,16 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Streams tasks out of an import file one at a time.
+ */
+public interface TaskReader extends Iterator<Task>, Closeable {
+
+    /**
+     * Bytes consumed from the underlying stream so far, for progress against the file size.
+     */
+    long getBytesRead();
+}
@@ -0,0 +1,232 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Reads a binary snapshot written by {@link TaskSnapshotWriter}, one task at a time.
+ *
+ * The checksum and task count in the end record are verified when the iteration reaches it, so
+ * a truncated or corrupted file fails the import (which then rolls back) rather than importing
+ * part of the data silently.
+ */
+public class TaskSnapshotReader implements TaskReader {
+    // Guards against allocating absurd buffers for a corrupted length prefix
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final CountingInputStream counter;
+    private final CheckedInputStream input;
+    private final List<String> dictionary = new ArrayList<>();
+    private byte[] payload = new byte[256];
+    private int position;
+    private int limit;
+    private long previousDueMillis;
+    private long count;
+    private Task next;
+    private boolean ended;
+
+    public TaskSnapshotReader(InputStream input) throws IOException {
+        this.counter = new CountingInputStream(input);
+        this.input = new CheckedInputStream(new BufferedInputStream(counter, 64 * 1024), new CRC32());
+
+        byte[] magic = new byte[TaskSnapshotWriter.MAGIC.length];
+        readFully(magic, magic.length);
+        if (!Arrays.equals(magic, TaskSnapshotWriter.MAGIC)) {
+            throw new IOException("Not a task snapshot file");
+        }
+        long version = readVarLong(this.input);
+        if (version > TaskSnapshotWriter.VERSION) {
+            throw new IOException("Snapshot version " + version + " is newer than the supported version " + TaskSnapshotWriter.VERSION);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (ended) {
+            return false;
+        }
+        try {
+            next = readUntilTask();
+            return next != null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot", e);
+        }
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Task task = next;
+        next = null;
+        return task;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return counter.getCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    // Consumes dictionary and unknown records up to the next task; null once the end record checks out
+    private Task readUntilTask() throws IOException {
+        while (true) {
+            long crc = input.getChecksum().getValue();
+            int type = input.read();
+            if (type < 0) {
+                throw new EOFException("Snapshot is truncated: no end record after " + count + " tasks");
+            }
+            long length = readVarLong(input);
+            if (length > MAX_RECORD_BYTES) {
+                throw new IOException("Snapshot record of " + length + " bytes is too large");
+            }
+            readPayload((int) length);
+
+            switch (type) {
+                case TaskSnapshotWriter.RECORD_STRING -> dictionary.add(new String(payload, 0, limit, StandardCharsets.UTF_8));
+                case TaskSnapshotWriter.RECORD_TASK -> {
+                    count++;
+                    return decodeTask();
+                }
+                case TaskSnapshotWriter.RECORD_END -> {
+                    long expectedCount = readVarLong();
+                    long expectedCrc = readInt() & 0xFFFFFFFFL;
+                    if (expectedCrc != crc) {
+                        throw new IOException("Snapshot checksum mismatch");
+                    }
+                    if (expectedCount != count) {
+                        throw new IOException("Snapshot lists " + expectedCount + " tasks but contains " + count);
+                    }
+                    ended = true;
+                    return null;
+                }
+                default -> {
+                    // Record type from a newer writer; its length prefix lets us skip it
+                }
+            }
+        }
+    }
+
+    private Task decodeTask() throws IOException {
+        int flags = readByte();
+        Task task = new Task();
+        if ((flags & TaskSnapshotWriter.FLAG_NO_TITLE) == 0) {
+            task.setTitle(readString());
+        }
+        if ((flags & TaskSnapshotWriter.FLAG_DESCRIPTION) != 0) {
+            task.setDescription(readString());
+        }
+        if ((flags & TaskSnapshotWriter.FLAG_NO_CATEGORY) == 0) {
+            task.setCategory(lookup(readVarLong()));
+        }
+        task.setPriority((int) unZigZag(readVarLong()));
+        long dueMillis = previousDueMillis + unZigZag(readVarLong());
+        previousDueMillis = dueMillis;
+        task.setDueDate(DatabaseService.fromEpochMillis(dueMillis));
+        long tagCount = readVarLong();
+        for (long i = 0; i < tagCount; i++) {
+            task.addTag(lookup(readVarLong()));
+        }
+        task.setCompleted((flags & TaskSnapshotWriter.FLAG_COMPLETED) != 0);
+        task.setReminderEnabled((flags & TaskSnapshotWriter.FLAG_REMINDER) != 0);
+        return task;
+    }
+
+    private String lookup(long index) throws IOException {
+        if (index < 0 || index >= dictionary.size()) {
+            throw new IOException("Snapshot refers to undefined string " + index);
+        }
+        return dictionary.get((int) index);
+    }
+
+    private void readPayload(int length) throws IOException {
+        if (length > payload.length) {
+            payload = new byte[Math.max(length, payload.length * 2)];
+        }
+        readFully(payload, length);
+        position = 0;
+        limit = length;
+    }
+
+    private void readFully(byte[] buffer, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = input.read(buffer, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+            read += n;
+        }
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Snapshot record is shorter than its contents");
+        }
+        return payload[position++] & 0xFF;
+    }
+
+    private int readInt() throws IOException {
+        return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in snapshot");
+    }
+
+    private String readString() throws IOException {
+        long length = readVarLong();
+        if (length > limit - position) {
+            throw new IOException("Snapshot string runs past its record");
+        }
+        String value = new String(payload, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in snapshot");
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,213 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes tasks in the compact binary snapshot format read by {@link TaskSnapshotReader}.
+ *
+ * <pre>
+ * file    := MAGIC "TMSN", varint version, record*, end record
+ * record  := type byte, varint payload length, payload
+ * STRING  := UTF-8 bytes; appends to the string dictionary (categories and tags)
+ * TASK    := flags byte, [title], [description], [varint category index], zigzag priority,
+ *            zigzag due date delta in ms from the previous task, varint tag count, tag indexes
+ * END     := varint task count, CRC32 (4 bytes, big-endian) of every byte before the END record
+ * </pre>
+ *
+ * Strings inside a TASK are a varint byte length followed by UTF-8. The bracketed TASK fields
+ * are present only when the flags say so, which keeps a null title, description or category
+ * apart from an empty one (version 2; version 1 wrote null title and category as ""). Tags
+ * must not be null. Due dates are the
+ * LocalDateTime's epoch milliseconds read as UTC, as in the database. Readers skip record types
+ * they don't know, so later versions can add records without breaking older readers.
+ */
+public class TaskSnapshotWriter implements TaskWriter {
+    static final byte[] MAGIC = {'T', 'M', 'S', 'N'};
+    static final int VERSION = 2;
+
+    static final int RECORD_END = 0;
+    static final int RECORD_TASK = 1;
+    static final int RECORD_STRING = 2;
+
+    static final int FLAG_COMPLETED = 1;
+    static final int FLAG_REMINDER = 1 << 1;
+    static final int FLAG_DESCRIPTION = 1 << 2;
+    static final int FLAG_NO_TITLE = 1 << 3;
+    static final int FLAG_NO_CATEGORY = 1 << 4;
+
+    private final CheckedOutputStream output;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final Buffer payload = new Buffer();
+    private final Buffer header = new Buffer();
+    private long previousDueMillis;
+    private long count;
+
+    public TaskSnapshotWriter(OutputStream output) throws IOException {
+        this.output = new CheckedOutputStream(new BufferedOutputStream(output, 64 * 1024), new CRC32());
+        this.output.write(MAGIC);
+        header.writeVarLong(VERSION);
+        header.writeTo(this.output);
+    }
+
+    @Override
+    public void write(Task task) {
+        try {
+            int category = task.getCategory() == null ? -1 : intern(task.getCategory());
+            int[] tags = task.getTags() == null ? new int[0] : new int[task.getTags().size()];
+            if (tags.length > 0) {
+                int i = 0;
+                for (String tag : task.getTags()) {
+                    if (tag == null) {
+                        throw new IllegalArgumentException("Task " + task.getId() + " has a null tag");
+                    }
+                    tags[i++] = intern(tag);
+                }
+            }
+
+            int flags = (task.isCompleted() ? FLAG_COMPLETED : 0)
+                | (task.isReminderEnabled() ? FLAG_REMINDER : 0)
+                | (task.getDescription() != null ? FLAG_DESCRIPTION : 0)
+                | (task.getTitle() == null ? FLAG_NO_TITLE : 0)
+                | (category < 0 ? FLAG_NO_CATEGORY : 0);
+            long dueMillis = DatabaseService.toEpochMillis(task.getDueDate());
+
+            payload.reset();
+            payload.writeByte(flags);
+            if (task.getTitle() != null) {
+                payload.writeString(task.getTitle());
+            }
+            if (task.getDescription() != null) {
+                payload.writeString(task.getDescription());
+            }
+            if (category >= 0) {
+                payload.writeVarLong(category);
+            }
+            payload.writeVarLong(zigZag(task.getPriority()));
+            // Exports come sorted by due date, so the delta is usually a few bytes
+            payload.writeVarLong(zigZag(dueMillis - previousDueMillis));
+            payload.writeVarLong(tags.length);
+            for (int tag : tags) {
+                payload.writeVarLong(tag);
+            }
+            writeRecord(RECORD_TASK, payload);
+
+            previousDueMillis = dueMillis;
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write task " + task.getId(), e);
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the end record with the task count and checksum, then closes the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long crc = output.getChecksum().getValue();
+            payload.reset();
+            payload.writeVarLong(count);
+            payload.writeInt((int) crc);
+            writeRecord(RECORD_END, payload);
+            output.flush();
+        } finally {
+            output.close();
+        }
+    }
+
+    // Dictionary index of the string, emitting a STRING record the first time it is seen
+    private int intern(String value) throws IOException {
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            return index;
+        }
+        payload.reset();
+        payload.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        writeRecord(RECORD_STRING, payload);
+        dictionary.put(value, dictionary.size());
+        return dictionary.size() - 1;
+    }
+
+    private void writeRecord(int type, Buffer body) throws IOException {
+        header.reset();
+        header.writeByte(type);
+        header.writeVarLong(body.size);
+        header.writeTo(output);
+        body.writeTo(output);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reusable growable byte buffer with varint encoding.
+     */
+    private static final class Buffer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            writeBytes(utf8);
+        }
+
+        void writeBytes(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue for single-task mutations, drained by one commit thread that writes
+ * everything pending in one transaction (a group commit), so a burst of edits costs one journal
+ * sync instead of one per edit.
+ *
+ * Pending mutations are coalesced per task id, last write wins: repeated updates keep only the
+ * newest values, and a delete replaces any pending update. New tasks are never coalesced; they
+ * get their ids from the insert, so adding always waits for its commit.
+ *
+ * In {@link Durability#GROUP} mode every caller waits for the commit that includes its change,
+ * and the commit thread starts as soon as anyone waits, so only changes made concurrently by
+ * different threads share a commit; a single writing thread, like the UI's, gets one commit per
+ * change. In {@link Durability#ASYNC} mode updates and deletes return once queued and are
+ * committed within {@code delayMillis}, so a burst from one thread shares a commit too. When such
+ * a commit fails there is no caller left to throw to, so it is logged and passed to the
+ * {@code lostWrites} callback, whose owner has to undo what it derived from those changes.
+ *
+ * A failed group commit is retried one mutation per transaction, so a bad write (say, a null
+ * title) fails only its own caller, or is the only write lost, instead of taking down every
+ * change that happened to share its commit.
+ */
+final class TaskWriteQueue {
+    /**
+     * When a task mutation is on disk relative to the call that made it.
+     */
+    enum Durability {
+        /** Each mutation is its own transaction, committed on the calling thread. */
+        SYNC,
+        /**
+         * Mutations are committed in groups; each call returns once its group is committed, and
+         * throws only if its own mutation failed.
+         */
+        GROUP,
+        /** Updates and deletes return once queued and are committed in groups shortly after. */
+        ASYNC
+    }
+
+    /**
+     * The mutations taken off the queue for one commit.
+     */
+    record Batch(List<Task> inserts, Collection<Task> updates, Set<Long> deletes) {
+        int size() {
+            return inserts.size() + updates.size() + deletes.size();
+        }
+    }
+
+    /**
+     * A task's state as queued mutations leave it: its newest values, or null if it is deleted.
+     */
+    record Queued(Task task) {
+    }
+
+    private static final System.Logger LOG = System.getLogger(TaskWriteQueue.class.getName());
+
+    private final Durability durability;
+    private final long delayMillis;
+    private final Consumer<Batch> committer;
+    private final Consumer<RuntimeException> lostWrites;
+    private final Thread thread;
+
+    // Guarded by this
+    private List<Task> inserts = new ArrayList<>();
+    private Map<Long, Task> updates = new LinkedHashMap<>();
+    private Set<Long> deletes = new LinkedHashSet<>();
+    // Outcome of each queued insert, by position, and of each task's queued update or delete,
+    // which coalesced calls share
+    private List<CompletableFuture<Void>> insertResults = new ArrayList<>();
+    private Map<Long, CompletableFuture<Void>> results = new HashMap<>();
+    // The updates and deletes of the commit in progress; not modified once taken off the queue
+    private Map<Long, Task> runningUpdates = Map.of();
+    private Set<Long> runningDeletes = Set.of();
+    // Completes when the pending mutations are committed
+    private CompletableFuture<Void> pendingCommit = new CompletableFuture<>();
+    // The commit in progress, if any
+    private CompletableFuture<Void> runningCommit = CompletableFuture.completedFuture(null);
+    private boolean waiting;
+    private boolean closed;
+    private long mutations;
+    private long commits;
+
+    TaskWriteQueue(Durability durability, long delayMillis, Consumer<Batch> committer, Consumer<RuntimeException> lostWrites) {
+        this.durability = durability;
+        this.delayMillis = delayMillis;
+        this.committer = committer;
+        this.lostWrites = lostWrites;
+        this.thread = new Thread(this::run, "task-commit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues an insert and waits until it is committed, when the task's id is set.
+     */
+    void insert(Task task) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        synchronized (this) {
+            checkOpen();
+            inserts.add(task);
+            insertResults.add(result);
+            enqueued(true);
+        }
+        await(result);
+    }
+
+    void update(Task task) {
+        CompletableFuture<Void> result;
+        synchronized (this) {
+            checkOpen();
+            // An update after a delete would not find the row either. Callers may keep editing
+            // their task object; the queue keeps the values as of the call
+            if (!deletes.contains(task.getId())) {
+                updates.put(task.getId(), new Task(task));
+            }
+            result = results.computeIfAbsent(task.getId(), id -> new CompletableFuture<>());
+            enqueued(durability == Durability.GROUP);
+        }
+        if (durability == Durability.GROUP) {
+            await(result);
+        }
+    }
+
+    void delete(long taskId) {
+        CompletableFuture<Void> result;
+        synchronized (this) {
+            checkOpen();
+            updates.remove(taskId);
+            deletes.add(taskId);
+            result = results.computeIfAbsent(taskId, id -> new CompletableFuture<>());
+            enqueued(durability == Durability.GROUP);
+        }
+        if (durability == Durability.GROUP) {
+            await(result);
+        }
+    }
+
+    // Caller holds the lock
+    private void enqueued(boolean wait) {
+        mutations++;
+        waiting |= wait;
+        notifyAll();
+    }
+
+    /**
+     * What the table will hold for {@code taskId} once the queue is drained, if a queued or
+     * committing mutation decides it; null if none does, in which case the table is already
+     * current for that row. Lets a read of one task skip {@link #flush()}.
+     */
+    synchronized Queued queued(long taskId) {
+        if (deletes.contains(taskId) || runningDeletes.contains(taskId)) {
+            return new Queued(null);
+        }
+        Task task = updates.get(taskId);
+        if (task == null) {
+            task = runningUpdates.get(taskId);
+        }
+        return task == null ? null : new Queued(new Task(task));
+    }
+
+    /**
+     * Waits until every mutation queued before this call is committed, so a read that follows
+     * sees them. Commit failures are not rethrown here; they went to the writer or the log.
+     */
+    void flush() {
+        CompletableFuture<Void> running;
+        CompletableFuture<Void> pending = null;
+        synchronized (this) {
+            running = runningCommit;
+            if (!isEmpty()) {
+                pending = pendingCommit;
+                waiting = true;
+                notifyAll();
+            }
+        }
+        running.handle((ignored, error) -> null).join();
+        if (pending != null) {
+            pending.handle((ignored, error) -> null).join();
+        }
+    }
+
+    /**
+     * Commits what is still queued and stops the commit thread.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mutations queued so far, before coalescing.
+     */
+    synchronized long getMutationCount() {
+        return mutations;
+    }
+
+    /**
+     * Transactions committed so far.
+     */
+    synchronized long getCommitCount() {
+        return commits;
+    }
+
+    private void run() {
+        while (true) {
+            Batch batch;
+            List<CompletableFuture<Void>> batchInsertResults;
+            Map<Long, CompletableFuture<Void>> batchResults;
+            CompletableFuture<Void> commit;
+            synchronized (this) {
+                try {
+                    while (isEmpty() && !closed) {
+                        wait();
+                    }
+                    if (isEmpty()) {
+                        return;
+                    }
+                    // Give an async burst time to build up, unless someone is waiting for it
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                    long remaining;
+                    while (!waiting && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    // Nothing interrupts this thread; commit what is there and carry on
+                }
+                batch = new Batch(inserts, updates.values(), deletes);
+                batchInsertResults = insertResults;
+                batchResults = results;
+                commit = pendingCommit;
+                runningCommit = commit;
+                runningUpdates = updates;
+                runningDeletes = deletes;
+                inserts = new ArrayList<>();
+                updates = new LinkedHashMap<>();
+                deletes = new LinkedHashSet<>();
+                insertResults = new ArrayList<>();
+                results = new HashMap<>();
+                pendingCommit = new CompletableFuture<>();
+                waiting = false;
+            }
+
+            RuntimeException error = tryCommit(batch);
+            RuntimeException lost = null;
+            int lostCount = 0;
+            if (error == null || batch.size() == 1) {
+                batchInsertResults.forEach(result -> settle(result, error));
+                batchResults.values().forEach(result -> settle(result, error));
+                if (error != null && batch.inserts().isEmpty()) {
+                    lost = error;
+                    lostCount = 1;
+                }
+            } else {
+                // Retry one mutation per transaction, so the error reaches only the caller whose
+                // write caused it and the writes that merely shared its commit still land
+                for (int i = 0; i < batch.inserts().size(); i++) {
+                    settle(batchInsertResults.get(i), tryCommit(new Batch(List.of(batch.inserts().get(i)), List.of(), Set.of())));
+                }
+                for (Task task : batch.updates()) {
+                    RuntimeException e = tryCommit(new Batch(List.of(), List.of(task), Set.of()));
+                    settle(batchResults.get(task.getId()), e);
+                    if (e != null) {
+                        lost = lost == null ? e : lost;
+                        lostCount++;
+                    }
+                }
+                for (long taskId : batch.deletes()) {
+                    RuntimeException e = tryCommit(new Batch(List.of(), List.of(), Set.of(taskId)));
+                    settle(batchResults.get(taskId), e);
+                    if (e != null) {
+                        lost = lost == null ? e : lost;
+                        lostCount++;
+                    }
+                }
+            }
+            commit.complete(null);
+            synchronized (this) {
+                runningUpdates = Map.of();
+                runningDeletes = Set.of();
+            }
+            if (durability == Durability.ASYNC && lost != null) {
+                // Nobody waits for queued updates and deletes, so this is their only report
+                LOG.log(System.Logger.Level.ERROR, "Lost " + lostCount + " queued task change(s)", lost);
+                lostWrites.accept(lost);
+            }
+        }
+    }
+
+    // Runs one transaction; the failure, or null once it is committed
+    private RuntimeException tryCommit(Batch batch) {
+        try {
+            committer.accept(batch);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        } finally {
+            synchronized (this) {
+                commits++;
+            }
+        }
+    }
+
+    private static void settle(CompletableFuture<Void> result, RuntimeException error) {
+        if (error == null) {
+            result.complete(null);
+        } else {
+            result.completeExceptionally(error);
+        }
+    }
+
+    private boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Task write queue is closed");
+        }
+    }
+
+    private static void await(CompletableFuture<Void> commit) {
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.io.Closeable;
+
+/**
+ * Streams tasks into an export file one at a time; {@link #close()} completes the file.
+ */
+public interface TaskWriter extends Closeable {
+
+    /**
+     * Appends one task. I/O failures are rethrown unchecked so this can be used as a callback.
+     */
+    void write(Task task);
+
+    /**
+     * Tasks written so far.
+     */
+    long getCount();
+}
@@ -1,14 +1,17 @@
 package com.taskmanager.view;
 
-import com.taskmanager.service.TaskManager;
+import com.taskmanager.service.AsyncTaskManager;
+import com.taskmanager.service.TaskChangeEvent;
+import com.taskmanager.service.TaskChangeListener;
 import javafx.scene.chart.*;
 import javafx.scene.layout.*;
 import javafx.geometry.Insets;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import java.util.Map;
-import java.util.stream.Collectors;
-import com.taskmanager.model.Task;
+import com.taskmanager.model.CategoryCounts;
+import com.taskmanager.model.DailyCounts;
+import com.taskmanager.model.PriorityCounts;
+import com.taskmanager.model.TaskStatistics;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.text.Font;
@@ -16,10 +19,8 @@ import javafx.scene.text.FontWeight;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.ArrayList;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.util.Duration;
 import javafx.scene.shape.Circle;
 import javafx.scene.layout.Priority;
@@ -42,8 +43,9 @@ import javafx.scene.layout.RowConstraints;
  * which are type-safe at runtime due to JavaFX's internal checks.
  */
 @SuppressWarnings({"unchecked", "rawtypes"})
-public class DashboardView extends VBox {
-    private final TaskManager taskManager;
+public final class DashboardView extends VBox {
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd");
+    private final AsyncTaskManager tasks;
     private PieChart statusChart;
     private BarChart<String, Number> categoryChart;
     private BarChart<String, Number> priorityChart;
@@ -52,10 +54,20 @@ public class DashboardView extends VBox {
     private Label completedTasksLabel;
     private Label pendingTasksLabel;
     private Label overdueTasksLabel;
-    private Timeline refreshTimeline;
+    // Coalesces bursts of task changes into a single refresh
+    private final PauseTransition refreshDelay = new PauseTransition(Duration.millis(300));
+    // Fires when the figures go stale without an edit: a pending task falls overdue or the day ends
+    private final PauseTransition clockRefresh = new PauseTransition();
+    private final TaskChangeListener changeListener = this::onTaskChanged;
+    private boolean active;
+    private boolean dirty = true;
+    // When the figures shown go stale through the clock alone; null until the first refresh
+    private LocalDateTime staleAt;
+    // Numbers the refreshes so a slow read never overwrites the figures of a later one
+    private long refreshCount;
 
-    public DashboardView(TaskManager taskManager) {
-        this.taskManager = taskManager;
+    public DashboardView(AsyncTaskManager tasks) {
+        this.tasks = tasks;
         setPadding(new Insets(15));
         setSpacing(25);
         
@@ -63,7 +75,6 @@ public class DashboardView extends VBox {
         initializeStatsLabels();
         layoutDashboard();
         setupAutoRefresh();
-        updateData();
     }
 
     private void initializeStatsLabels() {
@@ -311,61 +322,139 @@ public class DashboardView extends VBox {
     }
 
     private void setupAutoRefresh() {
-        refreshTimeline = new Timeline(
-            new KeyFrame(Duration.seconds(5), event -> updateData())
-        );
-        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
-        refreshTimeline.play();
+        refreshDelay.setOnFinished(event -> {
+            if (active && dirty) {
+                updateData();
+            }
+        });
+        clockRefresh.setOnFinished(event -> {
+            if (active) {
+                updateData();
+            }
+        });
+        tasks.getTaskManager().addChangeListener(changeListener);
+    }
+
+    // Called on whichever thread wrote the task; recomputation always happens on the FX thread
+    private void onTaskChanged(TaskChangeEvent event) {
+        if (Platform.isFxApplicationThread()) {
+            markDirty();
+        } else {
+            Platform.runLater(this::markDirty);
+        }
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (active && refreshDelay.getStatus() != Animation.Status.RUNNING) {
+            refreshDelay.playFromStart();
+        }
+    }
+
+    /**
+     * Tells the dashboard whether it is on screen. While inactive, changes are only recorded and
+     * the statistics are recomputed once when it becomes active again.
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+        if (!active) {
+            refreshDelay.stop();
+            clockRefresh.stop();
+            return;
+        }
+        if (dirty || staleAt == null || !LocalDateTime.now().isBefore(staleAt)) {
+            updateData();
+        } else {
+            playClockRefresh();
+        }
     }
 
     public void updateData() {
-        List<Task> allTasks = taskManager.getAllTasks();
-        List<Task> completedTasks = taskManager.getCompletedTasks();
-        List<Task> pendingTasks = allTasks.stream()
-            .filter(task -> !task.isCompleted())
-            .collect(Collectors.toList());
-        List<Task> overdueTasks = pendingTasks.stream()
-            .filter(task -> task.getDueDate().isBefore(LocalDateTime.now()))
-            .collect(Collectors.toList());
+        dirty = false;
+        staleAt = null;
+        refreshDelay.stop();
+        clockRefresh.stop();
+        long refresh = ++refreshCount;
+        
+        // All figures are aggregated by the database in one background read; no task rows are loaded
+        LocalDate today = LocalDate.now();
+        tasks.read(manager -> new Figures(manager.getTaskStatistics(), manager.getCategoryCounts(),
+                manager.getPriorityCounts(), manager.getCompletedTasksPerDay(today.minusDays(6), today)))
+            .whenComplete((figures, error) -> {
+                if (refresh != refreshCount) {
+                    return;
+                }
+                if (error != null) {
+                    // Try again on the next change or activation
+                    dirty = true;
+                    return;
+                }
+                showData(figures);
+                scheduleClockRefresh(figures.stats());
+            });
+    }
+
+    // Overdue counts and the trend chart's days move with the clock; refresh when they next do
+    private void scheduleClockRefresh(TaskStatistics stats) {
+        staleAt = LocalDate.now().plusDays(1).atStartOfDay();
+        if (stats.getNextOverdueAt() != null && stats.getNextOverdueAt().isBefore(staleAt)) {
+            // A task is overdue once the clock is past its due date
+            staleAt = stats.getNextOverdueAt().plusNanos(1_000_000);
+        }
+        if (active) {
+            playClockRefresh();
+        }
+    }
+
+    private void playClockRefresh() {
+        long millis = java.time.Duration.between(LocalDateTime.now(), staleAt).toMillis();
+        clockRefresh.setDuration(Duration.millis(Math.max(1, millis)));
+        clockRefresh.playFromStart();
+    }
+
+    private record Figures(TaskStatistics stats, CategoryCounts categoryCounts, PriorityCounts priorityCounts,
+                           DailyCounts completedPerDay) {
+    }
+
+    private void showData(Figures figures) {
+        TaskStatistics stats = figures.stats();
 
         // Update Stats Labels
-        totalTasksLabel.setText("📊 Total Tasks: " + allTasks.size());
-        completedTasksLabel.setText("✅ Completed: " + completedTasks.size());
-        pendingTasksLabel.setText("⏳ Pending: " + pendingTasks.size());
-        overdueTasksLabel.setText("⚠️ Overdue: " + overdueTasks.size());
+        totalTasksLabel.setText("📊 Total Tasks: " + stats.getTotal());
+        completedTasksLabel.setText("✅ Completed: " + stats.getCompleted());
+        pendingTasksLabel.setText("⏳ Pending: " + stats.getPending());
+        overdueTasksLabel.setText("⚠️ Overdue: " + stats.getOverdue());
 
         // Update Status Chart
         ObservableList<PieChart.Data> statusData = FXCollections.observableArrayList();
-        if (completedTasks.size() > 0) {
-            statusData.add(new PieChart.Data("Completed", completedTasks.size()));
+        if (stats.getCompleted() > 0) {
+            statusData.add(new PieChart.Data("Completed", stats.getCompleted()));
         }
-        if (pendingTasks.size() > 0) {
-            statusData.add(new PieChart.Data("Pending", pendingTasks.size()));
+        if (stats.getPending() > 0) {
+            statusData.add(new PieChart.Data("Pending", stats.getPending()));
         }
-        if (overdueTasks.size() > 0) {
-            statusData.add(new PieChart.Data("Overdue", overdueTasks.size()));
+        if (stats.getOverdue() > 0) {
+            statusData.add(new PieChart.Data("Overdue", stats.getOverdue()));
         }
         statusChart.setData(statusData);
         
         // Update Category Chart
-        Map<String, Long> categoryCounts = allTasks.stream()
-            .collect(Collectors.groupingBy(Task::getCategory, Collectors.counting()));
+        CategoryCounts categoryCounts = figures.categoryCounts();
         ObservableList<XYChart.Data<String, Number>> categoryData = FXCollections.observableArrayList();
-        categoryCounts.forEach((category, count) -> 
-            categoryData.add(new XYChart.Data<>(category, count)));
+        for (int i = 0; i < categoryCounts.size(); i++) {
+            categoryData.add(new XYChart.Data<>(categoryCounts.getCategory(i), categoryCounts.getCount(i)));
+        }
         categoryChart.getData().clear();
         XYChart.Series<String, Number> categorySeries = new XYChart.Series<>("Categories", categoryData);
         categoryChart.getData().add(categorySeries);
         
         // Update Priority Chart
-        Map<Integer, Long> priorityCounts = allTasks.stream()
-            .collect(Collectors.groupingBy(Task::getPriority, Collectors.counting()));
+        PriorityCounts priorityCounts = figures.priorityCounts();
         ObservableList<XYChart.Data<String, Number>> priorityData = FXCollections.observableArrayList();
         
         // Ensure all priorities from 1-5 are shown even if count is 0
         for (int i = 1; i <= 5; i++) {
-            Long count = priorityCounts.getOrDefault(i, 0L);
-            priorityData.add(new XYChart.Data<>(String.valueOf(i), count));
+            priorityData.add(new XYChart.Data<>(String.valueOf(i), priorityCounts.getCount(i)));
         }
         
         priorityChart.getData().clear();
@@ -373,19 +462,13 @@ public class DashboardView extends VBox {
         priorityChart.getData().add(prioritySeries);
 
         // Update Completion Trend Chart
-        LocalDate today = LocalDate.now();
+        DailyCounts completedPerDay = figures.completedPerDay();
         ObservableList<XYChart.Data<String, Number>> completionData = FXCollections.observableArrayList();
         
         // Ensure all 7 days are shown with data
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            String formattedDate = date.format(DateTimeFormatter.ofPattern("MMM dd"));
-            
-            long completedCount = completedTasks.stream()
-                .filter(task -> task.getDueDate().toLocalDate().equals(date))
-                .count();
-            
-            completionData.add(new XYChart.Data<>(formattedDate, completedCount));
+        for (int i = 0; i < completedPerDay.size(); i++) {
+            String formattedDate = completedPerDay.getDay(i).format(DAY_FORMAT);
+            completionData.add(new XYChart.Data<>(formattedDate, completedPerDay.getCount(i)));
         }
         
         completionTrendChart.getData().clear();
@@ -419,10 +502,14 @@ public class DashboardView extends VBox {
         return "light";
     }
 
+    /**
+     * Stops both refresh timers and stops following task changes, for when the window closes.
+     */
     public void stopAutoRefresh() {
-        if (refreshTimeline != null) {
-            refreshTimeline.stop();
-        }
+        active = false;
+        refreshDelay.stop();
+        clockRefresh.stop();
+        tasks.getTaskManager().removeChangeListener(changeListener);
     }
 
     // Helper method to safely apply CSS to chart series
@@ -1,7 +1,7 @@
 package com.taskmanager.view;
 
 import com.taskmanager.model.Task;
-import com.taskmanager.service.TaskManager;
+import com.taskmanager.service.AsyncTaskManager;
 import javafx.geometry.Insets;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -25,14 +25,21 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 import java.time.*;
+import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.input.*;
 import javafx.stage.Stage;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.util.Duration;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.ListCell;
 
@@ -43,14 +50,20 @@ import javafx.scene.control.ListCell;
  * which are type-safe at runtime due to JavaFX's internal checks.
  */
 @SuppressWarnings({"unchecked", "rawtypes"})
-public class MonthViewCalendarTab extends VBox {
-    private final TaskManager taskManager;
+public final class MonthViewCalendarTab extends VBox {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private final AsyncTaskManager tasks;
     private YearMonth currentMonth;
+    // Numbers the month loads so only the latest one is drawn
+    private long loadCount;
     private GridPane monthGrid;
     private Label monthLabel;
+    private final DayCell[] dayCells = new DayCell[42];
+    private final RowConstraints[] rowConstraints = new RowConstraints[7];
+    private final DropShadow[] priorityGlows = new DropShadow[6];
 
-    public MonthViewCalendarTab(TaskManager taskManager) {
-        this.taskManager = taskManager;
+    public MonthViewCalendarTab(AsyncTaskManager tasks) {
+        this.tasks = tasks;
         this.currentMonth = YearMonth.now();
         setPadding(new Insets(20));
         setSpacing(20);
@@ -164,14 +177,6 @@ public class MonthViewCalendarTab extends VBox {
         gridShadow.setColor(Color.color(0, 0, 0, 0.2));
         monthGrid.setEffect(gridShadow);
         
-        return monthGrid;
-    }
-
-    private void updateMonthGrid() {
-        monthGrid.getChildren().clear();
-        monthGrid.getColumnConstraints().clear();
-        monthGrid.getRowConstraints().clear();
-        
         // Header row: days of week
         String[] daysOfWeek = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
         for (int d = 0; d < 7; d++) {
@@ -201,50 +206,68 @@ public class MonthViewCalendarTab extends VBox {
             monthGrid.getColumnConstraints().add(colConst);
         }
         
-        // Fill in the days
+        // Row constraints are reused; updateMonthGrid() only installs as many as the month needs
+        for (int r = 0; r < rowConstraints.length; r++) {
+            rowConstraints[r] = new RowConstraints();
+            rowConstraints[r].setVgrow(Priority.ALWAYS);
+        }
+        // Make header row slightly smaller
+        rowConstraints[0].setPercentHeight(10);
+        
+        // One pooled cell per slot of the 7x6 grid, re-bound to new dates on every refresh
+        for (int slot = 0; slot < dayCells.length; slot++) {
+            dayCells[slot] = new DayCell();
+            monthGrid.add(dayCells[slot], slot % 7, slot / 7 + 1);
+        }
+        
+        return monthGrid;
+    }
+
+    /**
+     * Re-reads the shown month, for changes made outside this view such as an undo.
+     */
+    public void refresh() {
+        updateMonthGrid();
+    }
+
+    // Loads the month in the background (after any pending edits) and redraws the grid when it arrives
+    private void updateMonthGrid() {
+        YearMonth month = currentMonth;
+        long load = ++loadCount;
+        tasks.getTasksByMonth(month).thenAccept(tasksByDay -> {
+            if (load == loadCount) {
+                showMonth(tasksByDay);
+            }
+        });
+        
+        // Warm the cache so the next month flip doesn't hit the database
+        tasks.getTaskManager().prefetchAdjacentMonths(month);
+    }
+
+    private void showMonth(Map<LocalDate, List<Task>> tasksByDay) {
         LocalDate firstOfMonth = currentMonth.atDay(1);
         int firstDayOfWeek = firstOfMonth.getDayOfWeek().getValue() % 7;
         int daysInMonth = currentMonth.lengthOfMonth();
-        int row = 1, col = 0;
         int totalRows = ((firstDayOfWeek + daysInMonth - 1) / 7) + 1;
         
-        // Set row constraints for equal height (including header row)
-        for (int r = 0; r <= totalRows; r++) {
-            RowConstraints rowConst = new RowConstraints();
-            rowConst.setPercentHeight(100.0 / (totalRows + 1));
-            rowConst.setVgrow(Priority.ALWAYS);
-            if (r == 0) {
-                // Make header row slightly smaller
-                rowConst.setPercentHeight(10);
+        // Set row constraints for equal height (including header row), only when the row count changes
+        if (monthGrid.getRowConstraints().size() != totalRows + 1) {
+            for (int r = 1; r <= totalRows; r++) {
+                rowConstraints[r].setPercentHeight(100.0 / (totalRows + 1));
             }
-            monthGrid.getRowConstraints().add(rowConst);
+            monthGrid.getRowConstraints().setAll(Arrays.asList(rowConstraints).subList(0, totalRows + 1));
         }
         
-        // Add empty cells before the first day
-        for (col = 0; col < firstDayOfWeek; col++) {
-            VBox emptyCell = new VBox();
-            emptyCell.setMinHeight(80);
-            emptyCell.setMinWidth(100);
-            emptyCell.setMaxWidth(Double.MAX_VALUE);
-            emptyCell.setMaxHeight(Double.MAX_VALUE);
-            emptyCell.getStyleClass().add("calendar-cell");
-            emptyCell.getStyleClass().add("calendar-empty-cell");
-            GridPane.setHgrow(emptyCell, Priority.ALWAYS);
-            GridPane.setVgrow(emptyCell, Priority.ALWAYS);
-            monthGrid.add(emptyCell, col, row);
-        }
-        
-        // Add day cells
-        for (int i = 1; i <= daysInMonth; i++) {
-            LocalDate date = currentMonth.atDay(i);
-            VBox dayCell = createDayCell(date);
-            GridPane.setHgrow(dayCell, Priority.ALWAYS);
-            GridPane.setVgrow(dayCell, Priority.ALWAYS);
-            monthGrid.add(dayCell, col, row);
-            col++;
-            if (col > 6) {
-                col = 0;
-                row++;
+        // Re-bind the pooled cells: blanks before the first day, then the days, then unused slots
+        for (int slot = 0; slot < dayCells.length; slot++) {
+            int dayOfMonth = slot - firstDayOfWeek + 1;
+            if (dayOfMonth < 1) {
+                dayCells[slot].updateItem(null, Collections.emptyList());
+            } else if (dayOfMonth <= daysInMonth) {
+                LocalDate date = currentMonth.atDay(dayOfMonth);
+                dayCells[slot].updateItem(date, tasksByDay.getOrDefault(date, Collections.emptyList()));
+            } else {
+                dayCells[slot].hide();
             }
         }
         
@@ -252,96 +275,291 @@ public class MonthViewCalendarTab extends VBox {
         monthLabel.setText(currentMonth.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault()) + " " + currentMonth.getYear());
     }
 
-    private VBox createDayCell(LocalDate date) {
-        VBox cell = new VBox(3);
-        cell.setPadding(new Insets(5));
-        cell.getStyleClass().add("calendar-cell");
-        cell.setMinHeight(80);
-        cell.setMinWidth(100);
-        cell.setMaxWidth(Double.MAX_VALUE);
-        cell.setMaxHeight(Double.MAX_VALUE);
-        VBox.setVgrow(cell, Priority.ALWAYS);
-        
-        // Date header container
-        HBox dateHeader = new HBox();
-        dateHeader.setAlignment(Pos.CENTER_LEFT);
-        dateHeader.setPadding(new Insets(2, 0, 5, 0));
-        
-        // Date number label
-        Label dateLabel = new Label(String.valueOf(date.getDayOfMonth()));
-        dateLabel.getStyleClass().add("calendar-date-label");
-        
-        // Highlight today's date
-        if (date.equals(LocalDate.now())) {
-            StackPane todayIndicator = new StackPane();
-            todayIndicator.getStyleClass().add("calendar-today-indicator");
+    // Redraws the month once the write has gone through, or reports why it failed
+    private void refreshAfter(CompletableFuture<Void> write) {
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error");
+                alert.setHeaderText(null);
+                alert.setContentText("Failed to save task: " + error.getMessage());
+                applyThemeToAlert(alert);
+                alert.showAndWait();
+            }
+            updateMonthGrid();
+        });
+    }
+
+    // The drag source is always a task shown in the grid, so no query is needed to find it
+    private Task findShownTask(long taskId) {
+        for (DayCell cell : dayCells) {
+            for (Task task : cell.dayTasks) {
+                if (task.getId() == taskId) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Adds or removes a style class only when it actually changes, so CSS isn't re-applied needlessly
+    private static void toggleStyleClass(Node node, String styleClass, boolean enabled) {
+        boolean present = node.getStyleClass().contains(styleClass);
+        if (enabled && !present) {
+            node.getStyleClass().add(styleClass);
+        } else if (!enabled && present) {
+            node.getStyleClass().remove(styleClass);
+        }
+    }
+
+    private static void setShown(Node node, boolean shown) {
+        if (node.isVisible() != shown) {
+            node.setVisible(shown);
+            node.setManaged(shown);
+        }
+    }
+
+    // Pooled day cell of the month grid; like a ListCell, it is created once and re-bound via updateItem
+    private class DayCell extends VBox {
+        private final HBox dateHeader;
+        private final Label dateLabel;
+        private final StackPane todayIndicator;
+        private final Label todayLabel;
+        private final VBox taskContainer;
+        private final List<TaskChip> chips = new ArrayList<>();
+        private LocalDate date;
+        private List<Task> dayTasks = Collections.emptyList();
+
+        DayCell() {
+            super(3);
+            setPadding(new Insets(5));
+            getStyleClass().add("calendar-cell");
+            setMinHeight(80);
+            setMinWidth(100);
+            setMaxWidth(Double.MAX_VALUE);
+            setMaxHeight(Double.MAX_VALUE);
+            GridPane.setHgrow(this, Priority.ALWAYS);
+            GridPane.setVgrow(this, Priority.ALWAYS);
+            
+            // Date header container
+            dateHeader = new HBox();
+            dateHeader.setAlignment(Pos.CENTER_LEFT);
+            dateHeader.setPadding(new Insets(2, 0, 5, 0));
             
+            // Date number label
+            dateLabel = new Label();
+            dateLabel.getStyleClass().add("calendar-date-label");
+            
+            // Today's date is drawn on a highlighted circle
+            todayIndicator = new StackPane();
+            todayIndicator.getStyleClass().add("calendar-today-indicator");
             Circle circle = new Circle(12);
             circle.setFill(Color.DODGERBLUE);
+            todayLabel = new Label();
+            todayLabel.getStyleClass().add("calendar-date-label");
+            todayLabel.setTextFill(Color.WHITE);
+            todayIndicator.getChildren().addAll(circle, todayLabel);
             
-            dateLabel.setTextFill(Color.WHITE);
-            todayIndicator.getChildren().add(circle);
-            todayIndicator.getChildren().add(dateLabel);
-            dateHeader.getChildren().add(todayIndicator);
-        } else {
             dateHeader.getChildren().add(dateLabel);
             
-            // Add weekend styling
-            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                cell.getStyleClass().add("calendar-weekend-cell");
-                dateLabel.getStyleClass().add("calendar-weekend-day");
-            }
-        }
-        
-        // Add different month styling
-        if (date.getMonth() != currentMonth.getMonth()) {
-            cell.getStyleClass().add("calendar-different-month-cell");
+            // Create scrollable task container
+            taskContainer = new VBox(2);
+            taskContainer.setSpacing(3);
+            taskContainer.setMaxHeight(Double.MAX_VALUE);
+            VBox.setVgrow(taskContainer, Priority.ALWAYS);
+            
+            getChildren().addAll(dateHeader, taskContainer);
+            
+            // Accept drag over
+            setOnDragOver(event -> {
+                if (date != null && event.getGestureSource() != this && event.getDragboard().hasString()) {
+                    event.acceptTransferModes(TransferMode.MOVE);
+                }
+                event.consume();
+            });
+            
+            // Handle drop
+            setOnDragDropped(event -> {
+                Dragboard db = event.getDragboard();
+                boolean success = false;
+                if (date != null && db.hasString()) {
+                    try {
+                        long taskId = Long.parseLong(db.getString());
+                        Task draggedTask = findShownTask(taskId);
+                        if (draggedTask != null && !draggedTask.getDueDate().toLocalDate().equals(date)) {
+                            // Keep the same time, change only the date; the grid re-reads the result
+                            Task moved = new Task(draggedTask);
+                            moved.setDueDate(date.atTime(draggedTask.getDueDate().toLocalTime()));
+                            refreshAfter(tasks.updateTask(moved));
+                            success = true;
+                        }
+                    } catch (Exception ignored) {}
+                }
+                event.setDropCompleted(success);
+                event.consume();
+            });
+            
+            // Unified mouse event handler for both right-click menu and double-click
+            setOnMouseClicked(e -> {
+                if (date == null) {
+                    return;
+                }
+                LocalDate cellDate = date;
+                List<Task> cellTasks = dayTasks;
+                
+                // Handle double-click to create a new task
+                if (e.getClickCount() == 2 && e.getButton() == MouseButton.PRIMARY) {
+                    showCreateTaskDialog(cellDate);
+                    return;
+                }
+                
+                // Handle right-click context menu
+                if (e.getButton() == MouseButton.SECONDARY) {
+                    ContextMenu menu = new ContextMenu();
+                    if (!cellTasks.isEmpty()) {
+                        MenuItem editTask = new MenuItem("Edit Task");
+                        if (cellTasks.size() == 1) {
+                            // For a single task, edit directly
+                            editTask.setOnAction(ev -> showEditTaskDialog(cellTasks.get(0)));
+                        } else {
+                            // For multiple tasks, show selection dialog
+                            editTask.setOnAction(ev -> showSelectTaskToEditDialog(cellTasks));
+                        }
+                        MenuItem createTask = new MenuItem("Create Another Task");
+                        createTask.setOnAction(ev -> showCreateTaskDialog(cellDate));
+                        MenuItem deleteTask = new MenuItem("Delete Task");
+                        if (cellTasks.size() == 1) {
+                            deleteTask.setOnAction(ev -> {
+                                Task taskToDelete = cellTasks.get(0);
+                                // Get the main window and store its maximized state
+                                Stage mainStage = (Stage) getScene().getWindow();
+                                boolean wasMaximized = mainStage.isMaximized();
+                                
+                                Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+                                confirmDialog.setTitle("Confirm Delete");
+                                confirmDialog.setHeaderText("Delete Task");
+                                confirmDialog.setContentText("Are you sure you want to delete the task: " + taskToDelete.getTitle() + "?");
+                                
+                                // Add an event handler to restore maximized state when dialog closes
+                                confirmDialog.setOnHidden(dialogEvent -> {
+                                    if (wasMaximized) {
+                                        // Use Platform.runLater to ensure this happens after all other events
+                                        Platform.runLater(() -> {
+                                            mainStage.setMaximized(true);
+                                        });
+                                    }
+                                });
+                                
+                                confirmDialog.showAndWait().ifPresent(response -> {
+                                    if (response == ButtonType.OK) {
+                                        refreshAfter(tasks.deleteTask(taskToDelete.getId()));
+                                    }
+                                });
+                            });
+                        } else {
+                            deleteTask.setOnAction(ev -> showDeleteTaskDialog(cellTasks));
+                        }
+                        menu.getItems().addAll(editTask, createTask, deleteTask);
+                    } else {
+                        MenuItem createTask = new MenuItem("Create Task");
+                        createTask.setOnAction(ev -> showCreateTaskDialog(cellDate));
+                        menu.getItems().add(createTask);
+                    }
+                    menu.show(this, e.getScreenX(), e.getScreenY());
+                }
+            });
         }
-        
-        cell.getChildren().add(dateHeader);
-        
-        // Create scrollable task container
-        VBox taskContainer = new VBox(2);
-        taskContainer.setSpacing(3);
-        taskContainer.setMaxHeight(Double.MAX_VALUE);
-        VBox.setVgrow(taskContainer, Priority.ALWAYS);
-        
-        // Get tasks for this date
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-        List<Task> dayTasks = taskManager.getTasksByDateRange(startOfDay, endOfDay);
-        
-        // Show task names with drag-and-drop and priority styling
-        for (Task task : dayTasks) {
-            // Create task item
-            HBox taskItem = new HBox(5);
-            taskItem.setAlignment(Pos.CENTER_LEFT);
-            taskItem.getStyleClass().add("calendar-task-item");
+
+        /**
+         * Binds the cell to a date and its tasks; a null date renders the blank leading cell.
+         */
+        void updateItem(LocalDate date, List<Task> tasks) {
+            this.date = date;
+            this.dayTasks = tasks;
+            setShown(this, true);
             
-            // Add priority indicator
-            Circle priorityIndicator = createPriorityIndicator(task.getPriority());
+            boolean empty = date == null;
+            boolean today = !empty && date.equals(LocalDate.now());
+            boolean weekend = !empty && (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY);
             
-            // Completed indicator
-            if (task.isCompleted()) {
-                taskItem.getStyleClass().add("calendar-task-completed");
+            toggleStyleClass(this, "calendar-empty-cell", empty);
+            toggleStyleClass(this, "calendar-weekend-cell", weekend && !today);
+            toggleStyleClass(dateLabel, "calendar-weekend-day", weekend && !today);
+            toggleStyleClass(this, "calendar-different-month-cell", !empty && date.getMonth() != currentMonth.getMonth());
+            setShown(dateHeader, !empty);
+            
+            if (!empty) {
+                String dayText = String.valueOf(date.getDayOfMonth());
+                // Highlight today's date
+                Node header = today ? todayIndicator : dateLabel;
+                (today ? todayLabel : dateLabel).setText(dayText);
+                if (dateHeader.getChildren().get(0) != header) {
+                    dateHeader.getChildren().setAll(header);
+                }
             }
             
+            // Re-bind existing chips, grow the pool only when a day has more tasks than ever before
+            for (int i = 0; i < tasks.size(); i++) {
+                TaskChip chip;
+                if (i < chips.size()) {
+                    chip = chips.get(i);
+                } else {
+                    chip = new TaskChip();
+                    chips.add(chip);
+                    taskContainer.getChildren().add(chip);
+                }
+                chip.updateItem(tasks.get(i));
+                setShown(chip, true);
+            }
+            for (int i = tasks.size(); i < chips.size(); i++) {
+                chips.get(i).updateItem(null);
+                setShown(chips.get(i), false);
+            }
+        }
+
+        // Slots past the last day of the month take no part in layout
+        void hide() {
+            updateItem(null, Collections.emptyList());
+            setShown(this, false);
+        }
+    }
+
+    // Pooled task entry inside a day cell
+    private class TaskChip extends HBox {
+        private final Circle priorityIndicator;
+        private final Label taskLabel;
+        private final Tooltip tooltip;
+        private Task task;
+
+        TaskChip() {
+            super(5);
+            setAlignment(Pos.CENTER_LEFT);
+            getStyleClass().add("calendar-task-item");
+            
+            // Priority indicator
+            priorityIndicator = new Circle(4);
+            priorityIndicator.getStyleClass().add("task-priority-indicator");
+            
             // Task title with ellipsis if too long
-            Label taskLabel = new Label(task.getTitle());
+            taskLabel = new Label();
             taskLabel.setMaxWidth(Double.MAX_VALUE);
             HBox.setHgrow(taskLabel, Priority.ALWAYS);
             taskLabel.getStyleClass().add("calendar-task-label");
             
-            taskItem.getChildren().addAll(priorityIndicator, taskLabel);
+            getChildren().addAll(priorityIndicator, taskLabel);
+            
+            // Show task details on hover
+            tooltip = new Tooltip();
+            Tooltip.install(this, tooltip);
             
             // Make the entire task item clickable for editing
-            taskItem.setOnMouseClicked(event -> {
-                if (event.getButton() == MouseButton.PRIMARY) {
+            setOnMouseClicked(event -> {
+                if (task != null && event.getButton() == MouseButton.PRIMARY) {
                     // Single click to toggle completion
                     if (event.getClickCount() == 1 && event.isControlDown()) {
-                        task.setCompleted(!task.isCompleted());
-                        taskManager.updateTask(task);
-                        updateMonthGrid();
+                        Task toggled = new Task(task);
+                        toggled.setCompleted(!task.isCompleted());
+                        refreshAfter(tasks.updateTask(toggled));
                         event.consume();
                     } 
                     // Double click to edit the task
@@ -353,151 +571,69 @@ public class MonthViewCalendarTab extends VBox {
             });
             
             // Drag detected
-            taskItem.setOnDragDetected(event -> {
-                Dragboard db = taskItem.startDragAndDrop(TransferMode.MOVE);
+            setOnDragDetected(event -> {
+                if (task == null) {
+                    return;
+                }
+                Dragboard db = startDragAndDrop(TransferMode.MOVE);
                 ClipboardContent content = new ClipboardContent();
                 content.putString(String.valueOf(task.getId()));
                 db.setContent(content);
                 event.consume();
             });
+        }
+
+        void updateItem(Task task) {
+            this.task = task;
+            if (task == null) {
+                return;
+            }
             
-            // Show task details on hover
-            Tooltip tooltip = new Tooltip(
+            int priority = task.getPriority();
+            String priorityClass = "task-priority-" + priority;
+            if (!priorityIndicator.getStyleClass().contains(priorityClass)) {
+                priorityIndicator.getStyleClass().removeIf(s -> s.startsWith("task-priority-") && !s.equals("task-priority-indicator"));
+                priorityIndicator.getStyleClass().add(priorityClass);
+                priorityIndicator.setEffect(priorityGlow(priority));
+            }
+            
+            // Completed indicator
+            toggleStyleClass(this, "calendar-task-completed", task.isCompleted());
+            
+            taskLabel.setText(task.getTitle());
+            tooltip.setText(
                 "Title: " + task.getTitle() + "\n" +
                 "Description: " + task.getDescription() + "\n" +
-                "Priority: " + task.getPriority() + "\n" +
-                "Time: " + task.getDueDate().format(java.time.format.DateTimeFormatter.ofPattern("HH:mm")) + "\n" +
+                "Priority: " + priority + "\n" +
+                "Time: " + task.getDueDate().format(TIME_FORMAT) + "\n" +
                 "Status: " + (task.isCompleted() ? "Completed" : "Pending") + "\n\n" +
                 "Double-click to edit\n" +
                 "Ctrl+click to toggle completion"
             );
-            Tooltip.install(taskItem, tooltip);
-            
-            taskContainer.getChildren().add(taskItem);
         }
-        
-        cell.getChildren().add(taskContainer);
-        
-        // Accept drag over
-        cell.setOnDragOver(event -> {
-            if (event.getGestureSource() != cell && event.getDragboard().hasString()) {
-                event.acceptTransferModes(TransferMode.MOVE);
-            }
-            event.consume();
-        });
-        
-        // Handle drop
-        cell.setOnDragDropped(event -> {
-            Dragboard db = event.getDragboard();
-            boolean success = false;
-            if (db.hasString()) {
-                try {
-                    long taskId = Long.parseLong(db.getString());
-                    Task draggedTask = taskManager.getAllTasks().stream().filter(t -> t.getId() == taskId).findFirst().orElse(null);
-                    if (draggedTask != null && !draggedTask.getDueDate().toLocalDate().equals(date)) {
-                        // Keep the same time, change only the date
-                        LocalDateTime newDue = date.atTime(draggedTask.getDueDate().toLocalTime());
-                        draggedTask.setDueDate(newDue);
-                        taskManager.updateTask(draggedTask);
-                        updateMonthGrid();
-                        success = true;
-                    }
-                } catch (Exception ignored) {}
-            }
-            event.setDropCompleted(success);
-            event.consume();
-        });
-        
-        // Unified mouse event handler for both right-click menu and double-click
-        cell.setOnMouseClicked(e -> {
-            // Handle double-click to create a new task
-            if (e.getClickCount() == 2 && e.getButton() == MouseButton.PRIMARY) {
-                showCreateTaskDialog(date);
-                return;
-            }
-            
-            // Handle right-click context menu
-            if (e.getButton() == MouseButton.SECONDARY) {
-                ContextMenu menu = new ContextMenu();
-                if (!dayTasks.isEmpty()) {
-                    MenuItem editTask = new MenuItem("Edit Task");
-                    if (dayTasks.size() == 1) {
-                        // For a single task, edit directly
-                        editTask.setOnAction(ev -> showEditTaskDialog(dayTasks.get(0)));
-                    } else {
-                        // For multiple tasks, show selection dialog
-                        editTask.setOnAction(ev -> showSelectTaskToEditDialog(dayTasks));
-                    }
-                    MenuItem createTask = new MenuItem("Create Another Task");
-                    createTask.setOnAction(ev -> showCreateTaskDialog(date));
-                    MenuItem deleteTask = new MenuItem("Delete Task");
-                    if (dayTasks.size() == 1) {
-                        deleteTask.setOnAction(ev -> {
-                            Task taskToDelete = dayTasks.get(0);
-                            // Get the main window and store its maximized state
-                            Stage mainStage = (Stage) getScene().getWindow();
-                            boolean wasMaximized = mainStage.isMaximized();
-                            
-                            Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
-                            confirmDialog.setTitle("Confirm Delete");
-                            confirmDialog.setHeaderText("Delete Task");
-                            confirmDialog.setContentText("Are you sure you want to delete the task: " + taskToDelete.getTitle() + "?");
-                            
-                            // Add an event handler to restore maximized state when dialog closes
-                            confirmDialog.setOnHidden(dialogEvent -> {
-                                if (wasMaximized) {
-                                    // Use Platform.runLater to ensure this happens after all other events
-                                    Platform.runLater(() -> {
-                                        mainStage.setMaximized(true);
-                                    });
-                                }
-                            });
-                            
-                            confirmDialog.showAndWait().ifPresent(response -> {
-                                if (response == ButtonType.OK) {
-                                    taskManager.deleteTask(taskToDelete.getId());
-                                    updateMonthGrid();
-                                }
-                            });
-                        });
-                    } else {
-                        deleteTask.setOnAction(ev -> showDeleteTaskDialog(dayTasks));
-                    }
-                    menu.getItems().addAll(editTask, createTask, deleteTask);
-                } else {
-                    MenuItem createTask = new MenuItem("Create Task");
-                    createTask.setOnAction(ev -> showCreateTaskDialog(date));
-                    menu.getItems().add(createTask);
-                }
-                menu.show(cell, e.getScreenX(), e.getScreenY());
-            }
-        });
-        
-        return cell;
     }
 
-    private Circle createPriorityIndicator(int priority) {
-        Circle priorityIndicator = new Circle(4);
-        priorityIndicator.getStyleClass().add("task-priority-indicator");
-        priorityIndicator.getStyleClass().add("task-priority-" + priority);
-        
-        // Add programmatic glow effect to match CSS
-        DropShadow glow = new DropShadow();
-        glow.setRadius(6);
-        glow.setSpread(0.4);
-        
-        // Set color based on priority
-        switch (priority) {
-            case 1: glow.setColor(Color.web("#FF1744")); break;
-            case 2: glow.setColor(Color.web("#FF9100")); break;
-            case 3: glow.setColor(Color.web("#FFEA00")); break;
-            case 4: glow.setColor(Color.web("#00E676")); break;
-            case 5: glow.setColor(Color.web("#00B0FF")); break;
-            default: glow.setColor(Color.web("#2196F3")); break;
+    // Glow effects are shared by every indicator of the same priority
+    private DropShadow priorityGlow(int priority) {
+        int slot = priority >= 1 && priority <= 5 ? priority : 0;
+        if (priorityGlows[slot] == null) {
+            // Add programmatic glow effect to match CSS
+            DropShadow glow = new DropShadow();
+            glow.setRadius(6);
+            glow.setSpread(0.4);
+            
+            // Set color based on priority
+            switch (slot) {
+                case 1: glow.setColor(Color.web("#FF1744")); break;
+                case 2: glow.setColor(Color.web("#FF9100")); break;
+                case 3: glow.setColor(Color.web("#FFEA00")); break;
+                case 4: glow.setColor(Color.web("#00E676")); break;
+                case 5: glow.setColor(Color.web("#00B0FF")); break;
+                default: glow.setColor(Color.web("#2196F3")); break;
+            }
+            priorityGlows[slot] = glow;
         }
-        
-        priorityIndicator.setEffect(glow);
-        return priorityIndicator;
+        return priorityGlows[slot];
     }
 
     /**
@@ -722,8 +858,7 @@ public class MonthViewCalendarTab extends VBox {
                     String[] parts = timeStr.split(":");
                     LocalDateTime due = date.atTime(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
                     Task task = new Task(title, desc, category, priority, due);
-                    taskManager.addTask(task);
-                    updateMonthGrid();
+                    refreshAfter(tasks.addTask(task));
                 }
             }
             return null;
@@ -914,14 +1049,14 @@ public class MonthViewCalendarTab extends VBox {
                 if (!title.isEmpty() && timeStr.matches("^([0-1]?[0-9]|2[0-3]):[0-5][0-9]$")) {
                     String[] parts = timeStr.split(":");
                     LocalDateTime due = task.getDueDate().toLocalDate().atTime(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
-                    task.setTitle(title);
-                    task.setDescription(desc);
-                    task.setCategory(category);
-                    task.setPriority(priority);
-                    task.setDueDate(due);
-                    task.setCompleted(completed);
-                    taskManager.updateTask(task);
-                    updateMonthGrid();
+                    Task edited = new Task(task);
+                    edited.setTitle(title);
+                    edited.setDescription(desc);
+                    edited.setCategory(category);
+                    edited.setPriority(priority);
+                    edited.setDueDate(due);
+                    edited.setCompleted(completed);
+                    refreshAfter(tasks.updateTask(edited));
                 }
             }
             return null;
@@ -929,7 +1064,7 @@ public class MonthViewCalendarTab extends VBox {
         dialog.showAndWait();
     }
 
-    private void showDeleteTaskDialog(List<Task> tasks) {
+    private void showDeleteTaskDialog(List<Task> dayTasks) {
         // Get the main window and store its maximized state
         Stage mainStage = (Stage) getScene().getWindow();
         boolean wasMaximized = mainStage.isMaximized();
@@ -957,7 +1092,7 @@ public class MonthViewCalendarTab extends VBox {
         taskList.setPadding(new Insets(10));
         taskList.getStyleClass().add("task-list-container");
         
-        for (Task task : tasks) {
+        for (Task task : dayTasks) {
             // Create card-like container for each task
             VBox taskCard = new VBox(5);
             taskCard.setPadding(new Insets(10));
@@ -1028,9 +1163,8 @@ public class MonthViewCalendarTab extends VBox {
                 
                 confirmDialog.showAndWait().ifPresent(response -> {
                     if (response == ButtonType.OK) {
-                        taskManager.deleteTask(task.getId());
                         dialog.close();
-                        updateMonthGrid();
+                        refreshAfter(tasks.deleteTask(task.getId()));
                     }
                 });
             });
@@ -1041,7 +1175,7 @@ public class MonthViewCalendarTab extends VBox {
         // Add scroll pane if there are many tasks
         ScrollPane scrollPane = new ScrollPane(taskList);
         scrollPane.setFitToWidth(true);
-        scrollPane.setPrefHeight(Math.min(tasks.size() * 100, 300));
+        scrollPane.setPrefHeight(Math.min(dayTasks.size() * 100, 300));
         scrollPane.getStyleClass().add("dialog-scroll-pane");
         
         content.getChildren().add(scrollPane);
@@ -1065,7 +1199,7 @@ public class MonthViewCalendarTab extends VBox {
         dialog.showAndWait();
     }
 
-    private void showSelectTaskToEditDialog(List<Task> tasks) {
+    private void showSelectTaskToEditDialog(List<Task> dayTasks) {
         // Get the main window and store its maximized state
         Stage mainStage = (Stage) getScene().getWindow();
         boolean wasMaximized = mainStage.isMaximized();
@@ -1093,7 +1227,7 @@ public class MonthViewCalendarTab extends VBox {
         taskList.setPadding(new Insets(10));
         taskList.getStyleClass().add("task-list-container");
         
-        for (Task task : tasks) {
+        for (Task task : dayTasks) {
             // Create card-like container for each task
             VBox taskCard = new VBox(5);
             taskCard.setPadding(new Insets(10));
@@ -1136,7 +1270,7 @@ public class MonthViewCalendarTab extends VBox {
         // Add scroll pane if there are many tasks
         ScrollPane scrollPane = new ScrollPane(taskList);
         scrollPane.setFitToWidth(true);
-        scrollPane.setPrefHeight(Math.min(tasks.size() * 100, 300));
+        scrollPane.setPrefHeight(Math.min(dayTasks.size() * 100, 300));
         scrollPane.getStyleClass().add("dialog-scroll-pane");
         
         content.getChildren().add(scrollPane);
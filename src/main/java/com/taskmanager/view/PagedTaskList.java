@@ -0,0 +1,370 @@
+package com.taskmanager.view;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.service.AsyncTaskManager;
+import com.taskmanager.service.TaskChangeEvent;
+import com.taskmanager.service.TaskChangeListener;
+import com.taskmanager.service.TaskManager;
+import com.taskmanager.service.TaskQuery;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only list of the tasks matching a query, loaded a page at a time as a ListView asks for
+ * them, so only the pages around what is on screen are held in memory.
+ *
+ * The size comes from a count query. A page is fetched with a keyset query continuing from the
+ * last task of the page before it when that page has been seen, which is the case when scrolling;
+ * jumping far ahead with the scrollbar falls back to an offset query for that one page. Only the
+ * most recently used pages are kept, plus the due date and id of each page's last task.
+ *
+ * Nothing is read on the JavaFX Application Thread. A row whose page is not loaded yet reads as
+ * null (an empty cell) while the page is fetched through {@link AsyncTaskManager}; when it arrives
+ * listeners are told that range was replaced. {@link #reload(TaskQuery)} keeps showing the old
+ * size until the new count is in.
+ *
+ * Registered as a {@link TaskChangeListener}, single-task changes are applied as one targeted
+ * insert, removal or replacement at the task's sorted position, so a ListView only updates the
+ * affected rows instead of treating every row as replaced. The counts that position needs are
+ * taken by a job queued behind the write on the writer thread, like page reads, so every event
+ * and page reaches the list in the order the database saw them and the write itself never waits
+ * for them. If another change landed before the counts were taken, the list reloads instead.
+ *
+ * Keyset paging needs the query in due-date order; {@link #reload(TaskQuery)} drops any sort keys.
+ * Apart from {@link #onTaskChanged}, must be used on the JavaFX Application Thread.
+ */
+public final class PagedTaskList extends ObservableListBase<Task> implements TaskChangeListener {
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 8;
+
+    private final AsyncTaskManager tasks;
+    private final int pageSize;
+    private final LinkedHashMap<Integer, List<Task>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Task>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // Last task of every page loaded so far (ids and due dates only), the cursors for the next pages
+    private final Map<Integer, Task> pageEnds = new HashMap<>();
+    // Page number to the token of its request in flight; a request whose token was dropped is stale
+    private final Map<Integer, Object> pendingPages = new HashMap<>();
+    // Read by onTaskChanged on the writing thread
+    private volatile TaskQuery query;
+    private int size;
+    // Token of the reload in flight, if any; until it lands change events are already reflected by it
+    private Object pendingReload;
+
+    public PagedTaskList(AsyncTaskManager tasks, TaskQuery query) {
+        this(tasks, query, DEFAULT_PAGE_SIZE);
+    }
+
+    public PagedTaskList(AsyncTaskManager tasks, TaskQuery query, int pageSize) {
+        this.tasks = tasks;
+        this.pageSize = pageSize;
+        reload(query);
+    }
+
+    /**
+     * Switches to {@code query} (or re-reads the current one after a change), dropping every cached
+     * page. Once the count and first page are read, listeners are told the whole list was replaced.
+     */
+    public void reload(TaskQuery query) {
+        TaskQuery normalized = normalize(query);
+        this.query = normalized;
+        pages.clear();
+        pageEnds.clear();
+        pendingPages.clear();
+
+        Object token = new Object();
+        pendingReload = token;
+        tasks.inWriteOrder(manager -> new FirstPage(manager.count(normalized), manager.query(normalized.withWindow(0, pageSize))))
+            .whenComplete((loaded, error) -> {
+                if (pendingReload != token) {
+                    // A later reload superseded this one
+                    return;
+                }
+                pendingReload = null;
+                if (error != null) {
+                    report(error);
+                    return;
+                }
+                int oldSize = size;
+                size = loaded.count;
+                putPage(0, loaded.tasks);
+
+                beginChange();
+                // The old items were never all loaded; listeners only get placeholders for them
+                nextReplace(0, size, Collections.nCopies(oldSize, null));
+                endChange();
+            });
+    }
+
+    private record FirstPage(int count, List<Task> tasks) {
+    }
+
+    /**
+     * Called by {@link TaskManager} on the writing thread while it still holds up other writes, so
+     * this only notes the change and how many changes came before it. The counts are taken by a
+     * job on the writer thread of {@link AsyncTaskManager}, queued behind the current write, and
+     * the change is applied where that job's result is delivered.
+     */
+    @Override
+    public void onTaskChanged(TaskChangeEvent event) {
+        TaskQuery seen = query;
+        if (event.getType() == TaskChangeEvent.Type.RELOADED) {
+            tasks.getCallbackExecutor().execute(() -> apply(event, seen, null));
+            return;
+        }
+        long changeCount = tasks.getTaskManager().getChangeCount();
+        tasks.inWriteOrder(manager -> manager.getChangeCount() == changeCount ? Counts.of(manager, seen, event.getTask()) : null)
+            .whenComplete((counts, error) -> {
+                if (error != null) {
+                    report(error);
+                    return;
+                }
+                apply(event, seen, counts);
+            });
+    }
+
+    /**
+     * The matching count right after a change ({@code total}) and, when the changed task matches,
+     * the number of matches after it ({@code after}, else -1).
+     */
+    private record Counts(int total, int after) {
+        static Counts of(TaskManager manager, TaskQuery query, Task task) {
+            int after = task != null && query.matches(task) ? manager.count(query.withAfter(task)) : -1;
+            return new Counts(manager.count(query), after);
+        }
+    }
+
+    /**
+     * Applies a change given its {@link Counts}, or null when other changes landed before they
+     * were taken. The task's old position is found among the loaded pages; pages from the first
+     * affected one on are dropped and re-read on demand. When the old position cannot be known
+     * (the task is not loaded) or the counts are missing or do not add up, it falls back to
+     * {@link #reload}.
+     */
+    private void apply(TaskChangeEvent event, TaskQuery seen, Counts counts) {
+        if (event.getType() == TaskChangeEvent.Type.RELOADED) {
+            // Bulk changes come from other threads, so a reload in flight may predate this one
+            reload(query);
+            return;
+        }
+        if (seen != query || pendingReload != null) {
+            // The filter changed since, or a reload is on its way that already includes this change
+            return;
+        }
+        if (counts == null) {
+            // A burst of writes ran ahead of the counts; one reload covers all of it
+            reload(query);
+            return;
+        }
+        int total = counts.total();
+        int after = counts.after();
+        switch (event.getType()) {
+            case ADDED -> {
+                if (after >= 0) {
+                    insert(total, after);
+                }
+            }
+            case UPDATED -> update(event.getTask(), total, after);
+            case DELETED -> {
+                int oldIndex = indexOfLoaded(event.getTaskId());
+                if (oldIndex >= 0 && total == size - 1) {
+                    Task removed = loaded(oldIndex);
+                    dropPagesFrom(oldIndex);
+                    size--;
+                    beginChange();
+                    nextRemove(oldIndex, removed);
+                    endChange();
+                } else if (oldIndex >= 0 || total != size) {
+                    reload(query);
+                }
+            }
+        }
+    }
+
+    private void update(Task task, int total, int after) {
+        boolean matches = after >= 0;
+        int oldIndex = indexOfLoaded(task.getId());
+        if (oldIndex < 0) {
+            if (matches && total == size + 1) {
+                insert(total, after);
+            } else if (total != size || matches) {
+                // Either it left the list or it moved, from a position we never loaded
+                reload(query);
+            }
+            return;
+        }
+
+        int newSize = matches ? size : size - 1;
+        if (total != newSize) {
+            reload(query);
+            return;
+        }
+        Task old = loaded(oldIndex);
+        int newIndex = matches ? total - after - 1 : -1;
+        beginChange();
+        if (newIndex == oldIndex) {
+            // Same row: patch the loaded page rather than re-reading it, with a copy the writer cannot touch
+            int number = oldIndex / pageSize;
+            List<Task> page = pages.get(number);
+            page.set(oldIndex % pageSize, new Task(task));
+            if (oldIndex % pageSize == page.size() - 1) {
+                // The page's last row is the next page's cursor; a stale due date would read it again
+                putPage(number, page);
+                pendingPages.remove(number + 1);
+            }
+            nextSet(oldIndex, old);
+        } else {
+            dropPagesFrom(matches ? Math.min(oldIndex, newIndex) : oldIndex);
+            size = newSize;
+            nextRemove(oldIndex, old);
+            if (matches) {
+                nextAdd(newIndex, newIndex + 1);
+            }
+        }
+        endChange();
+    }
+
+    // The task is stored and matches: everything not after it, minus itself, comes before it
+    private void insert(int total, int after) {
+        if (total != size + 1) {
+            reload(query);
+            return;
+        }
+        int index = total - after - 1;
+        dropPagesFrom(index);
+        size = total;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    private int indexOfLoaded(long taskId) {
+        for (Map.Entry<Integer, List<Task>> page : pages.entrySet()) {
+            List<Task> tasks = page.getValue();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i).getId() == taskId) {
+                    return page.getKey() * pageSize + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Task loaded(int index) {
+        return pages.get(index / pageSize).get(index % pageSize);
+    }
+
+    // Rows from index on have shifted, so their pages, the cursors ending them and any reads of
+    // them still in flight are stale
+    private void dropPagesFrom(int index) {
+        int firstStale = index / pageSize;
+        pages.keySet().removeIf(number -> number >= firstStale);
+        pageEnds.keySet().removeIf(number -> number >= firstStale);
+        pendingPages.keySet().removeIf(number -> number >= firstStale);
+    }
+
+    private static TaskQuery normalize(TaskQuery query) {
+        return query.withSort().withAfter(null).withWindow(0, -1);
+    }
+
+    public TaskQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * The task at {@code index}, or null while its page is still being read.
+     */
+    @Override
+    public Task get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int number = index / pageSize;
+        List<Task> page = pages.get(number);
+        if (page == null) {
+            requestPage(number);
+            return null;
+        }
+        int offset = index % pageSize;
+        // The table changed since the count; the row stays blank until the next reload
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of pages currently held, for monitoring.
+     */
+    public int getCachedPageCount() {
+        return pages.size();
+    }
+
+    private void requestPage(int number) {
+        if (pendingReload != null || pendingPages.containsKey(number)) {
+            return;
+        }
+        Object token = new Object();
+        pendingPages.put(number, token);
+
+        Task previousEnd = pageEnds.get(number - 1);
+        TaskQuery pageQuery;
+        if (number == 0) {
+            pageQuery = query.withWindow(0, pageSize);
+        } else if (previousEnd != null) {
+            pageQuery = query.withAfter(previousEnd).withWindow(0, pageSize);
+        } else {
+            pageQuery = query.withWindow(number * pageSize, pageSize);
+        }
+
+        tasks.inWriteOrder(manager -> manager.query(pageQuery)).whenComplete((page, error) -> {
+            if (pendingPages.get(number) != token) {
+                // Rows shifted or the list was reloaded while this was in flight; read it again if still needed
+                if (error == null && !pages.containsKey(number) && number * pageSize < size) {
+                    requestPage(number);
+                }
+                return;
+            }
+            pendingPages.remove(number);
+            if (error != null) {
+                report(error);
+                return;
+            }
+            putPage(number, page);
+            int from = number * pageSize;
+            int to = Math.min(size, from + pageSize);
+            if (from < to) {
+                beginChange();
+                nextReplace(from, to, Collections.nCopies(to - from, null));
+                endChange();
+            }
+        });
+    }
+
+    private void putPage(int number, List<Task> page) {
+        pages.put(number, page);
+        if (!page.isEmpty()) {
+            Task last = page.get(page.size() - 1);
+            Task cursor = new Task();
+            cursor.setId(last.getId());
+            cursor.setDueDate(last.getDueDate());
+            pageEnds.put(number, cursor);
+        }
+    }
+
+    // Failed reads would otherwise vanish inside their future; surface them like an exception thrown here
+    private static void report(Throwable error) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Reads the connection PRAGMAs back under the performance and default profiles.
+ */
+class DatabaseProfileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void performanceProfileUsesWalAndReadOnlyReaders() throws SQLException {
+        DatabaseService db = TestTaskManagers.openDatabase(dir, true);
+        try {
+            assertEquals("wal", db.execute("PRAGMA journal_mode", false));
+            // NORMAL
+            assertEquals("1", db.execute("PRAGMA synchronous", false));
+            assertEquals("0", db.execute("PRAGMA query_only", false));
+
+            Task task = new Task("written", "", "Work", 1, LocalDateTime.of(2026, 1, 1, 9, 0));
+            db.addTask(task);
+            // The pool hands its connections out in turn, so this visits each of them
+            for (int i = 0; i < 4; i++) {
+                assertEquals("1", db.execute("PRAGMA query_only", true));
+                assertEquals("written", db.execute("SELECT title FROM tasks WHERE id = " + task.getId(), true));
+                SQLException e = assertThrows(SQLException.class, () -> db.execute("DELETE FROM tasks", true));
+                assertTrue(e.getMessage().contains("readonly"), e::getMessage);
+            }
+            assertEquals("1", db.execute("SELECT COUNT(*) FROM tasks", false));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void defaultProfileLeavesWalAgain() throws SQLException {
+        TestTaskManagers.openDatabase(dir, true).close();
+
+        DatabaseService db = TestTaskManagers.openDatabase(dir, false);
+        try {
+            assertEquals("delete", db.execute("PRAGMA journal_mode", false));
+            // FULL, SQLite's default
+            assertEquals("2", db.execute("PRAGMA synchronous", false));
+            // Reads share the write connection
+            assertEquals("0", db.execute("PRAGMA query_only", true));
+        } finally {
+            db.close();
+        }
+    }
+}
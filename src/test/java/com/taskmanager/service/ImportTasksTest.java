@@ -0,0 +1,150 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks {@link DatabaseService#importTasks} as a single transaction: replace mode deletes and
+ * inserts together, a failure in a later chunk rolls everything back including the dropped
+ * triggers, and afterwards task_stats and the change log hold what the row triggers would have
+ * written, plus one 'R' entry.
+ */
+class ImportTasksTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 8, 0);
+    private static final String TRIGGERS = "SELECT group_concat(name, ',') FROM "
+        + "(SELECT name FROM sqlite_master WHERE type = 'trigger' ORDER BY name)";
+
+    @TempDir
+    Path dir;
+
+    private DatabaseService db;
+    private String triggers;
+
+    @BeforeEach
+    void open() throws SQLException {
+        db = TestTaskManagers.openDatabase(dir);
+        triggers = db.execute(TRIGGERS, false);
+        for (int i = 0; i < 50; i++) {
+            Task task = new Task("old " + i, "d", "Old" + i % 3, 1 + i % 5, START.plusHours(i));
+            task.setCompleted(i % 4 == 0);
+            db.addTask(task);
+        }
+    }
+
+    @AfterEach
+    void close() {
+        db.close();
+    }
+
+    @Test
+    void replaceDeletesEveryRowInTheSameTransaction() throws SQLException {
+        long cursor = db.getLatestChangeSeq();
+        List<Task> imported = tasks("new", 250);
+
+        assertEquals(250, db.importTasks(imported.iterator(), true, 100, count -> { }));
+
+        List<Task> stored = db.getAllTasks();
+        assertEquals(250, stored.size());
+        assertTrue(stored.stream().allMatch(task -> task.getTitle().startsWith("new ")));
+        assertEquals(InMemoryTaskRepositoryTest.keys(imported), InMemoryTaskRepositoryTest.keys(stored));
+        assertImportLogged(cursor);
+    }
+
+    @Test
+    void appendKeepsExistingRowsAndCountsThemAll() throws SQLException {
+        long cursor = db.getLatestChangeSeq();
+        List<Long> progress = new ArrayList<>();
+
+        db.importTasks(tasks("new", 250).iterator(), false, 100, progress::add);
+
+        assertEquals(List.of(100L, 200L, 250L), progress);
+        assertEquals(300, db.getAllTasks().size());
+        assertEquals(300, db.getTaskStatistics(START).getTotal());
+        assertEquals(13 + 125, db.getTaskStatistics(START).getCompleted());
+        assertImportLogged(cursor);
+    }
+
+    @ParameterizedTest(name = "replace={0}")
+    @ValueSource(booleans = {true, false})
+    void failingRowInALaterChunkRollsBackEverything(boolean replace) throws SQLException {
+        List<String> before = InMemoryTaskRepositoryTest.keys(db.getAllTasks());
+        long cursor = db.getLatestChangeSeq();
+        List<Task> imported = tasks("new", 250);
+        // Rejected by the NOT NULL title column in the third chunk, after two chunks were inserted
+        imported.get(230).setTitle(null);
+
+        assertThrows(RuntimeException.class, () -> db.importTasks(imported.iterator(), replace, 100, count -> { }));
+
+        assertRolledBack(before, cursor);
+    }
+
+    @Test
+    void sourceFailingMidStreamRollsBackEverything() throws SQLException {
+        List<String> before = InMemoryTaskRepositoryTest.keys(db.getAllTasks());
+        long cursor = db.getLatestChangeSeq();
+        Iterator<Task> source = tasks("new", 250).iterator();
+        Iterator<Task> failing = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                if (++read == 170) {
+                    throw new IllegalStateException("unreadable task");
+                }
+                return source.next();
+            }
+        };
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> db.importTasks(failing, true, 100, count -> { }));
+        assertEquals("unreadable task", e.getMessage());
+
+        assertRolledBack(before, cursor);
+    }
+
+    private void assertImportLogged(long cursor) throws SQLException {
+        assertTrue(db.verifyTaskStats());
+        assertEquals(triggers, db.execute(TRIGGERS, false));
+        // One bulk entry instead of one per deleted and inserted row
+        assertEquals("R", db.execute("SELECT group_concat(change, ',') FROM task_changes WHERE seq > " + cursor, false));
+        assertEquals("1", db.execute("SELECT COUNT(*) FROM task_changes WHERE seq > " + cursor + " AND task_id IS NULL", false));
+        assertTrue(db.changesSince(cursor).isReloadRequired());
+    }
+
+    private void assertRolledBack(List<String> before, long cursor) throws SQLException {
+        assertEquals(before, InMemoryTaskRepositoryTest.keys(db.getAllTasks()));
+        assertEquals(cursor, db.getLatestChangeSeq());
+        assertEquals(triggers, db.execute(TRIGGERS, false));
+        assertTrue(db.verifyTaskStats());
+
+        // The restored row triggers fire again
+        db.addTask(new Task("after", "", "Old0", 1, START));
+        assertEquals("A", db.execute("SELECT change FROM task_changes WHERE seq > " + cursor, false));
+        assertTrue(db.verifyTaskStats());
+        assertEquals(51, db.getTaskStatistics(START).getTotal());
+    }
+
+    // Due after the seeded ones
+    private static List<Task> tasks(String prefix, int count) {
+        return TestTaskManagers.tasks(prefix, count, START.plusDays(10));
+    }
+}
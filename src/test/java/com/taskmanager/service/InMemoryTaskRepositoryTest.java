@@ -0,0 +1,185 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs random writes through a {@link TaskManager} in in-memory mode and checks every read it
+ * answers from memory against the same read from the database underneath.
+ */
+class InMemoryTaskRepositoryTest {
+    private static final String[] CATEGORIES = {"Work", "Home", "Gym"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(11);
+    private DatabaseService db;
+    private TaskManager manager;
+
+    @BeforeEach
+    void open() {
+        db = TestTaskManagers.openDatabase(dir);
+        // Loaded before the manager starts, so the repository's initial load is covered too
+        List<Task> seed = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Sub-millisecond due dates are truncated on the way in; memory must hold the stored value
+            seed.add(new Task("t" + i, i % 3 == 0 ? null : "d" + i, CATEGORIES[i % 3], 1 + random.nextInt(5),
+                START.plusMinutes(random.nextInt(200_000)).plusNanos(random.nextInt(1_000_000_000))));
+        }
+        db.importTasks(seed.iterator(), true, 100, imported -> { });
+        manager = new TaskManager(db, true);
+    }
+
+    @AfterEach
+    void close() {
+        manager.close();
+    }
+
+    @Test
+    void readsMatchTheDatabaseThroughRandomWrites() {
+        for (int step = 0; step < 600; step++) {
+            List<Task> all = manager.getAllTasks();
+            int op = random.nextInt(10);
+            if (op < 3 || all.isEmpty()) {
+                manager.addTask(new Task("n" + step, "x", CATEGORIES[random.nextInt(3)], 1 + random.nextInt(5),
+                    START.plusMinutes(random.nextInt(200_000)).plusNanos(random.nextInt(1_000_000) * 1000L)));
+            } else if (op < 8) {
+                Task task = all.get(random.nextInt(all.size()));
+                task.setCompleted(!task.isCompleted());
+                if (random.nextBoolean()) {
+                    task.setDueDate(task.getDueDate().plusHours(random.nextInt(100) - 50));
+                }
+                if (random.nextBoolean()) {
+                    task.setCategory(CATEGORIES[random.nextInt(3)]);
+                }
+                task.setPriority(1 + random.nextInt(5));
+                manager.updateTask(task);
+            } else {
+                manager.deleteTask(all.get(random.nextInt(all.size())).getId());
+            }
+            if (step % 50 == 0) {
+                assertSameReads("step " + step);
+            }
+        }
+        assertSameReads("end");
+    }
+
+    @Test
+    void undoAndImportKeepMemoryInStep() {
+        Task task = manager.getAllTasks().get(0);
+        task.setTitle("edited");
+        manager.updateTask(task);
+        manager.deleteTask(manager.getAllTasks().get(1).getId());
+        assertSameReads("after edits");
+
+        manager.undo();
+        manager.undo();
+        assertSameReads("after undo");
+
+        manager.importTasks(List.of(new Task("imported", "", "Study", 2, START)), false);
+        assertSameReads("after import");
+        manager.undo();
+        assertSameReads("after undoing the import");
+    }
+
+    @Test
+    void returnedTasksAreCopies() {
+        Task task = manager.getAllTasks().get(0);
+        String title = task.getTitle();
+        LocalDateTime dueDate = task.getDueDate();
+
+        // Changing what a read returned, without saving it, must not reach the stored task or its indexes
+        task.setTitle("unsaved");
+        task.setDueDate(dueDate.plusYears(10));
+        task.setCategory("Unsaved");
+
+        assertEquals(title, manager.getTask(task.getId()).getTitle());
+        assertEquals(dueDate, manager.getAllTasks().get(0).getDueDate());
+        assertEquals(List.of(), manager.getTasksByCategory("Unsaved"));
+        assertSameReads("after mutating a returned task");
+    }
+
+    @Test
+    void indexesFollowChangedFields() {
+        InMemoryTaskRepository repository = new InMemoryTaskRepository(List.of());
+        Task task = new Task("moving", "", "Work", 2, START);
+        task.setId(1);
+        repository.put(task);
+        Task other = new Task("staying", "", "Home", 2, START.plusDays(1));
+        other.setId(2);
+        repository.put(other);
+
+        task.setCategory("Study");
+        task.setPriority(5);
+        task.setCompleted(true);
+        repository.put(task);
+
+        // The old keys no longer list the task, and a key whose last task left is gone
+        assertEquals(List.of("Home", "Study"), repository.getCategories());
+        assertEquals(List.of(), repository.getByCategory("Work"));
+        assertEquals(List.of(2L), ids(repository.getByPriority(2)));
+        assertEquals(List.of(1L), ids(repository.getByPriority(5)));
+        assertEquals(List.of(1L), ids(repository.getByCompleted(true)));
+        assertEquals(List.of(2L), ids(repository.getByCompleted(false)));
+        assertEquals(List.of(2L), ids(repository.getOverdue(START.plusDays(2))));
+
+        repository.remove(1);
+        assertEquals(List.of("Home"), repository.getCategories());
+        assertEquals(List.of(), repository.getByPriority(5));
+        assertEquals(List.of(), repository.getByCompleted(true));
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    void missingTaskIsNull() {
+        assertNull(manager.getTask(Long.MAX_VALUE));
+    }
+
+    private void assertSameReads(String when) {
+        LocalDateTime from = LocalDateTime.of(2025, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 1, 0, 0);
+        assertEquals(keys(db.getAllTasks()), keys(manager.getAllTasks()), "all tasks, " + when);
+        assertEquals(keys(db.getTasksByDateRange(from, to)), keys(manager.getTasksByDateRange(from, to)), "date range, " + when);
+        for (String category : CATEGORIES) {
+            assertEquals(keys(db.getTasksByCategory(category)), keys(manager.getTasksByCategory(category)), category + ", " + when);
+        }
+        for (int priority = 1; priority <= 5; priority++) {
+            assertEquals(keys(db.getTasksByPriority(priority)), keys(manager.getTasksByPriority(priority)), "priority " + priority + ", " + when);
+        }
+        assertEquals(keys(db.getCompletedTasks()), keys(manager.getCompletedTasks()), "completed, " + when);
+        assertEquals(keys(db.getPendingTasks()), keys(manager.getPendingTasks()), "pending, " + when);
+        LocalDateTime now = LocalDateTime.of(2025, 3, 15, 12, 0);
+        assertEquals(keys(db.getOverdueTasks(now)), keys(manager.getOverdueTasks(now)), "overdue, " + when);
+        assertEquals(db.getCategories(), manager.getCategories(), "categories, " + when);
+        for (Task task : db.getAllTasks()) {
+            assertEquals(key(task), key(manager.getTask(task.getId())), "task " + task.getId() + ", " + when);
+        }
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    // Tasks have no equals(); compare every persisted field
+    static List<String> keys(List<Task> tasks) {
+        return tasks.stream().map(InMemoryTaskRepositoryTest::key).toList();
+    }
+
+    static String key(Task task) {
+        return task.getId() + "|" + task.getTitle() + "|" + task.getDescription() + "|" + task.getCategory()
+            + "|" + task.getPriority() + "|" + task.getDueDate() + "|" + task.isCompleted();
+    }
+}
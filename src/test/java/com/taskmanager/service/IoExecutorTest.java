@@ -0,0 +1,103 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the database gate of {@link IoExecutor} on virtual threads and on a platform pool
+ * larger than the gate: no more than {@code maxDatabaseJobs} database jobs run at once, file jobs
+ * are not held up by it, and {@link IoExecutor#shutdownNow()} drops the jobs still waiting.
+ */
+class IoExecutorTest {
+    private static final int MAX_DATABASE_JOBS = 2;
+
+    @ParameterizedTest(name = "virtual={0}")
+    @ValueSource(booleans = {true, false})
+    void gateLimitsConcurrentDatabaseJobs(boolean virtual) throws InterruptedException {
+        ExecutorService threads = threads(virtual);
+        IoExecutor io = new IoExecutor(threads, MAX_DATABASE_JOBS);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(10);
+        try {
+            for (int i = 0; i < 10; i++) {
+                io.database().execute(() -> {
+                    started.incrementAndGet();
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                        done.countDown();
+                    }
+                });
+            }
+
+            // Give the held-back jobs every chance to slip through
+            Thread.sleep(200);
+            assertEquals(MAX_DATABASE_JOBS, started.get());
+
+            // A file job does not queue behind them
+            CountDownLatch fileJob = new CountDownLatch(1);
+            io.execute(fileJob::countDown);
+            assertTrue(fileJob.await(10, TimeUnit.SECONDS));
+
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(10, started.get());
+            assertEquals(MAX_DATABASE_JOBS, peak.get());
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest(name = "virtual={0}")
+    @ValueSource(booleans = {true, false})
+    void shutdownNowStopsQueuedJobs(boolean virtual) throws InterruptedException {
+        ExecutorService threads = threads(virtual);
+        IoExecutor io = new IoExecutor(threads, MAX_DATABASE_JOBS);
+        CountDownLatch bothRunning = new CountDownLatch(MAX_DATABASE_JOBS);
+        AtomicInteger interrupted = new AtomicInteger();
+        AtomicBoolean queuedJobRan = new AtomicBoolean();
+
+        for (int i = 0; i < MAX_DATABASE_JOBS; i++) {
+            io.database().execute(() -> {
+                bothRunning.countDown();
+                try {
+                    new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                }
+            });
+        }
+        assertTrue(bothRunning.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 8; i++) {
+            io.database().execute(() -> queuedJobRan.set(true));
+        }
+
+        io.shutdownNow();
+
+        assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(MAX_DATABASE_JOBS, interrupted.get());
+        assertFalse(queuedJobRan.get(), "a job queued at the gate ran after shutdownNow");
+    }
+
+    // A platform pool with room for more jobs than the gate admits, so only the gate limits them
+    private static ExecutorService threads(boolean virtual) {
+        return virtual ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(16);
+    }
+}
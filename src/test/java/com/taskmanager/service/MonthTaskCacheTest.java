@@ -0,0 +1,229 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives a {@link MonthTaskCache} over a stub loader that counts loads per month, making the
+ * same invalidation calls {@link TaskManager} makes for each kind of write, and checks which
+ * months are loaded again afterwards.
+ */
+class MonthTaskCacheTest {
+    private static final YearMonth JAN = YearMonth.of(2026, 1);
+    private static final YearMonth FEB = YearMonth.of(2026, 2);
+    private static final YearMonth MAR = YearMonth.of(2026, 3);
+    private static final YearMonth APR = YearMonth.of(2026, 4);
+    private static final YearMonth JUN = YearMonth.of(2026, 6);
+
+    // What the stub database holds, and how often each month was loaded from it
+    private final Map<Long, Task> tasks = new LinkedHashMap<>();
+    private final Map<YearMonth, Integer> loads = new HashMap<>();
+    private final List<Runnable> prefetches = new ArrayList<>();
+    // Run by the loader after it has read the tasks, as a write racing with the load would
+    private Runnable duringLoad;
+    private long nextId = 1;
+
+    @Test
+    void writeInsideACachedMonthDropsOnlyThatMonth() {
+        MonthTaskCache cache = cache(12, Long.MAX_VALUE);
+        seed(JAN, FEB, MAR);
+        cache.get(JAN);
+        cache.get(FEB);
+        cache.get(MAR);
+
+        // addTask drops the new due date's month
+        Task added = add(FEB.atDay(20).atTime(9, 0));
+        cache.invalidate(FEB);
+        // A write in a month that is not cached drops nothing
+        add(JUN.atDay(1).atTime(9, 0));
+        cache.invalidate(JUN);
+
+        cache.get(JAN);
+        cache.get(MAR);
+        assertEquals(1, loads(JAN));
+        assertEquals(1, loads(MAR));
+        assertTrue(ids(cache.get(FEB)).contains(added.getId()));
+        assertEquals(2, loads(FEB));
+    }
+
+    @Test
+    void taskMovedBetweenMonthsDropsBoth() {
+        MonthTaskCache cache = cache(12, Long.MAX_VALUE);
+        seed(JAN, FEB, MAR);
+        cache.get(JAN);
+        cache.get(FEB);
+        cache.get(MAR);
+
+        // updateTask drops every month listing the task, then the new due date's month
+        Task moved = new Task(tasks.values().iterator().next());
+        moved.setDueDate(MAR.atDay(15).atTime(12, 0));
+        tasks.put(moved.getId(), moved);
+        cache.invalidateTask(moved.getId());
+        cache.invalidate(MAR);
+
+        assertFalse(ids(cache.get(JAN)).contains(moved.getId()));
+        assertTrue(ids(cache.get(MAR)).contains(moved.getId()));
+        cache.get(FEB);
+        assertEquals(2, loads(JAN));
+        assertEquals(2, loads(MAR));
+        assertEquals(1, loads(FEB));
+
+        // deleteTask drops every month listing the task
+        tasks.remove(moved.getId());
+        cache.invalidateTask(moved.getId());
+        assertFalse(ids(cache.get(MAR)).contains(moved.getId()));
+        cache.get(JAN);
+        cache.get(FEB);
+        assertEquals(3, loads(MAR));
+        assertEquals(2, loads(JAN));
+        assertEquals(1, loads(FEB));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMonthBeyondMonthLimit() {
+        MonthTaskCache cache = cache(3, Long.MAX_VALUE);
+        seed(JAN, FEB, MAR, APR);
+        cache.get(JAN);
+        cache.get(FEB);
+        cache.get(MAR);
+        cache.get(JAN);
+        cache.get(APR);
+
+        cache.get(JAN);
+        cache.get(MAR);
+        cache.get(APR);
+        assertEquals(1, loads(JAN));
+        assertEquals(1, loads(MAR));
+        assertEquals(1, loads(APR));
+        cache.get(FEB);
+        assertEquals(2, loads(FEB));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMonthBeyondByteLimit() {
+        // Each seeded month is estimated at 10 * (200 + 2 * 2) bytes; room for two and a half
+        MonthTaskCache cache = cache(12, 5_100);
+        seed(JAN, FEB, MAR);
+        cache.get(JAN);
+        cache.get(FEB);
+        cache.get(MAR);
+
+        cache.get(FEB);
+        cache.get(MAR);
+        assertEquals(1, loads(FEB));
+        assertEquals(1, loads(MAR));
+        cache.get(JAN);
+        assertEquals(2, loads(JAN));
+
+        // A month larger than the limit on its own is still kept until the next one arrives
+        MonthTaskCache tiny = cache(12, 100);
+        tiny.get(FEB);
+        tiny.get(FEB);
+        assertEquals(2, loads(FEB));
+    }
+
+    @Test
+    void prefetchStoresTheMonthForLater() {
+        MonthTaskCache cache = cache(12, Long.MAX_VALUE);
+        seed(FEB);
+        cache.prefetch(FEB);
+        cache.prefetch(FEB);
+        assertEquals(1, prefetches.size(), "second prefetch of a pending month was queued");
+        runPrefetches();
+
+        assertEquals(10, ids(cache.get(FEB)).size());
+        assertEquals(1, loads(FEB));
+        cache.prefetch(FEB);
+        assertTrue(prefetches.isEmpty(), "cached month was prefetched again");
+    }
+
+    @Test
+    void prefetchThatRacedWithAWriteIsNotStored() {
+        MonthTaskCache cache = cache(12, Long.MAX_VALUE);
+        seed(FEB);
+        cache.prefetch(FEB);
+        List<Task> added = new ArrayList<>();
+        duringLoad = () -> {
+            added.add(add(FEB.atDay(28).atTime(18, 0)));
+            cache.invalidate(FEB);
+        };
+        runPrefetches();
+        duringLoad = null;
+
+        // The prefetch read the month before the write; it must be loaded again
+        assertTrue(ids(cache.get(FEB)).contains(added.get(0).getId()));
+        assertEquals(2, loads(FEB));
+    }
+
+    @Test
+    void callersGetCopies() {
+        MonthTaskCache cache = cache(12, Long.MAX_VALUE);
+        seed(JAN);
+        Task shown = cache.get(JAN).values().iterator().next().get(0);
+        shown.setTitle("edited in place");
+
+        Task again = cache.get(JAN).get(shown.getDueDate().toLocalDate()).get(0);
+        assertEquals("t", again.getTitle());
+        assertEquals(1, loads(JAN));
+    }
+
+    private MonthTaskCache cache(int maxMonths, long maxBytes) {
+        return new MonthTaskCache(this::load, maxMonths, maxBytes, prefetches::add);
+    }
+
+    private Map<LocalDate, List<Task>> load(YearMonth month) {
+        loads.merge(month, 1, Integer::sum);
+        Map<LocalDate, List<Task>> tasksByDay = new HashMap<>();
+        for (Task task : tasks.values()) {
+            if (YearMonth.from(task.getDueDate()).equals(month)) {
+                tasksByDay.computeIfAbsent(task.getDueDate().toLocalDate(), day -> new ArrayList<>()).add(new Task(task));
+            }
+        }
+        if (duringLoad != null) {
+            duringLoad.run();
+        }
+        return tasksByDay;
+    }
+
+    private void runPrefetches() {
+        List<Runnable> queued = new ArrayList<>(prefetches);
+        prefetches.clear();
+        queued.forEach(Runnable::run);
+    }
+
+    // Ten tasks per month with one-character title and category
+    private void seed(YearMonth... months) {
+        for (YearMonth month : months) {
+            for (int day = 1; day <= 10; day++) {
+                add(month.atDay(day).atTime(9, 0));
+            }
+        }
+    }
+
+    private Task add(LocalDateTime dueDate) {
+        Task task = new Task("t", null, "c", 1, dueDate);
+        task.setId(nextId++);
+        tasks.put(task.getId(), task);
+        return task;
+    }
+
+    private int loads(YearMonth month) {
+        return loads.getOrDefault(month, 0);
+    }
+
+    private static List<Long> ids(Map<LocalDate, List<Task>> tasksByDay) {
+        return tasksByDay.values().stream().flatMap(List::stream).map(Task::getId).toList();
+    }
+}
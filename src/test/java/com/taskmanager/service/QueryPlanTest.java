@@ -0,0 +1,93 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that the public task queries are answered from the idx_tasks_* indexes, without a full
+ * table scan or a temporary sort.
+ */
+class QueryPlanTest {
+    private static final LocalDateTime MONTH_START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    private DatabaseService db;
+
+    @BeforeEach
+    void openDatabase() {
+        db = TestTaskManagers.openDatabase(dir);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Task task = new Task("Task " + i, "", i % 3 == 0 ? "Work" : "Home", 1 + i % 5, MONTH_START.plusHours(i * 7L));
+            task.setCompleted(i % 4 == 0);
+            tasks.add(task);
+        }
+        db.importTasks(tasks.iterator(), true, 100, imported -> { });
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        db.close();
+    }
+
+    @Test
+    void monthRangeUsesDueDateIndex() {
+        assertIndexed(db -> db.getTasksByDateRange(MONTH_START, MONTH_START.plusMonths(1)));
+    }
+
+    @Test
+    void categoryUsesCategoryIndex() {
+        assertIndexed(db -> db.getTasksByCategory("Work"));
+    }
+
+    @Test
+    void statusQueriesUseCompletedIndex() {
+        assertIndexed(DatabaseService::getCompletedTasks);
+        assertIndexed(DatabaseService::getPendingTasks);
+        assertIndexed(db -> db.getOverdueTasks(MONTH_START.plusDays(10)));
+    }
+
+    @Test
+    void priorityUsesPriorityIndex() {
+        assertIndexed(db -> db.getTasksByPriority(3));
+    }
+
+    @Test
+    void combinedQueryUsesAnIndex() {
+        assertIndexed(db -> db.queryTasks(TaskQuery.all()
+            .withCategories(List.of("Work"))
+            .withDueBetween(MONTH_START, MONTH_START.plusMonths(1))));
+    }
+
+    // Runs the query, then explains every statement it prepared
+    private void assertIndexed(Consumer<DatabaseService> query) {
+        Set<String> before = db.getPreparedSql();
+        query.accept(db);
+        Set<String> prepared = new HashSet<>(db.getPreparedSql());
+        prepared.removeAll(before);
+        assertFalse(prepared.isEmpty(), "query prepared no new statement");
+
+        for (String sql : prepared) {
+            List<String> plan = db.explainQueryPlan(sql);
+            assertTrue(plan.stream().anyMatch(step -> step.matches(".*USING (COVERING )?INDEX idx_tasks_.*")),
+                () -> "no idx_tasks_ index in " + plan + " for " + sql);
+            assertFalse(plan.stream().anyMatch(step -> step.contains("TEMP B-TREE")),
+                () -> "temporary sort in " + plan + " for " + sql);
+        }
+    }
+}
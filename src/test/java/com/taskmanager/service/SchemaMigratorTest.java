@@ -0,0 +1,244 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.DailyCounts;
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Opens databases at each older schema version, including the unversioned layout with ISO-8601
+ * text dates, and checks they come out at the latest version with the same tasks.
+ */
+class SchemaMigratorTest {
+    private static final int LATEST = DatabaseService.migrations().size();
+
+    // The unversioned (version 0) table, as created before schema migrations existed
+    private static final String LEGACY_TABLE = """
+        CREATE TABLE tasks (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            title TEXT NOT NULL,
+            description TEXT,
+            category TEXT NOT NULL,
+            priority INTEGER NOT NULL,
+            due_date TEXT NOT NULL,
+            completed BOOLEAN NOT NULL DEFAULT 0,
+            created_at TEXT NOT NULL
+        )
+    """;
+
+    @TempDir
+    Path dir;
+
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        url = TestTaskManagers.url(dir);
+    }
+
+    @Test
+    void freshDatabaseIsCreatedAtLatestVersion() throws SQLException {
+        TestTaskManagers.openDatabase(dir).close();
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(LATEST, SchemaMigrator.readVersion(connection));
+            List<String> names = strings(connection, "SELECT name FROM sqlite_master WHERE type IN ('table', 'index') ORDER BY name");
+            assertTrue(names.containsAll(List.of("tasks", "task_stats", "task_changes", "idx_tasks_due_date",
+                "idx_tasks_category_due_date", "idx_tasks_completed_due_date", "idx_tasks_priority_due_date")), names::toString);
+        }
+    }
+
+    @Test
+    void unversionedDatabaseIsUpgraded() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(LEGACY_TABLE);
+            insertLegacyRows(stmt);
+        }
+
+        assertUpgraded();
+    }
+
+    @Test
+    void versionTwoDatabaseIsUpgraded() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(2, new SchemaMigrator(DatabaseService.migrations().subList(0, 2)).migrate(connection));
+            try (Statement stmt = connection.createStatement()) {
+                insertLegacyRows(stmt);
+            }
+        }
+
+        assertUpgraded();
+    }
+
+    @Test
+    void subSecondAndEndOfDayTimesConvertExactly() throws SQLException {
+        List<String> texts = List.of("2025-12-31T23:59:59.999", "2025-12-31T23:59:59.999999999",
+            "2025-03-02T10:00:00.1236", "2025-06-30T23:59:59.5", "2024-02-29T23:59");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(LEGACY_TABLE);
+            for (String text : texts) {
+                stmt.execute("INSERT INTO tasks (title, category, priority, due_date, completed, created_at) VALUES ('"
+                    + text + "', 'Work', 1, '" + text + "', 1, '" + text + "')");
+            }
+        }
+
+        DatabaseService db = TestTaskManagers.openDatabase(dir);
+        try {
+            for (Task task : db.getAllTasks()) {
+                // What storing the parsed LocalDateTime today would give: truncated to milliseconds
+                LocalDateTime written = DatabaseService.fromEpochMillis(DatabaseService.toEpochMillis(LocalDateTime.parse(task.getTitle())));
+                assertEquals(written, task.getDueDate(), task.getTitle());
+            }
+            // Nothing due at the end of a day moved into the next one
+            DailyCounts perDay = db.getCompletedTasksPerDay(LocalDate.of(2025, 12, 31), LocalDate.of(2026, 1, 1));
+            assertEquals(2, perDay.getCount(0));
+            assertEquals(0, perDay.getCount(1));
+            assertTrue(db.verifyTaskStats());
+        } finally {
+            db.close();
+        }
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(strings(connection, "SELECT due_date FROM tasks ORDER BY id"),
+                strings(connection, "SELECT created_at FROM tasks ORDER BY id"));
+        }
+    }
+
+    @Test
+    void unreadableDueDateStopsTheUpgradeAtTheLastGoodVersion() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(LEGACY_TABLE);
+            stmt.execute("INSERT INTO tasks (title, category, priority, due_date, created_at) VALUES ('Bad', 'Work', 1, 'soon', '2025-01-01T00:00')");
+        }
+
+        RuntimeException e = assertThrows(RuntimeException.class, this::open);
+        assertTrue(causes(e).contains("Task 1 has an unreadable due_date: 'soon'"), () -> causes(e));
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(2, SchemaMigrator.readVersion(connection));
+            assertEquals(List.of("soon"), strings(connection, "SELECT due_date FROM tasks"));
+        }
+    }
+
+    @Test
+    void failedStepRollsBackItsOwnChanges() throws SQLException {
+        SchemaMigrator.Migration first = new SchemaMigrator.Migration(1, "first", connection -> execute(connection, "CREATE TABLE one (x)"));
+        SchemaMigrator.Migration failing = new SchemaMigrator.Migration(2, "failing", connection -> {
+            execute(connection, "CREATE TABLE two (x)");
+            throw new SQLException("step failed");
+        });
+        SchemaMigrator.Migration fixed = new SchemaMigrator.Migration(2, "fixed", connection -> execute(connection, "CREATE TABLE two (x)"));
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            SQLException e = assertThrows(SQLException.class, () -> new SchemaMigrator(List.of(first, failing)).migrate(connection));
+            assertEquals("step failed", e.getCause().getMessage());
+            assertEquals(1, SchemaMigrator.readVersion(connection));
+            assertTrue(connection.getAutoCommit());
+            assertEquals(List.of("one"), strings(connection, "SELECT name FROM sqlite_master WHERE type = 'table' ORDER BY name"));
+
+            // The failed step is retried from where it stopped
+            assertEquals(2, new SchemaMigrator(List.of(first, fixed)).migrate(connection));
+            assertEquals(List.of("one", "two"), strings(connection, "SELECT name FROM sqlite_master WHERE type = 'table' ORDER BY name"));
+        }
+    }
+
+    @Test
+    void newerDatabaseIsRejected() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            execute(connection, "PRAGMA user_version = " + (LATEST + 1));
+            SQLException e = assertThrows(SQLException.class, () -> new SchemaMigrator(DatabaseService.migrations()).migrate(connection));
+            assertTrue(e.getMessage().contains("newer than the supported version"), e::getMessage);
+        }
+    }
+
+    @Test
+    void nonContiguousVersionsAreRejected() {
+        SchemaMigrator.Migration skipped = new SchemaMigrator.Migration(2, "skipped", connection -> { });
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(List.of(skipped)));
+    }
+
+    // Text dates in every precision LocalDateTime.toString() produces, a deleted last row, and an
+    // unreadable created_at
+    private static void insertLegacyRows(Statement stmt) throws SQLException {
+        stmt.execute("""
+            INSERT INTO tasks (title, description, category, priority, due_date, completed, created_at) VALUES
+                ('Minutes', 'a', 'Work', 1, '2025-03-01T09:30', 0, '2025-02-01T08:00'),
+                ('Seconds', 'b', 'Home', 2, '2025-03-01T09:30:15', 1, '2025-02-01T08:00:01'),
+                ('Nanos', 'c', 'Work', 3, '2025-03-02T10:00:00.123456789', 1, 'not a date'),
+                ('Deleted', 'd', 'Home', 4, '2025-03-03T00:00', 0, '2025-02-01T08:00')
+        """);
+        stmt.execute("DELETE FROM tasks WHERE title = 'Deleted'");
+    }
+
+    private void assertUpgraded() throws SQLException {
+        DatabaseService db = TestTaskManagers.openDatabase(dir);
+        try {
+            List<Task> tasks = db.getAllTasks();
+            assertEquals(List.of("Minutes", "Seconds", "Nanos"), tasks.stream().map(Task::getTitle).toList());
+            assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30), tasks.get(0).getDueDate());
+            assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30, 15), tasks.get(1).getDueDate());
+            assertEquals(LocalDateTime.of(2025, 3, 2, 10, 0, 0, 123_000_000), tasks.get(2).getDueDate());
+            assertEquals(List.of(false, true, true), tasks.stream().map(Task::isCompleted).toList());
+            assertTrue(db.verifyTaskStats());
+            assertEquals(2, db.getTaskStatistics(LocalDateTime.of(2025, 1, 1, 0, 0)).getCompleted());
+
+            // The deleted task's id is not handed out again
+            Task added = new Task("Added", "", "Home", 1, LocalDateTime.of(2025, 4, 1, 0, 0));
+            db.addTask(added);
+            assertEquals(5, added.getId());
+        } finally {
+            db.close();
+        }
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(LATEST, SchemaMigrator.readVersion(connection));
+            assertEquals(List.of(
+                    String.valueOf(DatabaseService.toEpochMillis(LocalDateTime.of(2025, 2, 1, 8, 0))),
+                    String.valueOf(DatabaseService.toEpochMillis(LocalDateTime.of(2025, 2, 1, 8, 0, 1))),
+                    String.valueOf(DatabaseService.toEpochMillis(LocalDateTime.of(2025, 3, 2, 10, 0, 0, 123_000_000)))),
+                strings(connection, "SELECT created_at FROM tasks WHERE id <= 3 ORDER BY id"));
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static List<String> strings(Connection connection, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+
+    private static String causes(Throwable error) {
+        StringBuilder messages = new StringBuilder();
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            messages.append(cause.getMessage()).append('\n');
+        }
+        return messages.toString();
+    }
+}
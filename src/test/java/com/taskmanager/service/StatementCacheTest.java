@@ -0,0 +1,137 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks reuse on a hit, least-recently-used eviction at the default 32 statements, that evicted
+ * statements are closed, and that only statements that ask for generated keys are prepared with
+ * {@link Statement#RETURN_GENERATED_KEYS}.
+ */
+class StatementCacheTest {
+    @TempDir
+    Path dir;
+
+    private Connection connection;
+    // "keys " or "plain " followed by the SQL, for every statement the cache prepared
+    private final List<String> prepared = new ArrayList<>();
+    private StatementCache cache;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("cache.db"));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE t (id INTEGER PRIMARY KEY AUTOINCREMENT, v TEXT)");
+        }
+        cache = new StatementCache(recording(connection));
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        cache.close();
+    }
+
+    @Test
+    void hitReusesTheStatement() throws SQLException {
+        PreparedStatement first = cache.prepare("SELECT ? + 1");
+        first.setInt(1, 41);
+        try (ResultSet rs = first.executeQuery()) {
+            assertEquals(42, rs.getInt(1));
+        }
+
+        PreparedStatement second = cache.prepare("SELECT ? + 1");
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(List.of("plain SELECT ? + 1"), prepared);
+        second.setInt(1, 1);
+        try (ResultSet rs = second.executeQuery()) {
+            assertEquals(2, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondThirtyTwoAndClosesIt() throws SQLException {
+        List<PreparedStatement> statements = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            statements.add(cache.prepare("SELECT " + i));
+        }
+        // Touch the eldest, so the second one is now least recently used
+        assertSame(statements.get(0), cache.prepare("SELECT 0"));
+        cache.prepare("SELECT 32");
+
+        assertEquals(32, cache.getCachedSql().size());
+        assertFalse(cache.getCachedSql().contains("SELECT 1"));
+        assertTrue(statements.get(1).isClosed());
+        for (int i = 0; i < 32; i++) {
+            assertEquals(i == 1, statements.get(i).isClosed(), "SELECT " + i);
+        }
+
+        // An evicted statement is prepared afresh on its next use
+        PreparedStatement again = cache.prepare("SELECT 1");
+        assertNotSame(statements.get(1), again);
+        assertFalse(again.isClosed());
+        assertEquals(34, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void onlyInsertsAskingForKeysArePreparedWithThem() throws SQLException {
+        PreparedStatement insert = cache.prepareReturningKeys("INSERT INTO t (v) VALUES (?)");
+        insert.setString(1, "a");
+        insert.executeUpdate();
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            assertTrue(keys.next());
+            assertEquals(1, keys.getLong(1));
+        }
+        cache.prepare("SELECT v FROM t WHERE id = ?");
+        cache.prepare("DELETE FROM t WHERE id = ?");
+
+        assertEquals(List.of("keys INSERT INTO t (v) VALUES (?)", "plain SELECT v FROM t WHERE id = ?",
+            "plain DELETE FROM t WHERE id = ?"), prepared);
+    }
+
+    @Test
+    void closeClosesStatementsAndConnection() throws SQLException {
+        PreparedStatement statement = cache.prepare("SELECT 1");
+        cache.close();
+
+        assertTrue(statement.isClosed());
+        assertTrue(connection.isClosed());
+        assertTrue(cache.getCachedSql().isEmpty());
+    }
+
+    // The connection, noting which prepareStatement overload each statement came from
+    private Connection recording(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("prepareStatement")) {
+                    prepared.add((args.length == 1 ? "plain " : "keys ") + args[0]);
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+}
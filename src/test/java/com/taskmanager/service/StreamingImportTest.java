@@ -0,0 +1,215 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.taskmanager.model.Task;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Imports JSON files through {@link TaskJsonReader} and {@link TaskManager#importTasks(Iterator,
+ * boolean, java.util.function.LongConsumer)} the way the import dialog does: streamed, with
+ * progress after every batch, and cancelled by interrupting the importing thread.
+ */
+class StreamingImportTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 5, 1, 7, 30);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void jsonImportStreamsWithProgress() throws IOException {
+        Path file = dir.resolve("tasks.json");
+        writeJson(file, tasks(5000), false);
+        long size = Files.size(file);
+
+        TaskManager manager = TestTaskManagers.open(dir, false, null);
+        try (InputStream in = Files.newInputStream(file);
+             TaskReader reader = new TaskJsonReader(in, gson())) {
+            List<Long> counts = new ArrayList<>();
+            List<Long> bytes = new ArrayList<>();
+            long imported = manager.importTasks(reader, false, count -> {
+                counts.add(count);
+                bytes.add(reader.getBytesRead());
+            });
+
+            assertEquals(5000, imported);
+            assertEquals(List.of(1000L, 2000L, 3000L, 4000L, 5000L), counts);
+            // The file is read as the batches go, not up front
+            assertTrue(bytes.get(0) < size / 2, () -> bytes + " of " + size);
+            for (int i = 1; i < bytes.size(); i++) {
+                assertTrue(bytes.get(i - 1) <= bytes.get(i), () -> bytes + " of " + size);
+            }
+            assertTrue(bytes.get(bytes.size() - 1) <= size, () -> bytes + " of " + size);
+            assertEquals(keys(tasks(5000)), keys(manager.getAllTasks()));
+            assertTrue(manager.verifyStatistics());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @ParameterizedTest(name = "replace={0}")
+    @ValueSource(booleans = {true, false})
+    void cancelDuringJournaledImportRollsBack(boolean replace) throws Exception {
+        Set<Path> filesBefore = TestTaskManagers.undoFiles();
+        // Spills after a few hundred rows, so the cancel lands while rows go to a file
+        TaskManager manager = TestTaskManagers.open(dir, false, new TaskJournal(100, 256 << 10, 16 << 10));
+        ExecutorService importer = Executors.newSingleThreadExecutor();
+        try {
+            manager.importTasks(tasks(300), false);
+            Task kept = new Task("kept", "", "Home", 2, START);
+            manager.addTask(kept);
+            Map<Long, String> before = TestTaskManagers.state(manager);
+
+            CountDownLatch reachedMiddle = new CountDownLatch(1);
+            AtomicReference<Throwable> outcome = new AtomicReference<>();
+            CountDownLatch done = new CountDownLatch(1);
+            Future<?> job = importer.submit(() -> {
+                try {
+                    manager.importTasks(waitingForCancel(tasks(3000), reachedMiddle), replace, count -> { });
+                } catch (Throwable e) {
+                    outcome.set(e);
+                } finally {
+                    // Leave the pool thread clean for whatever runs next
+                    Thread.interrupted();
+                    done.countDown();
+                }
+            });
+
+            assertTrue(reachedMiddle.await(10, TimeUnit.SECONDS));
+            job.cancel(true);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            assertInstanceOf(CancellationException.class, outcome.get(), () -> String.valueOf(outcome.get()));
+            assertEquals(before, TestTaskManagers.state(manager));
+            assertTrue(manager.verifyStatistics());
+            // The history before the import is intact: undo takes back the last add
+            assertTrue(manager.undo());
+            assertNull(manager.getTask(kept.getId()));
+            assertFalse(TestTaskManagers.state(manager).containsKey(kept.getId()));
+        } finally {
+            importer.shutdownNow();
+            manager.close();
+        }
+        assertEquals(filesBefore, TestTaskManagers.undoFiles(), "spill files left behind");
+    }
+
+    @Test
+    void importJobRunsInWriteOrderAndCancelStaysOnTheJob() throws Exception {
+        TaskManager manager = TestTaskManagers.open(dir, false, null);
+        AsyncTaskManager async = new AsyncTaskManager(manager, Runnable::run);
+        try {
+            CompletableFuture<Void> before = async.addTask(new Task("before", "", "Home", 2, START));
+            CountDownLatch reachedMiddle = new CountDownLatch(1);
+            // Built the way the import dialog builds its job
+            FutureTask<Long> job = new FutureTask<>(() -> async.getTaskManager()
+                .importTasks(waitingForCancel(tasks(3000), reachedMiddle), false, count -> { }));
+            async.inWriteOrder(job);
+            CompletableFuture<Void> after = async.addTask(new Task("after", "", "Home", 2, START.plusDays(1)));
+
+            assertTrue(reachedMiddle.await(10, TimeUnit.SECONDS));
+            assertTrue(before.isDone());
+            assertFalse(after.isDone(), "write ran ahead of the import submitted before it");
+
+            job.cancel(true);
+            after.get(10, TimeUnit.SECONDS);
+            assertFalse(async.inWriteOrder(ignored -> Thread.currentThread().isInterrupted()).get(10, TimeUnit.SECONDS),
+                "the cancel's interrupt leaked into later writes");
+
+            assertEquals(List.of("before", "after"), manager.getAllTasks().stream().map(Task::getTitle).toList());
+            assertTrue(manager.verifyStatistics());
+        } finally {
+            async.close(10);
+        }
+    }
+
+    // Hands out the tasks, but halfway through the second batch waits until the thread is interrupted
+    private static Iterator<Task> waitingForCancel(List<Task> tasks, CountDownLatch reachedMiddle) {
+        Iterator<Task> source = tasks.iterator();
+        return new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                if (++read == 1500) {
+                    reachedMiddle.countDown();
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (!Thread.currentThread().isInterrupted() && System.nanoTime() < deadline) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return source.next();
+            }
+        };
+    }
+
+    // The Gson the import and export dialogs use: LocalDateTime as ISO-8601 text
+    static Gson gson() {
+        JsonSerializer<LocalDateTime> serializer = (src, type, context) ->
+            new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        JsonDeserializer<LocalDateTime> deserializer = (json, type, context) ->
+            LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        return new GsonBuilder()
+            .setPrettyPrinting()
+            .registerTypeAdapter(LocalDateTime.class, serializer)
+            .registerTypeAdapter(LocalDateTime.class, deserializer)
+            .create();
+    }
+
+    static void writeJson(Path file, List<Task> tasks, boolean gzip) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file);
+             TaskWriter writer = new TaskJsonWriter(out, gson(), gzip)) {
+            tasks.forEach(writer::write);
+        }
+    }
+
+    private static List<Task> tasks(int count) {
+        return TestTaskManagers.tasks("t", count, START);
+    }
+
+    // Task contents without ids, in due date order
+    private static List<String> keys(List<Task> tasks) {
+        return tasks.stream().map(task -> {
+            Task copy = new Task(task);
+            copy.setId(0);
+            return InMemoryTaskRepositoryTest.key(copy);
+        }).toList();
+    }
+}
@@ -0,0 +1,206 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Follows the change log the way a sync client would: take a cursor, load everything, then keep
+ * applying {@link TaskManager#changesSince} to a mirror while another thread writes, and check
+ * the mirror ends up equal to the tasks; a cursor the pruned log no longer reaches, whether
+ * pruned at startup or during the session, must be told to reload.
+ */
+class TaskChangesTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    // Default -Dtaskmanager.db.changeLogRows, the log rows kept
+    private static final int CHANGE_LOG_ROWS = 10_000;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest(name = "inMemory={0}, {1}")
+    @CsvSource({"false, SYNC", "true, SYNC", "false, GROUP", "false, ASYNC"})
+    void mirrorFollowsAConcurrentWriter(boolean inMemory, TaskWriteQueue.Durability durability) throws Exception {
+        TaskManager manager = TestTaskManagers.open(dir, durability, inMemory);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Random random = new Random(1);
+            long cursor = manager.getLatestChangeSeq();
+            Map<Long, String> mirror = TestTaskManagers.state(manager);
+
+            AtomicBoolean done = new AtomicBoolean();
+            Future<?> writes = writer.submit(() -> {
+                Random ops = new Random(2);
+                int next = 0;
+                for (int i = 0; i < 600; i++) {
+                    List<Task> all = manager.getAllTasks();
+                    int op = ops.nextInt(100);
+                    if (op < 30 || all.isEmpty()) {
+                        manager.addTask(new Task("t" + next++, ops.nextBoolean() ? null : "d", "c" + ops.nextInt(4), 1 + ops.nextInt(5),
+                            START.plusHours(ops.nextInt(5000))));
+                    } else if (op < 70) {
+                        Task task = all.get(ops.nextInt(all.size()));
+                        task.setCompleted(!task.isCompleted());
+                        task.setTitle("u" + i);
+                        manager.updateTask(task);
+                    } else if (op < 85) {
+                        manager.deleteTask(all.get(ops.nextInt(all.size())).getId());
+                    } else if (op < 87) {
+                        List<Task> batch = new ArrayList<>();
+                        for (int k = 0; k < 50; k++) {
+                            batch.add(new Task("i" + next++, null, "c", 2, START.plusMonths(1).plusHours(k)));
+                        }
+                        manager.importTasks(batch, ops.nextInt(4) == 0);
+                    } else if (op < 95) {
+                        manager.undo();
+                    } else {
+                        manager.redo();
+                    }
+                }
+                done.set(true);
+                return null;
+            });
+
+            while (true) {
+                boolean last = done.get();
+                TaskChanges changes = manager.changesSince(cursor);
+                assertTrue(changes.getLastSeq() >= cursor, "cursor moved backwards");
+                assertFalse(changes.isHistoryTruncated());
+                if (changes.isReloadRequired()) {
+                    mirror = TestTaskManagers.state(manager);
+                } else {
+                    for (TaskChangeEvent event : changes.getChanges()) {
+                        if (event.getType() == TaskChangeEvent.Type.DELETED) {
+                            mirror.remove(event.getTaskId());
+                        } else {
+                            mirror.put(event.getTaskId(), InMemoryTaskRepositoryTest.key(event.getTask()));
+                        }
+                    }
+                }
+                cursor = changes.getLastSeq();
+                if (last) {
+                    break;
+                }
+                Thread.sleep(random.nextInt(3));
+            }
+            writes.get();
+
+            assertTrue(manager.changesSince(cursor).isEmpty(), "changes left after the writer finished");
+            assertEquals(TestTaskManagers.state(manager), mirror);
+        } finally {
+            writer.shutdown();
+            manager.close();
+        }
+    }
+
+    @Test
+    void bulkChangeAsksForAReload() {
+        TaskManager manager = TestTaskManagers.open(dir, TaskWriteQueue.Durability.SYNC, false);
+        try {
+            manager.addTask(new Task("single", "", "Work", 1, START));
+            long cursor = manager.getLatestChangeSeq();
+            manager.importTasks(List.of(new Task("imported", "", "Work", 1, START)), false);
+
+            TaskChanges changes = manager.changesSince(cursor);
+            assertTrue(changes.isReloadRequired());
+            assertFalse(changes.isHistoryTruncated());
+            assertEquals(List.of(), changes.getChanges());
+            assertEquals(manager.getLatestChangeSeq(), changes.getLastSeq());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    void prunedHistoryIsReportedAsTruncated() throws SQLException {
+        TaskManager manager = TestTaskManagers.open(dir, TaskWriteQueue.Durability.SYNC, false);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < CHANGE_LOG_ROWS + 100; i++) {
+            tasks.add(new Task("t" + i, "", "Work", 1, START.plusMinutes(i)));
+        }
+        manager.importTasks(tasks, false);
+        manager.close();
+        // One logged change per row, more than are kept; far quicker than as many single edits
+        try (Connection connection = DriverManager.getConnection(TestTaskManagers.url(dir));
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("UPDATE tasks SET priority = 2");
+        }
+
+        // The log is pruned when the database is opened
+        TaskManager reopened = TestTaskManagers.open(dir, TaskWriteQueue.Durability.SYNC, false);
+        try {
+            for (int i = 0; i < 10; i++) {
+                reopened.addTask(new Task("late " + i, "", "Home", 2, START));
+            }
+            long latest = reopened.getLatestChangeSeq();
+            TaskChanges old = reopened.changesSince(1);
+            assertTrue(old.isHistoryTruncated());
+            assertTrue(old.isReloadRequired());
+            assertEquals(latest, old.getLastSeq());
+
+            TaskChanges recent = reopened.changesSince(latest - 5);
+            assertFalse(recent.isReloadRequired());
+            assertEquals(List.of("late 5", "late 6", "late 7", "late 8", "late 9"),
+                recent.getChanges().stream().map(event -> event.getTask().getTitle()).toList());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void historyPrunedDuringTheSessionIsReportedAsTruncated() throws SQLException {
+        // Keeps 100 log rows, pruning every 10 changes
+        DatabaseService db = new DatabaseService(TestTaskManagers.url(dir), TaskWriteQueue.Durability.SYNC, false, 100);
+        TaskManager manager = new TaskManager(db, false);
+        try {
+            Task task = new Task("edited", "", "Work", 1, START);
+            manager.addTask(task);
+            long cursor = manager.getLatestChangeSeq();
+            for (int i = 0; i < 5; i++) {
+                manager.addTask(new Task("early " + i, "", "Home", 2, START));
+            }
+            assertFalse(manager.changesSince(cursor).isHistoryTruncated());
+
+            // No restart in between: the writes themselves prune the log
+            for (int i = 0; i < 150; i++) {
+                Task edit = new Task(task);
+                edit.setPriority(1 + i % 5);
+                manager.updateTask(edit);
+            }
+
+            long latest = manager.getLatestChangeSeq();
+            TaskChanges old = manager.changesSince(cursor);
+            assertTrue(old.isHistoryTruncated());
+            assertTrue(old.isReloadRequired());
+            assertEquals(latest, old.getLastSeq());
+            long rows = Long.parseLong(db.execute("SELECT COUNT(*) FROM task_changes", false));
+            assertTrue(rows > 100 - 10 && rows <= 100 + 10, () -> rows + " log rows");
+
+            TaskChanges recent = manager.changesSince(latest - 50);
+            assertFalse(recent.isReloadRequired());
+            assertEquals(List.of(task.getId()), recent.getChanges().stream().map(TaskChangeEvent::getTaskId).toList());
+        } finally {
+            manager.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the two halves of an export: {@link DatabaseService#forEachTask} visits every row once
+ * in due date order under either connection profile without holding up writes made meanwhile,
+ * and GZIP-compressed {@link TaskJsonWriter} output reads back through {@link TaskJsonReader}
+ * unchanged.
+ */
+class TaskExportTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 7, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest(name = "performanceProfile={0}")
+    @ValueSource(booleans = {false, true})
+    void forEachTaskVisitsEveryRowOnce(boolean performanceProfile) {
+        DatabaseService db = TestTaskManagers.openDatabase(dir, performanceProfile);
+        try {
+            // Rows 500-1999 share one due date, so the 1000-row chunks of the default profile end
+            // in the middle of a run of equal due dates and only the id tells the rows apart
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 2500; i++) {
+                LocalDateTime due = i < 500 ? START.plusMinutes(i) : i < 2000 ? START.plusDays(1) : START.plusDays(2).plusMinutes(i);
+                tasks.add(new Task("t" + i, null, "c", 1 + i % 5, due));
+            }
+            db.importTasks(tasks.iterator(), false, 1000, count -> { });
+
+            List<Task> visited = new ArrayList<>();
+            assertEquals(2500, db.forEachTask(visited::add));
+
+            assertEquals(2500, visited.size());
+            Set<Long> ids = new HashSet<>();
+            visited.forEach(task -> assertTrue(ids.add(task.getId()), () -> "visited twice: " + task.getId()));
+            Set<Long> stored = new HashSet<>();
+            db.getAllTasks().forEach(task -> stored.add(task.getId()));
+            assertEquals(stored, ids);
+            List<Task> sorted = new ArrayList<>(visited);
+            sorted.sort(Comparator.comparing(Task::getDueDate).thenComparingLong(Task::getId));
+            assertEquals(InMemoryTaskRepositoryTest.keys(sorted), InMemoryTaskRepositoryTest.keys(visited));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void exportJobDoesNotHoldUpLaterWritesOrReads() throws Exception {
+        TaskManager manager = TestTaskManagers.open(dir);
+        AsyncTaskManager async = new AsyncTaskManager(manager, IoExecutor.virtualThreads(2), Runnable::run);
+        try {
+            manager.importTasks(TestTaskManagers.tasks("t", 2500, START), false);
+
+            CountDownLatch midScan = new CountDownLatch(1);
+            CountDownLatch resume = new CountDownLatch(1);
+            AtomicInteger exported = new AtomicInteger();
+            // Built the way the export dialog builds its job; it pauses halfway through the scan
+            FutureTask<Long> export = new FutureTask<>(() -> async.getTaskManager().forEachTask(task -> {
+                if (exported.incrementAndGet() == 1500) {
+                    midScan.countDown();
+                    try {
+                        resume.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+            async.read(export);
+            assertTrue(midScan.await(10, TimeUnit.SECONDS));
+
+            async.addTask(new Task("during export", "", "c", 1, START.minusDays(1))).get(10, TimeUnit.SECONDS);
+            assertEquals(2501, async.count(TaskQuery.all()).get(10, TimeUnit.SECONDS));
+
+            resume.countDown();
+            assertTrue(export.get(10, TimeUnit.SECONDS) >= 2500);
+        } finally {
+            async.close(10);
+        }
+    }
+
+    @Test
+    void gzipJsonRoundTrip() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Task task = new Task("t" + i, i % 3 == 0 ? null : "line one\nline \"two\" " + i, "c" + i % 4, 1 + i % 5,
+                START.plusMinutes(7L * i).plusNanos(i * 1_000_000L));
+            task.setId(i + 1);
+            task.setCompleted(i % 2 == 0);
+            task.setReminderEnabled(i % 5 == 0);
+            if (i % 4 != 0) {
+                task.addTag("tag" + i % 7);
+                task.addTag("gemeinsam ü");
+            }
+            tasks.add(task);
+        }
+        Path file = dir.resolve("tasks.json.gz");
+        StreamingImportTest.writeJson(file, tasks, true);
+
+        // Really compressed, not plain JSON that happens to be named .gz
+        try (InputStream in = Files.newInputStream(file)) {
+            assertEquals(GZIPInputStream.GZIP_MAGIC, in.read() | (in.read() << 8));
+        }
+
+        List<Task> read = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file);
+             TaskReader reader = new TaskJsonReader(in, StreamingImportTest.gson())) {
+            reader.forEachRemaining(read::add);
+        }
+
+        assertEquals(InMemoryTaskRepositoryTest.keys(tasks), InMemoryTaskRepositoryTest.keys(read));
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getTags(), read.get(i).getTags(), "tags of task " + i);
+            assertEquals(tasks.get(i).isReminderEnabled(), read.get(i).isReminderEnabled(), "reminder of task " + i);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Drives undo and redo through {@link TaskManager} against a model of the history: every state
+ * the task table has been in, and which of them undo and redo should step to.
+ */
+class TaskJournalTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest(name = "inMemory={0}")
+    @ValueSource(booleans = {false, true})
+    void randomUndoRedoFollowsTheHistory(boolean inMemory) {
+        Random random = new Random(1);
+        // Room for the whole run, with imports spilling to files
+        TaskManager manager = TestTaskManagers.open(dir, inMemory, new TaskJournal(1000, 16 << 20, 16 << 10));
+        try {
+            List<Map<Long, String>> history = new ArrayList<>();
+            history.add(TestTaskManagers.state(manager));
+            int position = 0;
+            int next = 0;
+            for (int step = 0; step < 300; step++) {
+                int op = random.nextInt(100);
+                List<Long> ids = new ArrayList<>(history.get(position).keySet());
+                boolean changed = true;
+                if (op < 20 || ids.isEmpty()) {
+                    manager.addTask(task(random, next++));
+                } else if (op < 45) {
+                    Task task = manager.getTask(ids.get(random.nextInt(ids.size())));
+                    switch (random.nextInt(4)) {
+                        case 0 -> task.setCompleted(!task.isCompleted());
+                        case 1 -> {
+                            task.setTitle("e" + step);
+                            task.setPriority(1 + random.nextInt(5));
+                        }
+                        case 2 -> task.setDueDate(task.getDueDate().plusDays(1 + random.nextInt(30)));
+                        default -> {
+                            task.setDescription(random.nextBoolean() ? null : "x" + step);
+                            task.setCategory("c" + random.nextInt(6));
+                        }
+                    }
+                    manager.updateTask(task);
+                } else if (op < 55) {
+                    manager.deleteTask(ids.get(random.nextInt(ids.size())));
+                } else if (op < 60) {
+                    List<Task> batch = new ArrayList<>();
+                    for (int i = 0, n = 1 + random.nextInt(400); i < n; i++) {
+                        batch.add(task(random, next++));
+                    }
+                    manager.importTasks(batch, random.nextInt(3) == 0);
+                } else if (op < 82) {
+                    assertEquals(position > 0, manager.undo(), "undo at step " + step);
+                    position = Math.max(0, position - 1);
+                    changed = false;
+                } else {
+                    assertEquals(position < history.size() - 1, manager.redo(), "redo at step " + step);
+                    position = Math.min(history.size() - 1, position + 1);
+                    changed = false;
+                }
+                // An edit that left every field as it was is not a step
+                if (changed && TestTaskManagers.state(manager).equals(history.get(position))) {
+                    changed = false;
+                }
+                if (changed) {
+                    history.subList(position + 1, history.size()).clear();
+                    history.add(TestTaskManagers.state(manager));
+                    position++;
+                }
+                assertEquals(history.get(position), TestTaskManagers.state(manager), "state after step " + step);
+                assertEquals(position > 0, manager.canUndo());
+                assertEquals(position < history.size() - 1, manager.canRedo());
+            }
+
+            // All the way back, then all the way forward again
+            while (manager.undo()) {
+                position--;
+                assertEquals(history.get(position), TestTaskManagers.state(manager), "undoing to " + position);
+            }
+            assertEquals(0, position);
+            while (manager.redo()) {
+                position++;
+                assertEquals(history.get(position), TestTaskManagers.state(manager), "redoing to " + position);
+            }
+            assertEquals(history.size() - 1, position);
+            assertTrue(manager.verifyStatistics());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    void undoKeepsOnlyTheNewestSteps() {
+        TaskManager manager = TestTaskManagers.open(dir, false, new TaskJournal(10, 256 << 10, 64 << 10));
+        try {
+            manager.addTask(new Task("toggled", "", "Work", 1, START));
+            Task task = manager.getAllTasks().get(0);
+            for (int i = 0; i < 30; i++) {
+                task.setCompleted(!task.isCompleted());
+                task.setTitle("v" + i);
+                manager.updateTask(task);
+            }
+
+            int undos = 0;
+            while (manager.undo()) {
+                undos++;
+            }
+            // The add and the first edits fell off the end
+            assertEquals(10, undos);
+            assertEquals("v19", manager.getTask(task.getId()).getTitle());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    void updatesAreStoredAsTheFieldsTheyChanged() {
+        TaskJournal journal = new TaskJournal(1000, 1 << 20, 64 << 10);
+        TaskManager manager = TestTaskManagers.open(dir, false, journal);
+        try {
+            long before = journal.getHeldBytes();
+            for (int i = 0; i < 100; i++) {
+                manager.addTask(new Task("A fairly ordinary task title " + i, "With a description of some length", "Work", 3, START.plusHours(i)));
+            }
+            long perAdd = (journal.getHeldBytes() - before) / 100;
+            List<Task> all = manager.getAllTasks();
+
+            before = journal.getHeldBytes();
+            for (Task task : all) {
+                task.setCompleted(!task.isCompleted());
+                manager.updateTask(task);
+            }
+            long perToggle = (journal.getHeldBytes() - before) / 100;
+
+            before = journal.getHeldBytes();
+            for (Task task : all) {
+                task.setDueDate(task.getDueDate().plusDays(1));
+                manager.updateTask(task);
+            }
+            long perReschedule = (journal.getHeldBytes() - before) / 100;
+
+            // Updates keep only the changed fields, old and new; an added task keeps its whole row
+            assertTrue(perToggle < perReschedule && perReschedule < perAdd / 2,
+                () -> "add " + perAdd + ", toggle " + perToggle + ", reschedule " + perReschedule);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    void largeImportSpillsToATemporaryFileAndUndoesExactly() throws IOException {
+        Set<Path> filesBefore = TestTaskManagers.undoFiles();
+        TaskManager manager = TestTaskManagers.open(dir, false, new TaskJournal(100, 256 << 10, 64 << 10));
+        try {
+            Random random = new Random(3);
+            List<Task> first = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                first.add(task(random, i));
+            }
+            manager.importTasks(first, true);
+            Map<Long, String> imported = TestTaskManagers.state(manager);
+
+            // Replacing every task records both sides, well past the in-memory spill limit
+            List<Task> second = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                second.add(task(random, 3000 + i));
+            }
+            manager.importTasks(second, true);
+            Map<Long, String> replaced = TestTaskManagers.state(manager);
+            assertFalse(TestTaskManagers.undoFiles().equals(filesBefore), "no spill file for a 6000-row step");
+
+            assertTrue(manager.undo());
+            assertEquals(imported, TestTaskManagers.state(manager));
+            assertTrue(manager.redo());
+            assertEquals(replaced, TestTaskManagers.state(manager));
+            assertTrue(manager.verifyStatistics());
+        } finally {
+            manager.close();
+        }
+        assertEquals(filesBefore, TestTaskManagers.undoFiles(), "spill files left behind");
+    }
+
+    private static Task task(Random random, int i) {
+        Task task = new Task("t" + i + (random.nextBoolean() ? "" : " ünï"), random.nextInt(3) == 0 ? null : "d" + random.nextInt(100),
+            "c" + random.nextInt(4), 1 + random.nextInt(5),
+            START.plusMinutes(random.nextInt(200_000)).plusNanos(random.nextInt(1000) * 1_000_000L));
+        task.setCompleted(random.nextBoolean());
+        return task;
+    }
+}
@@ -0,0 +1,154 @@
+package com.taskmanager.service;
+
+import static com.taskmanager.service.InMemoryTaskRepositoryTest.keys;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.taskmanager.model.Task;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs random {@link TaskQuery} combinations through both plans, the single SQL statement and
+ * the in-memory index planner, and checks each against filtering and sorting every task with the
+ * query's own {@link TaskQuery#matches} and {@link TaskQuery#comparator}.
+ */
+class TaskQueryTest {
+    private static final String[] CATEGORIES = {"Work", "Home", "Gym", "Study"};
+    // Mixed case, accents and LIKE wildcards, for the text filter
+    private static final String[] WORDS = {"Alpha", "beta", "GAMMA", "Éclair", "100%", "a_b", "delta"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(7);
+    private DatabaseService db;
+    private TaskManager memory;
+
+    @BeforeEach
+    void open() {
+        db = TestTaskManagers.openDatabase(dir);
+        List<Task> seed = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            // Due dates on a coarse grid, so sorts and keyset cursors meet plenty of ties
+            Task task = new Task(word() + " " + i, random.nextInt(4) == 0 ? null : word(), CATEGORIES[random.nextInt(4)],
+                1 + random.nextInt(5), START.plusMinutes(random.nextInt(50_000) / 10 * 10));
+            task.setCompleted(random.nextBoolean());
+            seed.add(task);
+        }
+        db.importTasks(seed.iterator(), true, 500, imported -> { });
+        memory = new TaskManager(db, true);
+    }
+
+    @AfterEach
+    void close() {
+        memory.close();
+    }
+
+    @Test
+    void bothPlansMatchBruteForce() {
+        for (int i = 0; i < 400; i++) {
+            TaskQuery query = randomQuery();
+            List<String> expected = keys(bruteForce(query));
+            assertEquals(expected, keys(db.queryTasks(query)), () -> "sql: " + query);
+            assertEquals(expected, keys(memory.query(query)), () -> "memory: " + query);
+
+            int count = bruteForce(query.withWindow(0, -1)).size();
+            assertEquals(count, db.countTasks(query), () -> "sql count: " + query);
+            assertEquals(count, memory.count(query), () -> "memory count: " + query);
+
+            if (i % 50 == 0) {
+                // Keep the indexes moving underneath the planner
+                List<Task> all = memory.getAllTasks();
+                Task task = all.get(random.nextInt(all.size()));
+                task.setCompleted(!task.isCompleted());
+                task.setCategory(CATEGORIES[random.nextInt(4)]);
+                memory.updateTask(task);
+                memory.deleteTask(all.get(random.nextInt(all.size())).getId());
+            }
+        }
+    }
+
+    @Test
+    void keysetPagesCoverTheWholeResult() {
+        for (int i = 0; i < 20; i++) {
+            TaskQuery query = randomQuery().withSort().withWindow(0, -1);
+            List<String> expected = keys(bruteForce(query));
+
+            // Page through in due-date order the way PagedTaskList does, continuing after each page's last task
+            List<Task> sqlPages = new ArrayList<>();
+            List<Task> memoryPages = new ArrayList<>();
+            Task after = null;
+            List<Task> page;
+            do {
+                page = db.queryTasks(query.withAfter(after).withWindow(0, 37));
+                sqlPages.addAll(page);
+                memoryPages.addAll(memory.query(query.withAfter(after).withWindow(0, 37)));
+                after = page.isEmpty() ? null : page.get(page.size() - 1);
+            } while (page.size() == 37);
+
+            assertEquals(expected, keys(sqlPages), () -> "sql: " + query);
+            assertEquals(expected, keys(memoryPages), () -> "memory: " + query);
+        }
+    }
+
+    private List<Task> bruteForce(TaskQuery query) {
+        List<Task> matching = db.getAllTasks().stream().filter(query::matches).sorted(query.comparator()).toList();
+        int from = Math.min(query.getOffset(), matching.size());
+        int to = query.getLimit() < 0 ? matching.size() : Math.min(matching.size(), from + query.getLimit());
+        return matching.subList(from, to);
+    }
+
+    private TaskQuery randomQuery() {
+        TaskQuery query = TaskQuery.all();
+        if (random.nextInt(3) == 0) {
+            query = query.withCompleted(random.nextBoolean());
+        }
+        if (random.nextInt(3) == 0) {
+            int min = 1 + random.nextInt(5);
+            query = query.withPriorityBetween(random.nextBoolean() ? min : null, random.nextBoolean() ? min + random.nextInt(3) - 1 : null);
+        }
+        if (random.nextInt(3) == 0) {
+            Set<String> categories = new HashSet<>();
+            int n = random.nextInt(3);
+            for (int k = 0; k < n; k++) {
+                categories.add(random.nextInt(5) == 0 ? "Nope" : CATEGORIES[random.nextInt(4)]);
+            }
+            query = query.withCategories(categories);
+        }
+        if (random.nextInt(3) == 0) {
+            LocalDateTime from = START.plusMinutes(random.nextInt(5000) * 10L);
+            query = query.withDueBetween(random.nextBoolean() ? from : null, random.nextBoolean() ? from.plusMinutes(random.nextInt(3000) * 10L) : null);
+        }
+        if (random.nextInt(4) == 0) {
+            String word = word();
+            query = query.withText(random.nextBoolean() ? word.toLowerCase() : word.substring(1, 3).toUpperCase());
+        }
+        if (random.nextInt(2) == 0) {
+            TaskQuery.SortKey[] keys = TaskQuery.SortKey.values();
+            TaskQuery.Sort[] sorts = new TaskQuery.Sort[1 + random.nextInt(2)];
+            for (int k = 0; k < sorts.length; k++) {
+                TaskQuery.SortKey key = keys[random.nextInt(keys.length)];
+                sorts[k] = random.nextBoolean() ? TaskQuery.Sort.ascending(key) : TaskQuery.Sort.descending(key);
+            }
+            query = query.withSort(sorts);
+        }
+        if (random.nextInt(2) == 0) {
+            query = query.withWindow(random.nextInt(50), random.nextInt(4) == 0 ? -1 : random.nextInt(100));
+        }
+        return query;
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,184 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Round-trips tasks through {@link TaskSnapshotWriter} and {@link TaskSnapshotReader}, and feeds
+ * the reader damaged files: a flipped byte, every possible truncation, and records it does not
+ * know. A damaged snapshot imported through {@link TaskManager} must leave the tasks as they were.
+ */
+class TaskSnapshotTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 9, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // Due dates jump back and forth, so about half the deltas are negative
+            LocalDateTime due = START.plusMinutes((i * 37L) % 101 - 50).plusNanos((i % 1000) * 1_000_000L);
+            Task task = new Task("title " + i, i % 3 == 0 ? null : "line one\nline two " + i, "c" + i % 4, i % 7 - 1, due);
+            task.setCompleted(i % 2 == 0);
+            task.setReminderEnabled(i % 5 == 0);
+            if (i % 4 != 0) {
+                task.addTag("tag" + i % 6);
+                task.addTag("c" + i % 4);
+            }
+            tasks.add(task);
+        }
+        // Null and empty are kept apart
+        tasks.add(new Task(null, null, null, 1, START.minusYears(30)));
+        tasks.add(new Task("", "", "", 1, START.plusYears(30)));
+        tasks.add(new Task(null, "", "Home", 1, START));
+        tasks.add(new Task("", null, null, 1, START));
+
+        byte[] data = write(tasks);
+        List<Task> read = read(data);
+
+        assertEquals(InMemoryTaskRepositoryTest.keys(tasks), InMemoryTaskRepositoryTest.keys(read));
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getTags(), read.get(i).getTags(), "tags of task " + i);
+            assertEquals(tasks.get(i).isReminderEnabled(), read.get(i).isReminderEnabled(), "reminder of task " + i);
+        }
+    }
+
+    @Test
+    void nullTagIsRejected() throws IOException {
+        Task task = new Task("t", null, "c", 1, START);
+        task.addTag(null);
+        try (TaskSnapshotWriter writer = new TaskSnapshotWriter(new ByteArrayOutputStream())) {
+            assertThrows(IllegalArgumentException.class, () -> writer.write(task));
+        }
+    }
+
+    @Test
+    void flippedByteFailsTheChecksum() throws IOException {
+        byte[] data = write(tasks(100));
+        // A title character changes case: the file still parses, only the checksum tells
+        data[indexOf(data, "task 50")] ^= 0x20;
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> read(data));
+        assertTrue(e.getCause().getMessage().contains("checksum mismatch"), e.getCause()::getMessage);
+    }
+
+    @Test
+    void everyTruncationFailsWithEof() throws IOException {
+        byte[] data = write(tasks(20));
+        for (int cut = 0; cut < data.length; cut++) {
+            byte[] truncated = Arrays.copyOf(data, cut);
+            String where = cut + " of " + data.length + " bytes";
+            // A cut inside the header fails in the constructor, later ones during iteration
+            Exception e = assertThrows(Exception.class, () -> read(truncated), where);
+            Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+            assertInstanceOf(EOFException.class, cause, where);
+        }
+    }
+
+    @Test
+    void unknownRecordsAreSkipped() throws IOException {
+        List<Task> tasks = tasks(5);
+        byte[] data = write(tasks);
+        // With fewer than 128 tasks the end record is type, length 5, count and CRC: 7 bytes
+        int header = TaskSnapshotWriter.MAGIC.length + 1;
+        int end = data.length - 7;
+
+        ByteArrayOutputStream spliced = new ByteArrayOutputStream();
+        spliced.write(data, 0, header);
+        spliced.write(new byte[] {9, 3, 1, 2, 3});
+        spliced.write(data, header, end - header);
+        spliced.write(new byte[] {(byte) 200, 0});
+        CRC32 crc = new CRC32();
+        crc.update(spliced.toByteArray());
+        int value = (int) crc.getValue();
+        spliced.write(new byte[] {TaskSnapshotWriter.RECORD_END, 5, (byte) tasks.size(),
+            (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+
+        assertEquals(InMemoryTaskRepositoryTest.keys(tasks), InMemoryTaskRepositoryTest.keys(read(spliced.toByteArray())));
+    }
+
+    @ParameterizedTest(name = "replace={0}")
+    @ValueSource(booleans = {true, false})
+    void corruptSnapshotImportKeepsExistingTasks(boolean replace) throws IOException {
+        // Damaged near the end, after several import batches were inserted
+        byte[] data = write(tasks(3000));
+        data[indexOf(data, "task 2900")] ^= 0x20;
+
+        TaskManager manager = TestTaskManagers.open(dir);
+        try {
+            manager.importTasks(tasks(50), false);
+            List<String> before = InMemoryTaskRepositoryTest.keys(manager.getAllTasks());
+
+            try (TaskReader reader = new TaskSnapshotReader(new ByteArrayInputStream(data))) {
+                UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                    () -> manager.importTasks(reader, replace, count -> { }));
+                assertTrue(e.getCause().getMessage().contains("checksum mismatch"), e.getCause()::getMessage);
+            }
+
+            assertEquals(before, InMemoryTaskRepositoryTest.keys(manager.getAllTasks()));
+            assertTrue(manager.verifyStatistics());
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static byte[] write(List<Task> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TaskWriter writer = new TaskSnapshotWriter(out)) {
+            tasks.forEach(writer::write);
+            assertEquals(tasks.size(), writer.getCount());
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Task> read(byte[] data) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (TaskReader reader = new TaskSnapshotReader(new ByteArrayInputStream(data))) {
+            reader.forEachRemaining(tasks::add);
+            assertFalse(reader.hasNext());
+            assertEquals(data.length, reader.getBytesRead());
+        }
+        return tasks;
+    }
+
+    private static List<Task> tasks(int count) {
+        return TestTaskManagers.tasks("task", count, START);
+    }
+
+    private static int indexOf(byte[] data, String text) {
+        byte[] needle = text.getBytes(StandardCharsets.UTF_8);
+        outer:
+        for (int i = 0; i + needle.length <= data.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (data[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError(text + " not found");
+    }
+}
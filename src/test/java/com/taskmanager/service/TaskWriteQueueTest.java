@@ -0,0 +1,270 @@
+package com.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.view.PagedTaskList;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Checks that every durability mode ends with the writes it was given, that ASYNC batches a
+ * single thread's burst even with undo on and a task list open, that a failed ASYNC commit is
+ * reported back as a reload, and that a bad write in a GROUP commit fails only its own caller.
+ */
+class TaskWriteQueueTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @EnumSource(TaskWriteQueue.Durability.class)
+    void concurrentAndBurstWritesAllLand(TaskWriteQueue.Durability durability) throws Exception {
+        DatabaseService db = TestTaskManagers.openDatabase(dir, durability);
+        try {
+            seed(db, 400);
+            Map<Long, Task> expected = new ConcurrentHashMap<>();
+            for (Task task : db.getAllTasks()) {
+                expected.put(task.getId(), task);
+            }
+            List<Long> ids = db.getAllTasks().stream().map(Task::getId).sorted().toList();
+
+            // Four threads editing disjoint tasks at once
+            ExecutorService writers = Executors.newFixedThreadPool(4);
+            List<Future<?>> done = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                done.add(writers.submit(() -> {
+                    Random random = new Random(writer);
+                    for (int i = 0; i < 100; i++) {
+                        Task task = new Task(expected.get(ids.get(writer * 50 + random.nextInt(50))));
+                        task.setCompleted(!task.isCompleted());
+                        task.setPriority(1 + random.nextInt(3));
+                        db.updateTask(task);
+                        expected.put(task.getId(), task);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+            writers.shutdown();
+
+            // Then one thread's burst over a few tasks, with a delete and an insert mixed in
+            Random random = new Random(7);
+            for (int i = 0; i < 300; i++) {
+                Task task = new Task(expected.get(ids.get(200 + random.nextInt(50))));
+                task.setCompleted(!task.isCompleted());
+                task.setTitle("b" + i);
+                db.updateTask(task);
+                expected.put(task.getId(), task);
+            }
+            db.deleteTask(ids.get(260));
+            expected.remove(ids.get(260));
+            Task added = new Task("new", "d", "c1", 2, START.plusDays(3));
+            db.addTask(added);
+            expected.put(added.getId(), added);
+
+            List<Task> stored = db.getAllTasks();
+            assertEquals(expected.size(), stored.size());
+            for (Task task : stored) {
+                Task want = expected.get(task.getId());
+                assertEquals(InMemoryTaskRepositoryTest.key(want), InMemoryTaskRepositoryTest.key(task));
+            }
+            assertTrue(db.verifyTaskStats());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void asyncWritesQueuedAtCloseAreCommitted() throws Exception {
+        DatabaseService db = TestTaskManagers.openDatabase(dir, TaskWriteQueue.Durability.ASYNC);
+        seed(db, 10);
+        Task task = db.getAllTasks().get(3);
+        task.setTitle("at close");
+        db.updateTask(task);
+        db.close();
+
+        try (Connection connection = DriverManager.getConnection(TestTaskManagers.url(dir));
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT title FROM tasks WHERE id = " + task.getId())) {
+            assertTrue(rs.next());
+            assertEquals("at close", rs.getString(1));
+        }
+    }
+
+    @Test
+    void asyncBurstSharesCommitsWithUndoAndAListOpen() throws Exception {
+        DatabaseService db = TestTaskManagers.openDatabase(dir, TaskWriteQueue.Durability.ASYNC);
+        TaskManager manager = new TaskManager(db, false);
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        AsyncTaskManager tasks = new AsyncTaskManager(manager, ui);
+        try {
+            seed(db, 400);
+            // The list counts positions after every change; undo reads each task's previous state
+            PagedTaskList list = ui.submit(() -> new PagedTaskList(tasks, TaskQuery.all().withCompleted(false))).get();
+            manager.addChangeListener(list);
+            tasks.inWriteOrder(m -> null).get();
+
+            List<Task> all = manager.getAllTasks();
+            long writesBefore = db.getQueuedWriteCount();
+            long commitsBefore = db.getGroupCommitCount();
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                Task task = new Task(all.get(i % 100));
+                task.setCompleted(i / 100 % 2 == 0);
+                task.setTitle("x" + i);
+                writes.add(tasks.updateTask(task));
+            }
+            for (CompletableFuture<Void> write : writes) {
+                write.get();
+            }
+            tasks.inWriteOrder(m -> null).get();
+            ui.submit(() -> null).get();
+            db.getAllTasks();
+
+            long commits = db.getGroupCommitCount() - commitsBefore;
+            assertEquals(300, db.getQueuedWriteCount() - writesBefore);
+            // Nothing on the write path may force a commit per edit; each commit took a batch
+            assertTrue(commits <= 100, () -> commits + " commits for 300 writes");
+            assertTrue(manager.canUndo());
+            assertEquals(manager.count(TaskQuery.all().withCompleted(false)), (int) ui.submit(list::size).get());
+        } finally {
+            tasks.close(10);
+            ui.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedAsyncCommitReloadsAndDropsUndoHistory() throws Exception {
+        DatabaseService db = TestTaskManagers.openDatabase(dir, TaskWriteQueue.Durability.ASYNC);
+        TaskManager manager = new TaskManager(db, false);
+        try {
+            seed(db, 20);
+            List<Task> all = manager.getAllTasks();
+            Task edited = new Task(all.get(0));
+            edited.setTitle("changed");
+            manager.updateTask(edited);
+
+            CountDownLatch reloaded = new CountDownLatch(1);
+            manager.addChangeListener(event -> {
+                if (event.getType() == TaskChangeEvent.Type.RELOADED) {
+                    reloaded.countDown();
+                }
+            });
+            // Accepted when queued, rejected by the NOT NULL title column at commit
+            Task invalid = new Task(all.get(1));
+            invalid.setTitle(null);
+            manager.updateTask(invalid);
+
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS), "no RELOADED event after the failed commit");
+            assertFalse(manager.canUndo());
+            assertEquals(all.get(1).getTitle(), manager.getTask(invalid.getId()).getTitle());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    void badWriteInAGroupFailsOnlyItsOwnCaller() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> committed = new ArrayList<>();
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        // Stands in for the database: the first commit blocks so the next writes share a batch,
+        // and a batch with a null title is rejected whole, as the NOT NULL column would
+        TaskWriteQueue queue = new TaskWriteQueue(TaskWriteQueue.Durability.GROUP, 0, batch -> {
+            boolean first;
+            synchronized (batchSizes) {
+                first = batchSizes.isEmpty();
+                batchSizes.add(batch.size());
+            }
+            if (first) {
+                firstCommitStarted.countDown();
+                try {
+                    releaseFirstCommit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<Task> tasks = new ArrayList<>(batch.inserts());
+            tasks.addAll(batch.updates());
+            if (tasks.stream().anyMatch(task -> task.getTitle() == null)) {
+                throw new IllegalArgumentException("title may not be null");
+            }
+            synchronized (committed) {
+                tasks.forEach(task -> committed.add(task.getTitle()));
+                batch.deletes().forEach(id -> committed.add("deleted " + id));
+            }
+        }, lost -> { });
+        ExecutorService writers = Executors.newFixedThreadPool(5);
+        try {
+            Future<?> blocker = writers.submit(() -> queue.update(task(1, "first")));
+            assertTrue(firstCommitStarted.await(10, TimeUnit.SECONDS));
+
+            Future<?> valid = writers.submit(() -> queue.update(task(2, "valid")));
+            Future<?> invalid = writers.submit(() -> queue.update(task(3, null)));
+            Future<?> insert = writers.submit(() -> queue.insert(task(0, "inserted")));
+            Future<?> delete = writers.submit(() -> queue.delete(4));
+            while (queue.getMutationCount() < 5) {
+                Thread.onSpinWait();
+            }
+            releaseFirstCommit.countDown();
+
+            blocker.get(10, TimeUnit.SECONDS);
+            valid.get(10, TimeUnit.SECONDS);
+            insert.get(10, TimeUnit.SECONDS);
+            delete.get(10, TimeUnit.SECONDS);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> invalid.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+            // The shared batch failed whole, then each of its four writes was tried on its own
+            assertEquals(List.of(1, 4, 1, 1, 1, 1), batchSizes);
+            assertEquals(List.of("first", "inserted", "valid", "deleted 4"), committed);
+        } finally {
+            writers.shutdownNow();
+            queue.close();
+        }
+    }
+
+    private static Task task(long id, String title) {
+        Task task = new Task(title, "d", "c", 1, START);
+        task.setId(id);
+        return task;
+    }
+
+    private static void seed(DatabaseService db, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("t" + i, "d", "c" + i % 5, 1 + i % 3, START.plusDays(i % 60)));
+        }
+        db.importTasks(tasks.iterator(), true, 100, imported -> { });
+    }
+}
@@ -0,0 +1,89 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Opens a {@link TaskManager} or {@link DatabaseService} on its own database file instead of the
+ * application's, and holds the fixtures the service tests share.
+ */
+public final class TestTaskManagers {
+    private TestTaskManagers() {
+    }
+
+    /**
+     * A SQLite-backed manager with synchronous commits on {@code dir/tasks.db}; closing it closes
+     * the database.
+     */
+    public static TaskManager open(Path dir) {
+        return open(dir, TaskWriteQueue.Durability.SYNC, false);
+    }
+
+    static TaskManager open(Path dir, TaskWriteQueue.Durability durability, boolean inMemory) {
+        return new TaskManager(openDatabase(dir, durability), inMemory);
+    }
+
+    static TaskManager open(Path dir, boolean inMemory, TaskJournal journal) {
+        return new TaskManager(openDatabase(dir), inMemory, journal);
+    }
+
+    static DatabaseService openDatabase(Path dir) {
+        return openDatabase(dir, TaskWriteQueue.Durability.SYNC);
+    }
+
+    static DatabaseService openDatabase(Path dir, TaskWriteQueue.Durability durability) {
+        return new DatabaseService(url(dir), durability);
+    }
+
+    static DatabaseService openDatabase(Path dir, boolean performanceProfile) {
+        return new DatabaseService(url(dir), TaskWriteQueue.Durability.SYNC, performanceProfile);
+    }
+
+    static String url(Path dir) {
+        return "jdbc:sqlite:" + dir.resolve("tasks.db");
+    }
+
+    /**
+     * {@code count} tasks titled {@code prefix + " " + i}, one minute apart from {@code start}, so
+     * reads in due date order give them back in input order; ids are left at 0. Every third has no
+     * description, every second is completed, and categories and priorities cycle through 4 and 5
+     * values.
+     */
+    static List<Task> tasks(String prefix, int count, LocalDateTime start) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task(prefix + " " + i, i % 3 == 0 ? null : "d" + i, "c" + i % 4, 1 + i % 5, start.plusMinutes(i));
+            task.setCompleted(i % 2 == 0);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // Every stored task by id, so two states compare field by field
+    static Map<Long, String> state(TaskManager manager) {
+        Map<Long, String> state = new TreeMap<>();
+        for (Task task : manager.getAllTasks()) {
+            state.put(task.getId(), InMemoryTaskRepositoryTest.key(task));
+        }
+        return state;
+    }
+
+    // The undo journal's spill files in the temporary directory
+    static Set<Path> undoFiles() throws IOException {
+        Set<Path> files = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Path.of(System.getProperty("java.io.tmpdir")), "task-undo-*")) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+}
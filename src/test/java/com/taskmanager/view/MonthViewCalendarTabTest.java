@@ -0,0 +1,156 @@
+package com.taskmanager.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.service.AsyncTaskManager;
+import com.taskmanager.service.TaskManager;
+import com.taskmanager.service.TestTaskManagers;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Navigates the month grid back and forth and checks the day cells and task chips are re-bound
+ * rather than rebuilt: once every month has been shown, showing them again creates no nodes.
+ *
+ * Needs a JavaFX toolkit for the platform the build's JavaFX jars target; skipped without one.
+ */
+class MonthViewCalendarTabTest {
+    private static final int MONTHS = 100;
+
+    private static boolean toolkit;
+
+    @TempDir
+    Path dir;
+
+    private AsyncTaskManager tasks;
+    private MonthViewCalendarTab tab;
+    private Label monthLabel;
+    private Button previous;
+    private Button next;
+
+    @BeforeAll
+    static void startToolkit() {
+        try {
+            Platform.startup(() -> { });
+            Platform.setImplicitExit(false);
+            toolkit = true;
+        } catch (IllegalStateException alreadyStarted) {
+            toolkit = true;
+        } catch (RuntimeException | LinkageError unavailable) {
+            toolkit = false;
+        }
+    }
+
+    @BeforeEach
+    void openTab() throws Exception {
+        assumeTrue(toolkit, "no JavaFX toolkit for this platform");
+        TaskManager manager = TestTaskManagers.open(dir);
+        // Up to three tasks a day, shifted month to month so each slot shows varying counts
+        List<Task> seeded = new ArrayList<>();
+        YearMonth first = YearMonth.now();
+        for (int m = 0; m <= MONTHS; m++) {
+            YearMonth month = first.plusMonths(m);
+            for (int day = 1; day <= month.lengthOfMonth(); day++) {
+                for (int i = 0; i < (day + m) % 4; i++) {
+                    seeded.add(new Task("Task " + m + "/" + day + "/" + i, "", "Work", 1 + i, month.atDay(day).atTime(9 + i, 0)));
+                }
+            }
+        }
+        manager.importTasks(seeded, true);
+
+        tasks = new AsyncTaskManager(manager, Platform::runLater);
+        onFx(() -> {
+            tab = new MonthViewCalendarTab(tasks);
+            monthLabel = (Label) tab.lookup(".calendar-month-title");
+            List<Node> buttons = new ArrayList<>(tab.lookupAll(".calendar-nav-button"));
+            previous = (Button) buttons.stream().filter(b -> ((Button) b).getText().contains("Previous")).findFirst().orElseThrow();
+            next = (Button) buttons.stream().filter(b -> ((Button) b).getText().contains("Next")).findFirst().orElseThrow();
+            return null;
+        });
+        awaitMonth(first);
+    }
+
+    @AfterEach
+    void close() {
+        if (tasks != null) {
+            tasks.close(10);
+        }
+    }
+
+    @Test
+    void navigationReusesCellsAndChips() throws Exception {
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i < MONTHS; i++) {
+            month = navigate(next, month.plusMonths(1));
+        }
+        Set<Node> cells = nodes(".calendar-cell");
+        Set<Node> chips = nodes(".calendar-task-item");
+        assertEquals(42, cells.size());
+
+        for (int i = 0; i < MONTHS; i++) {
+            month = navigate(previous, month.minusMonths(1));
+        }
+        for (int i = 0; i < MONTHS; i++) {
+            month = navigate(next, month.plusMonths(1));
+        }
+
+        assertEquals(cells, nodes(".calendar-cell"), "day cells were rebuilt");
+        assertEquals(chips, nodes(".calendar-task-item"), "task chips were rebuilt");
+        assertTrue(chips.size() <= 42 * 3, () -> chips.size() + " chips for at most 3 tasks a day");
+    }
+
+    private YearMonth navigate(Button button, YearMonth expected) throws Exception {
+        onFx(() -> {
+            button.fire();
+            return null;
+        });
+        awaitMonth(expected);
+        return expected;
+    }
+
+    // The label is only set once the month's tasks have been drawn
+    private void awaitMonth(YearMonth month) throws Exception {
+        String expected = month.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault()) + " " + month.getYear();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!expected.equals(onFx(monthLabel::getText))) {
+            assertTrue(System.nanoTime() < deadline, () -> "month " + month + " was not shown");
+            Thread.sleep(5);
+        }
+    }
+
+    private Set<Node> nodes(String selector) throws Exception {
+        return onFx(() -> {
+            Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+            nodes.addAll(tab.lookupAll(selector));
+            return nodes;
+        });
+    }
+
+    private static <T> T onFx(Callable<T> action) throws Exception {
+        FutureTask<T> task = new FutureTask<>(action);
+        Platform.runLater(task);
+        return task.get(10, TimeUnit.SECONDS);
+    }
+}
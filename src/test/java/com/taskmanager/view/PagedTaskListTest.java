@@ -0,0 +1,270 @@
+package com.taskmanager.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.service.AsyncTaskManager;
+import com.taskmanager.service.TaskManager;
+import com.taskmanager.service.TaskQuery;
+import com.taskmanager.service.TestTaskManagers;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that single-task changes reach {@link PagedTaskList} listeners as one targeted row
+ * change, that a row patched in place keeps the keyset paging after it right, and that the list
+ * keeps matching a fresh query through random edits.
+ *
+ * A single-thread executor stands in for the JavaFX Application Thread; every list access runs
+ * on it, as the list requires.
+ */
+class PagedTaskListTest {
+    private static final String[] CATEGORIES = {"Work", "Home", "Gym"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    // Large enough that every page of these lists fits in the list's page cache at once
+    private static final int PAGE_SIZE = 100;
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(9);
+    private final ExecutorService ui = Executors.newSingleThreadExecutor();
+    private AsyncTaskManager tasks;
+    private TaskManager manager;
+    private PagedTaskList list;
+    // Changes seen by listeners, as "set 3", "add 3", "remove 3" or "replace 0..50 removing 50"
+    private final List<String> changes = new ArrayList<>();
+
+    @BeforeEach
+    void open() throws Exception {
+        manager = TestTaskManagers.open(dir);
+        List<Task> seed = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Half-hour slots, so positions often tie on the due date and fall back to the id
+            Task task = new Task("t" + i, "d", CATEGORIES[random.nextInt(3)], 1 + random.nextInt(5),
+                START.plusMinutes(random.nextInt(20_000) / 30 * 30));
+            task.setCompleted(random.nextBoolean());
+            seed.add(task);
+        }
+        manager.importTasks(seed, true);
+        tasks = new AsyncTaskManager(manager, ui);
+    }
+
+    @AfterEach
+    void close() {
+        tasks.close(10);
+        ui.shutdownNow();
+    }
+
+    @Test
+    void editInPlaceSetsOneRow() throws Exception {
+        openList(TaskQuery.all());
+        Task task = new Task(onUi(() -> list.get(10)));
+
+        task.setTitle("renamed");
+        tasks.updateTask(task).get();
+
+        assertEquals(List.of("set 10"), settledChanges());
+        assertEquals("renamed", onUi(() -> list.get(10)).getTitle());
+    }
+
+    @Test
+    void addDeleteAndMoveChangeOneRowEach() throws Exception {
+        openList(TaskQuery.all());
+        Task first = onUi(() -> list.get(0));
+
+        Task added = new Task("first", "", "Work", 1, first.getDueDate().minusDays(1));
+        tasks.addTask(added).get();
+        assertEquals(List.of("add 0"), settledChanges());
+
+        // The insert dropped the pages from row 0 on; re-read them as a ListView showing them would
+        assertEquals(added.getId(), show(0).getId());
+        tasks.deleteTask(added.getId()).get();
+        assertEquals(List.of("remove 0"), settledChanges());
+
+        // Rescheduling past later rows is a removal plus an insert, not a reload
+        Task moved = new Task(show(5));
+        moved.setDueDate(show(20).getDueDate().plusMinutes(1));
+        tasks.updateTask(moved).get();
+        int newIndex = ids(manager.query(TaskQuery.all())).indexOf(moved.getId());
+        assertEquals(List.of("remove 5", "add " + newIndex), settledChanges());
+        assertEquals(moved.getId(), show(newIndex).getId());
+    }
+
+    @Test
+    void reschedulingAPageEndInPlaceMovesTheCursor() throws Exception {
+        // Small pages, so the edited row ends a page and the next page is read by keyset from it
+        List<Task> hourly = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            hourly.add(new Task("p" + i, "", "Paged", 1, START.plusYears(1).plusHours(i)));
+        }
+        tasks.write(m -> m.importTasks(hourly, false)).get();
+        TaskQuery query = TaskQuery.all().withCategories(List.of("Paged"));
+        openList(query, 10);
+        Task last = new Task(show(9));
+        assertEquals("p9", last.getTitle());
+
+        // Later, but still before p10: the same row
+        last.setDueDate(last.getDueDate().plusMinutes(30));
+        tasks.updateTask(last).get();
+        assertEquals(List.of("set 9"), settledChanges());
+
+        assertEquals(ids(manager.query(query)), ids(rows()));
+    }
+
+    @Test
+    void taskLeavingTheFilterRemovesOneRow() throws Exception {
+        openList(TaskQuery.all().withCompleted(false));
+        Task task = new Task(onUi(() -> list.get(3)));
+
+        task.setCompleted(true);
+        tasks.updateTask(task).get();
+
+        assertEquals(List.of("remove 3"), settledChanges());
+    }
+
+    @Test
+    void listMatchesAFreshQueryThroughRandomEdits() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            TaskQuery query = TaskQuery.all();
+            if (random.nextBoolean()) {
+                query = query.withCompleted(random.nextBoolean());
+            }
+            if (random.nextBoolean()) {
+                query = query.withCategories(List.of(CATEGORIES[random.nextInt(3)]));
+            }
+            openList(query);
+
+            for (int step = 0; step < 20; step++) {
+                // Touch a few rows, so some pages are loaded and others are not
+                int size = onUi(list::size);
+                for (int n = 0; n < 3 && size > 0; n++) {
+                    int index = random.nextInt(size);
+                    onUi(() -> list.get(index));
+                }
+                settledChanges();
+                randomEdit();
+
+                List<String> events = settledChanges();
+                // One change is at most a removal plus an insert, unless the list had to reload
+                assertTrue(events.size() <= 2 || events.stream().anyMatch(e -> e.startsWith("replace")), events::toString);
+                assertEquals(ids(manager.query(query)), ids(rows()), "round with " + query);
+            }
+            manager.removeChangeListener(list);
+        }
+    }
+
+    private void randomEdit() throws Exception {
+        List<Task> all = manager.getAllTasks();
+        Task task = new Task(all.get(random.nextInt(all.size())));
+        int op = random.nextInt(10);
+        if (op < 3) {
+            Task added = new Task("n", "x", CATEGORIES[random.nextInt(3)], 1 + random.nextInt(5),
+                START.plusMinutes(random.nextInt(20_000) / 30 * 30));
+            added.setCompleted(random.nextBoolean());
+            tasks.addTask(added).get();
+        } else if (op < 8) {
+            task.setCompleted(!task.isCompleted());
+            if (random.nextBoolean()) {
+                task.setDueDate(task.getDueDate().plusMinutes((random.nextInt(200) - 100) * 30L));
+            }
+            if (random.nextBoolean()) {
+                task.setCategory(CATEGORIES[random.nextInt(3)]);
+            }
+            tasks.updateTask(task).get();
+        } else if (op < 9) {
+            tasks.deleteTask(task.getId()).get();
+        } else {
+            tasks.write(m -> m.importTasks(List.of(new Task("imported", "i", "Work", 2, START.plusDays(4))), false)).get();
+        }
+    }
+
+    private void openList(TaskQuery query) throws Exception {
+        openList(query, PAGE_SIZE);
+    }
+
+    private void openList(TaskQuery query, int pageSize) throws Exception {
+        list = onUi(() -> new PagedTaskList(tasks, query, pageSize));
+        manager.addChangeListener(list);
+        onUi(() -> {
+            list.addListener((ListChangeListener<Task>) change -> {
+                while (change.next()) {
+                    if (change.wasReplaced() && change.getTo() - change.getFrom() == 1 && change.getRemovedSize() == 1) {
+                        changes.add("set " + change.getFrom());
+                    } else if (change.wasReplaced()) {
+                        changes.add("replace " + change.getFrom() + ".." + change.getTo() + " removing " + change.getRemovedSize());
+                    } else if (change.wasAdded()) {
+                        changes.add("add " + change.getFrom() + (change.getAddedSize() > 1 ? ".." + change.getTo() : ""));
+                    } else if (change.wasRemoved()) {
+                        changes.add("remove " + change.getFrom() + (change.getRemovedSize() > 1 ? " x" + change.getRemovedSize() : ""));
+                    }
+                }
+            });
+            return null;
+        });
+        settledChanges();
+    }
+
+    // The row at index, reading its page in first if needed; the page arrival is not kept as a change
+    private Task show(int index) throws Exception {
+        onUi(() -> list.get(index));
+        settledChanges();
+        return onUi(() -> list.get(index));
+    }
+
+    // The changes fired since the last call, once everything in flight has landed
+    private List<String> settledChanges() throws Exception {
+        settle();
+        return onUi(() -> {
+            List<String> fired = new ArrayList<>(changes);
+            changes.clear();
+            return fired;
+        });
+    }
+
+    // Every row, reading pages in as needed
+    private List<Task> rows() throws Exception {
+        while (true) {
+            List<Task> rows = onUi(() -> {
+                List<Task> read = new ArrayList<>();
+                for (int i = 0; i < list.size(); i++) {
+                    read.add(list.get(i));
+                }
+                return read;
+            });
+            settle();
+            if (!rows.contains(null)) {
+                return rows;
+            }
+        }
+    }
+
+    // Follow-up reads can queue further reads, so drain the writer and the UI thread a few times
+    private void settle() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            tasks.inWriteOrder(m -> null).get(10, TimeUnit.SECONDS);
+            onUi(() -> null);
+        }
+    }
+
+    private <T> T onUi(Callable<T> action) throws Exception {
+        return ui.submit(action).get(10, TimeUnit.SECONDS);
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}